@@ -1,5 +1,8 @@
 package io.github.lmores.tsplib;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
 import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
 
 /**
@@ -34,9 +37,22 @@ public interface BaseInstance {
   /**
    * Returns the node coordinates used to compute edge weights.
    *
+   * @return the node coordinates used to compute edge weights (possibly null)
+   * @since  0.0.4
+   */
+  public abstract NodeCoordinates coordinates();
+
+  /**
+   * Returns the node coordinates used to compute edge weights, one array per node.
+   *
+   * The matrix is built from {@link #coordinates()} on first use.
+   *
    * @return the node coordinates used to compute edge weights
    */
-  public abstract double[][] nodeCoords();
+  public default double[][] nodeCoords() {
+    final NodeCoordinates coordinates = coordinates();
+    return coordinates == null ? null : coordinates.toArray();
+  }
 
   /**
    * Returns the node coordinates to be used for graphical display only.
@@ -68,6 +84,41 @@ public interface BaseInstance {
    */
   public abstract int getEdgeWeight(final int i, final int j);
 
+  /**
+   * Computes the weights of the edges joining node {@code i} to each of the
+   * provided nodes, i.e. sets {@code out[k]} to the weight of the edge
+   * joining node {@code i} and node {@code targets[k]}.
+   *
+   * Instances whose weights are computed from node coordinates override this
+   * method with a kernel of {@link TsplibUtil} that loads the coordinates of
+   * node {@code i} once, which is faster than calling
+   * {@link #getEdgeWeight(int, int)} for each target (e.g. when building
+   * neighbor lists).
+   *
+   * @param i        0-based index of the source node
+   * @param targets  0-based indexes of the target nodes
+   * @param out      the array receiving the weights (at least as long as {@code targets})
+   * @since    0.0.4
+   */
+  public default void getEdgeWeights(final int i, final int[] targets, final int[] out) {
+    for (int k = 0; k < targets.length; ++k)  out[k] = getEdgeWeight(i, targets[k]);
+  }
+
+  /**
+   * Computes the weights of the edges joining node {@code i} to each node in
+   * the range {@code [from, to)}, i.e. sets {@code out[j - from]} to the
+   * weight of the edge joining node {@code i} and node {@code j}.
+   *
+   * @param i     0-based index of the source node
+   * @param from  0-based index of the first target node (inclusive)
+   * @param to    0-based index of the last target node (exclusive)
+   * @param out   the array receiving the weights (at least {@code to - from} long)
+   * @since    0.0.4
+   */
+  public default void getEdgeWeights(final int i, final int from, final int to, final int[] out) {
+    for (int j = from; j < to; ++j)  out[j - from] = getEdgeWeight(i, j);
+  }
+
   /**
    * Checks whether there esists an edge joining nodes {@code i} and {@code j}.
    *
@@ -77,6 +128,17 @@ public interface BaseInstance {
    */
   public abstract boolean hasEdge(final int i, final int j);
 
+  /**
+   * Returns whether the weight of edge {@code (i, j)} is always equal to the
+   * weight of edge {@code (j, i)}.
+   *
+   * @return  true if edge weights are symmetric, false if they may not be
+   * @since   0.0.4
+   */
+  public default boolean isSymmetric() {
+    return false;
+  }
+
   /**
    * Compute the value of a tour (i.e. the sum of the weights of its edges).
    *
@@ -108,12 +170,44 @@ public interface BaseInstance {
   public default int[][] materializeEdgeWeightsMatrix() {
     final int dimension = dimension();
     final int[][] weights = new int[dimension][dimension];
-    for (int i = 0; i < dimension; ++i) {
-      for (int j = 0; j < dimension; ++j) {
-        weights[i][j] = getEdgeWeight(i, j);
-      }
-    }
+    for (int i = 0; i < dimension; ++i)  getEdgeWeights(i, 0, dimension, weights[i]);
 
     return weights;
   }
+
+  /**
+   * Returns the edge weights in a matrix computed in parallel by the threads
+   * of the common {@link ForkJoinPool}.
+   *
+   * @return  a matrix containing edge weights
+   * @see     #materializeEdgeWeights(Executor)
+   * @since   0.0.4
+   */
+  public default EdgeWeightMatrix materializeEdgeWeights() {
+    return materializeEdgeWeights(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Returns the edge weights in a matrix computed in parallel on the
+   * provided executor.
+   *
+   * Rows are split into blocks of similar cost, and each block is filled by
+   * a task calling {@link #getEdgeWeights(int, int, int, int[])}. When edge
+   * weights are symmetric (see {@link #isSymmetric()}) only the lower
+   * triangle is computed and stored in a packed matrix, which takes half the
+   * time and memory of {@link #materializeEdgeWeightsMatrix()}; in any case
+   * weights are stored in the narrowest primitive type that can represent
+   * all of them.
+   * <p>
+   * Instances with explicit edge weights return the (immutable) matrix they
+   * hold without computing anything.
+   *
+   * @param executor  the executor running the tasks
+   * @return          a matrix containing edge weights
+   * @throws IllegalArgumentException  if the matrix does not fit into Java arrays
+   * @since   0.0.4
+   */
+  public default EdgeWeightMatrix materializeEdgeWeights(final Executor executor) {
+    return EdgeWeightMaterializer.materialize(this, executor);
+  }
 }
@@ -0,0 +1,77 @@
+package io.github.lmores.tsplib;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A future completed by a read task, which stops the task early when the
+ * future is cancelled.
+ *
+ * Cancelling the future interrupts the thread running the task, if any:
+ * the {@link TsplibTokenizer} notices the interrupt within a few thousand
+ * tokens and aborts the parse, and so do the workers of a
+ * {@link ParallelSectionParser} started by the task. The interrupt status
+ * of the thread is cleared before it is returned to its executor.
+ *
+ * @param <T>  the type of the result
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+final class CancellableRead<T> extends CompletableFuture<T> implements Runnable {
+
+  /** A read task. */
+  @FunctionalInterface
+  interface Task<T> {
+    T call() throws IOException;
+  }
+
+  private final Task<T> task;
+  private Thread runner;  // guarded by this
+
+  /**
+   * Creates a future completed by running the provided task.
+   *
+   * @param task  the read task
+   */
+  CancellableRead(final Task<T> task) {
+    this.task = task;
+  }
+
+  @Override
+  public void run() {
+    synchronized (this) {
+      if (isDone())  return;
+      runner = Thread.currentThread();
+    }
+
+    try {
+      complete(task.call());
+    } catch (final Throwable t) {
+      completeExceptionally(t);
+    } finally {
+      synchronized (this) {
+        runner = null;
+      }
+      if (isCancelled())  Thread.interrupted();
+    }
+  }
+
+  /**
+   * Cancels this future and interrupts the thread running the task, if any
+   * (regardless of {@code mayInterruptIfRunning}, since the task reacts to
+   * interrupts by stopping early).
+   *
+   * @param mayInterruptIfRunning  ignored
+   * @return                       true if this future is now cancelled
+   */
+  @Override
+  public boolean cancel(final boolean mayInterruptIfRunning) {
+    final boolean cancelled = super.cancel(mayInterruptIfRunning);
+    if (cancelled) {
+      synchronized (this) {
+        if (runner != null)  runner.interrupt();
+      }
+    }
+    return cancelled;
+  }
+}
@@ -0,0 +1,164 @@
+package io.github.lmores.tsplib;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * An {@link EdgeWeightMatrix} whose int weights are stored outside the Java
+ * heap, in direct buffers addressed by a long index.
+ *
+ * A single buffer holds at most 2 GB, hence the entries are split into
+ * chunks of {@code 2^chunkShift} ints: entry {@code k} is stored at index
+ * {@code k & (chunkLength - 1)} of chunk {@code k >>> chunkShift}. The
+ * entries are laid out either as a full matrix (row by row) or, for
+ * symmetric matrices, as the lower triangle (diagonal included) row by row,
+ * as done by {@link PackedEdgeWeightMatrix}.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+final class ChunkedEdgeWeightMatrix implements EdgeWeightMatrix {
+
+  /** Default number of ints per chunk (1 GB), as a power of two. */
+  static final int DEFAULT_CHUNK_SHIFT = 28;
+
+  private final int dimension;
+  private final boolean packed;
+  private final int chunkShift;
+  private final int chunkMask;
+  private final IntBuffer[] chunks;
+
+  /**
+   * Creates a matrix backed by the provided chunks.
+   *
+   * @param dimension   the dimension of the matrix
+   * @param packed      whether the chunks hold the lower triangle or the full matrix
+   * @param chunkShift  the base 2 logarithm of the number of ints per chunk
+   * @param chunks      the chunks, all full except possibly the last one
+   * @throws IllegalArgumentException  if the chunks do not hold the expected number of entries
+   */
+  ChunkedEdgeWeightMatrix(
+      final int dimension, final boolean packed, final int chunkShift, final IntBuffer[] chunks
+  ) {
+    long actualLength = 0;
+    for (final IntBuffer chunk: chunks)  actualLength += chunk.capacity();
+    if (actualLength != length(dimension, packed)) {
+      throw new IllegalArgumentException(
+          "Off-heap matrix of dimension " + dimension + " has " + actualLength +
+          " entries, expected: " + length(dimension, packed)
+      );
+    }
+
+    this.dimension = dimension;
+    this.packed = packed;
+    this.chunkShift = chunkShift;
+    this.chunkMask = (1 << chunkShift) - 1;
+    this.chunks = chunks;
+  }
+
+  /**
+   * Allocates a matrix filled with zeros in direct buffers.
+   *
+   * @param dimension   the dimension of the matrix
+   * @param packed      whether to store only the lower triangle
+   * @param chunkShift  the base 2 logarithm of the number of ints per chunk
+   * @return            a new matrix
+   * @throws OutOfMemoryError  if the direct memory limit of the JVM is exceeded
+   */
+  static ChunkedEdgeWeightMatrix allocateDirect(
+      final int dimension, final boolean packed, final int chunkShift
+  ) {
+    final long length = length(dimension, packed);
+    final int chunkLength = 1 << chunkShift;
+    final IntBuffer[] chunks = new IntBuffer[(int) ((length + chunkLength - 1) >>> chunkShift)];
+    for (int c = 0; c < chunks.length; ++c) {
+      final int size = (int) Math.min(chunkLength, length - ((long) c << chunkShift));
+      chunks[c] = ByteBuffer.allocateDirect(size * Integer.BYTES)
+          .order(ByteOrder.nativeOrder())
+          .asIntBuffer();
+    }
+    return new ChunkedEdgeWeightMatrix(dimension, packed, chunkShift, chunks);
+  }
+
+  /**
+   * Returns the number of entries of a matrix with the given dimension and layout.
+   *
+   * @param dimension  the dimension of the matrix
+   * @param packed     whether only the lower triangle is stored
+   * @return           the number of stored entries
+   */
+  static long length(final int dimension, final boolean packed) {
+    return packed
+        ? TsplibUtil.lowerTriangularToArrayIndex(dimension, 0)
+        : (long) dimension * dimension;
+  }
+
+  /**
+   * Returns the index of the first entry of row {@code i}.
+   *
+   * @param i  the 0-based index of the row
+   * @return   the index of entry {@code (i, 0)}
+   */
+  long rowOffset(final int i) {
+    return packed ? TsplibUtil.lowerTriangularToArrayIndex(i, 0) : (long) i * dimension;
+  }
+
+  /**
+   * Returns the number of entries stored for row {@code i}.
+   *
+   * @param i  the 0-based index of the row
+   * @return   {@code i + 1} if packed, the dimension otherwise
+   */
+  int rowLength(final int i) {
+    return packed ? i + 1 : dimension;
+  }
+
+  /**
+   * Copies the first {@code length} values of the provided array to the
+   * entries starting at the provided index, possibly across chunks.
+   *
+   * @param index   the index of the first entry to write
+   * @param values  the values to write
+   * @param length  the number of values to write
+   */
+  void put(final long index, final int[] values, final int length) {
+    int k = 0;
+    while (k < length) {
+      final long h = index + k;
+      final IntBuffer chunk = chunks[(int) (h >>> chunkShift)];
+      final int offset = (int) (h & chunkMask);
+      final int m = Math.min(length - k, chunk.capacity() - offset);
+      chunk.put(offset, values, k, m);
+      k += m;
+    }
+  }
+
+  IntBuffer[] chunks() {
+    return chunks;
+  }
+
+  int chunkShift() {
+    return chunkShift;
+  }
+
+  @Override
+  public int dimension() {
+    return dimension;
+  }
+
+  @Override
+  public int get(final int i, final int j) {
+    final long h = packed
+        ? (i >= j
+            ? TsplibUtil.lowerTriangularToArrayIndex(i, j)
+            : TsplibUtil.lowerTriangularToArrayIndex(j, i))
+        : (long) i * dimension + j;
+    return chunks[(int) (h >>> chunkShift)].get((int) (h & chunkMask));
+  }
+
+  @Override
+  public boolean isSymmetric() {
+    return packed;
+  }
+}
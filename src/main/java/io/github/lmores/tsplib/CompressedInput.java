@@ -0,0 +1,94 @@
+package io.github.lmores.tsplib;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import io.github.lmores.tsplib.TsplibFileFormat.TsplibFileFormatException;
+
+/**
+ * Detects gzip and zip compressed input by its magic bytes and decompresses
+ * it on the fly, so that compressed files can be parsed without extracting
+ * them to temporary files.
+ *
+ * A zip archive must contain a single file in TSPLIB format: its first entry
+ * that is not a directory is read, the others are ignored.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+final class CompressedInput {
+
+  private static final int MAGIC_LENGTH = 4;
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /** This class contains only static methods and no instance is allowed. */
+  private CompressedInput() { /* no-op */ }
+
+  /**
+   * Returns an input stream emitting the decompressed content of the provided
+   * one if it is gzip or zip compressed, its content as is otherwise.
+   *
+   * The returned stream takes the ownership of the provided one and closes it
+   * when it is closed.
+   *
+   * @param is  the possibly compressed source
+   * @return    the decompressed source
+   * @throws IOException  if an I/O error occurs
+   */
+  static InputStream decompress(final InputStream is) throws IOException {
+    final PushbackInputStream pis = new PushbackInputStream(is, MAGIC_LENGTH);
+    final byte[] magic = new byte[MAGIC_LENGTH];
+    final int n = pis.readNBytes(magic, 0, MAGIC_LENGTH);
+    pis.unread(magic, 0, n);
+
+    if (isGzip(magic[0], magic[1])) {
+      return new GZIPInputStream(pis, BUFFER_SIZE);
+    }
+
+    if (isZip(magic[0], magic[1], magic[2], magic[3])) {
+      final ZipInputStream zis = new ZipInputStream(pis);
+      ZipEntry entry;
+      do {
+        entry = zis.getNextEntry();
+      } while (entry != null && entry.isDirectory());
+
+      if (entry == null) {
+        zis.close();
+        throw new TsplibFileFormatException("Zip archive contains no file");
+      }
+      return zis;
+    }
+
+    return pis;
+  }
+
+  /**
+   * Returns whether the content starting at position 0 of the provided
+   * buffer is gzip or zip compressed.
+   *
+   * @param content  the buffer holding the content to check
+   * @return         true if the content is compressed, false otherwise
+   */
+  static boolean isCompressed(final ByteBuffer content) {
+    if (content.limit() < MAGIC_LENGTH)  return false;
+    return isGzip(content.get(0), content.get(1))
+        || isZip(content.get(0), content.get(1), content.get(2), content.get(3));
+  }
+
+  // ==============================================================================================
+  // Private helpers
+  // ==============================================================================================
+
+  private static boolean isGzip(final byte b0, final byte b1) {
+    return b0 == (byte) 0x1f && b1 == (byte) 0x8b;
+  }
+
+  private static boolean isZip(final byte b0, final byte b1, final byte b2, final byte b3) {
+    return b0 == 'P' && b1 == 'K' && b2 == 3 && b3 == 4;
+  }
+}
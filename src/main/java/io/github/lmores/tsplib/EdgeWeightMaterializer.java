@@ -0,0 +1,213 @@
+package io.github.lmores.tsplib;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Computes the edge weights of an instance in parallel and stores them into
+ * an {@link EdgeWeightMatrix}.
+ *
+ * Rows are split into contiguous blocks, one task per block: the lower
+ * triangle of a symmetric matrix is split so that each block holds about the
+ * same number of entries (row {@code i} holds {@code i + 1} of them), which
+ * keeps the load balanced even though the last rows are the longest ones.
+ * Each task also records the range of its weights, so that the matrix is
+ * narrowed to byte or short storage by a second parallel pass instead of a
+ * sequential scan.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+final class EdgeWeightMaterializer {
+
+  /** Number of tasks submitted per available processor, to absorb uneven progress. */
+  private static final int TASKS_PER_PROCESSOR = 4;
+
+  /** This class contains only static methods and no instance is allowed. */
+  private EdgeWeightMaterializer() { /* no-op */ }
+
+  /**
+   * Returns the edge weights of the provided instance, in a packed matrix if
+   * the instance is symmetric.
+   *
+   * @param instance  the instance
+   * @param executor  the executor running the tasks
+   * @return          a matrix containing edge weights
+   * @throws IllegalArgumentException  if the matrix does not fit into Java arrays
+   */
+  static EdgeWeightMatrix materialize(final BaseInstance instance, final Executor executor) {
+    final int n = instance.dimension();
+    final int tasks = taskCount(n);
+    final int[] mins = new int[tasks];
+    final int[] maxs = new int[tasks];
+
+    if (instance.isSymmetric()) {
+      final int length = PackedEdgeWeightMatrix.length(n);
+      final int[] lowerTriangle = new int[length];
+      runAll(n, tasks, true, executor, (k, from, to) -> {
+        final int[] row = new int[to];
+        for (int i = from; i < to; ++i) {
+          instance.getEdgeWeights(i, 0, i + 1, row);
+          updateRange(k, mins, maxs, row, i + 1);
+          System.arraycopy(
+              row, 0, lowerTriangle, (int) TsplibUtil.lowerTriangularToArrayIndex(i, 0), i + 1
+          );
+        }
+      });
+
+      return switch (narrowestSize(mins, maxs)) {
+        case Byte.BYTES -> {
+          final byte[] bytes = new byte[length];
+          runAll(length, tasks, false, executor, (k, from, to) -> {
+            for (int h = from; h < to; ++h)  bytes[h] = (byte) lowerTriangle[h];
+          });
+          yield new PackedEdgeWeightMatrix(n, bytes, null, null);
+        }
+        case Short.BYTES -> {
+          final short[] shorts = new short[length];
+          runAll(length, tasks, false, executor, (k, from, to) -> {
+            for (int h = from; h < to; ++h)  shorts[h] = (short) lowerTriangle[h];
+          });
+          yield new PackedEdgeWeightMatrix(n, null, shorts, null);
+        }
+        default -> new PackedEdgeWeightMatrix(n, null, null, lowerTriangle);
+      };
+    }
+
+    final int[][] weights = new int[n][];
+    runAll(n, tasks, false, executor, (k, from, to) -> {
+      for (int i = from; i < to; ++i) {
+        final int[] row = new int[n];
+        instance.getEdgeWeights(i, 0, n, row);
+        updateRange(k, mins, maxs, row, n);
+        weights[i] = row;
+      }
+    });
+
+    return switch (narrowestSize(mins, maxs)) {
+      case Byte.BYTES -> {
+        final byte[][] byteRows = new byte[n][];
+        runAll(n, tasks, false, executor, (k, from, to) -> {
+          for (int i = from; i < to; ++i)  byteRows[i] = EdgeWeightStorage.toBytes(weights[i]);
+        });
+        yield new FullEdgeWeightMatrix(byteRows, null, null);
+      }
+      case Short.BYTES -> {
+        final short[][] shortRows = new short[n][];
+        runAll(n, tasks, false, executor, (k, from, to) -> {
+          for (int i = from; i < to; ++i)  shortRows[i] = EdgeWeightStorage.toShorts(weights[i]);
+        });
+        yield new FullEdgeWeightMatrix(null, shortRows, null);
+      }
+      default -> new FullEdgeWeightMatrix(null, null, weights);
+    };
+  }
+
+  /**
+   * Fills an off-heap matrix with the edge weights of the provided instance.
+   *
+   * @param instance  the instance
+   * @param matrix    the matrix to fill, with the same dimension as the instance
+   * @param executor  the executor running the tasks
+   */
+  static void fill(
+      final BaseInstance instance, final ChunkedEdgeWeightMatrix matrix, final Executor executor
+  ) {
+    final int n = matrix.dimension();
+    final int tasks = taskCount(n);
+    runAll(n, tasks, matrix.isSymmetric(), executor, (k, from, to) -> {
+      final int[] row = new int[matrix.rowLength(to - 1)];
+      for (int i = from; i < to; ++i) {
+        final int length = matrix.rowLength(i);
+        instance.getEdgeWeights(i, 0, length, row);
+        matrix.put(matrix.rowOffset(i), row, length);
+      }
+    });
+  }
+
+  // ==============================================================================================
+  // Private helpers
+  // ==============================================================================================
+
+  /** Fills the k-th block, i.e. the entries in the range {@code [from, to)}. */
+  @FunctionalInterface
+  private interface Block {
+    void fill(int k, int from, int to);
+  }
+
+  /**
+   * Splits the range {@code [0, n)} into the provided number of blocks,
+   * fills them on the executor and waits for all of them.
+   */
+  private static void runAll(
+      final int n, final int tasks, final boolean triangular, final Executor executor,
+      final Block block
+  ) {
+    final List<CompletableFuture<Void>> futures = new ArrayList<>(tasks);
+    for (int k = 0, from = 0; k < tasks; ++k) {
+      final int to = k == tasks - 1 ? n : blockEnd(n, tasks, k + 1, triangular);
+      if (to > from) {
+        final int blockFrom = from;
+        final int blockIndex = k;
+        futures.add(CompletableFuture.runAsync(
+            () -> block.fill(blockIndex, blockFrom, to), executor
+        ));
+        from = to;
+      }
+    }
+
+    try {
+      for (final CompletableFuture<Void> f: futures)  f.join();
+    } catch (final CompletionException e) {
+      futures.forEach(f -> f.cancel(false));
+      if (e.getCause() instanceof RuntimeException r)  throw r;
+      if (e.getCause() instanceof Error err)  throw err;
+      throw e;
+    }
+  }
+
+  /** Returns the number of tasks used to fill a matrix with the given dimension. */
+  private static int taskCount(final int n) {
+    final int processors = Runtime.getRuntime().availableProcessors();
+    return Math.max(1, Math.min(n, TASKS_PER_PROCESSOR * processors));
+  }
+
+  /** Extends the range of values of the k-th block with the first m values of the row. */
+  private static void updateRange(
+      final int k, final int[] mins, final int[] maxs, final int[] row, final int m
+  ) {
+    int min = mins[k];
+    int max = maxs[k];
+    for (int j = 0; j < m; ++j) {
+      min = Math.min(min, row[j]);
+      max = Math.max(max, row[j]);
+    }
+    mins[k] = min;
+    maxs[k] = max;
+  }
+
+  /** Returns the narrowest storage size of the values of all blocks. */
+  private static int narrowestSize(final int[] mins, final int[] maxs) {
+    int min = 0;
+    int max = 0;
+    for (int k = 0; k < mins.length; ++k) {
+      min = Math.min(min, mins[k]);
+      max = Math.max(max, maxs[k]);
+    }
+    return EdgeWeightStorage.narrowestSize(min, max);
+  }
+
+  /**
+   * Returns the end of the k-th block: blocks of a triangle end at
+   * {@code n * sqrt(k / tasks)}, so that each one holds about
+   * {@code n^2 / (2 * tasks)} entries.
+   */
+  private static int blockEnd(final int n, final int tasks, final int k, final boolean triangular) {
+    return triangular
+        ? (int) Math.round(n * Math.sqrt((double) k / tasks))
+        : (int) ((long) n * k / tasks);
+  }
+}
@@ -0,0 +1,114 @@
+package io.github.lmores.tsplib;
+
+/**
+ * A square matrix of edge weights read from an 'EDGE_WEIGHT_SECTION'.
+ *
+ * Weights provided in 'FULL_MATRIX' format are stored as rows of a full
+ * matrix, while weights provided in any of the 'LOWER_*' and 'UPPER_*'
+ * formats are stored in a single flat array holding the lower triangle
+ * (diagonal included) row by row, which takes half the memory.
+ * <p>
+ * In both cases, weights are held in the narrowest primitive type (byte,
+ * short or int) that can represent all of them: since most explicit
+ * instances have small weights, this shrinks the matrix by 2 to 4 times and
+ * lets it fit into the processor caches.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+public interface EdgeWeightMatrix {
+
+  /**
+   * Returns the number of rows (and columns) of this matrix.
+   *
+   * @return  the dimension of this matrix
+   */
+  public abstract int dimension();
+
+  /**
+   * Returns the weight of the edge from node {@code i} to node {@code j}.
+   *
+   * @param i  the 0-based index of the first node
+   * @param j  the 0-based index of the second node
+   * @return   the weight of the edge
+   */
+  public abstract int get(final int i, final int j);
+
+  /**
+   * Returns whether this matrix stores a single value for each pair of nodes
+   * (i.e. whether {@code get(i, j) == get(j, i)} is guaranteed).
+   *
+   * @return  true if the matrix is stored as symmetric, false otherwise
+   */
+  public abstract boolean isSymmetric();
+
+  /**
+   * Returns a copy of this matrix as a full square matrix.
+   *
+   * @return  a newly allocated matrix with the same entries
+   */
+  public default int[][] toArray() {
+    final int n = dimension();
+    final int[][] m = new int[n][n];
+    for (int i = 0; i < n; ++i) {
+      final int[] row = m[i];
+      for (int j = 0; j < n; ++j)  row[j] = get(i, j);
+    }
+    return m;
+  }
+
+  /**
+   * Returns a matrix with the same entries as the provided rows.
+   *
+   * The rows are copied into byte or short arrays when all the weights fit
+   * into such types, otherwise the matrix is backed by the provided rows (no
+   * copy is made).
+   *
+   * @param weights  a square matrix
+   * @return         a matrix with the same entries
+   */
+  public static EdgeWeightMatrix full(final int[][] weights) {
+    return FullEdgeWeightMatrix.of(weights);
+  }
+
+  /**
+   * Returns a symmetric matrix whose lower triangle (diagonal included) is
+   * provided row by row.
+   *
+   * The entry at row {@code i} and column {@code j <= i} is stored at index
+   * {@link TsplibUtil#lowerTriangularToArrayIndex(int, int)}. The array is
+   * copied into a byte or short array when all the weights fit into such
+   * types, otherwise the matrix is backed by the provided array (no copy is
+   * made).
+   *
+   * @param dimension      the dimension of the matrix
+   * @param lowerTriangle  an array of length {@code dimension * (dimension + 1) / 2}
+   * @return               a matrix with the same entries
+   */
+  public static EdgeWeightMatrix packedSymmetric(final int dimension, final int[] lowerTriangle) {
+    return PackedEdgeWeightMatrix.of(dimension, lowerTriangle);
+  }
+
+  /**
+   * Returns a matrix with the same entries as the provided one, packed if
+   * it is symmetric.
+   *
+   * @param weights  a square matrix
+   * @return         a matrix with the same entries
+   */
+  public static EdgeWeightMatrix of(final int[][] weights) {
+    final int n = weights.length;
+    for (int i = 0; i < n; ++i) {
+      for (int j = 0; j < i; ++j) {
+        if (weights[i][j] != weights[j][i])  return full(weights);
+      }
+    }
+
+    final int[] lowerTriangle = new int[PackedEdgeWeightMatrix.length(n)];
+    for (int i = 0, k = 0; i < n; ++i) {
+      System.arraycopy(weights[i], 0, lowerTriangle, k, i + 1);
+      k += i + 1;
+    }
+    return packedSymmetric(n, lowerTriangle);
+  }
+}
@@ -0,0 +1,380 @@
+package io.github.lmores.tsplib;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
+import io.github.lmores.tsplib.TsplibFileFormat.TsplibFileFormatException;
+
+/**
+ * A directory of files holding materialized edge weights matrices, which
+ * are memory mapped by the processes that use them.
+ *
+ * The first call to {@link #load(BaseInstance)} for an instance computes its
+ * edge weights (see {@link BaseInstance#materializeEdgeWeights()}) and
+ * writes them to a file of this store; later calls, also from other JVMs,
+ * skip the computation and map the file read-only, so that all the
+ * processes on a host share a single copy of the matrix in the page cache
+ * of the operating system.
+ * <p>
+ * Files are named after the instance and a fingerprint of the data its
+ * weights depend on: name, edge weight type, dimension and either the node
+ * coordinates, for the built-in metrics computed from them, or a key
+ * provided by the caller (see {@link #load(BaseInstance, String)}). Without
+ * a key, the weights of any other type (e.g. EXPLICIT and SPECIAL) are
+ * identified by hashing all of them, hence {@link #load(BaseInstance)}
+ * computes every weight once even when the matrix file exists: pass a key
+ * to skip the computation for instances whose weights are expensive.
+ * <p>
+ * A file is written under a temporary name and then atomically renamed,
+ * hence concurrent processes never map a partially written matrix: at
+ * worst, each of them computes the matrix once and the last rename wins.
+ * <p>
+ * A matrix file is a little-endian sequence of a 64 bytes header (the magic
+ * number {@code "TSPM"}, the format version, the dimension and the layout
+ * flag, zero padded) followed by the int weights, either the lower triangle
+ * (diagonal included) row by row, for symmetric instances, or the full
+ * matrix row by row. Files written by a different version of the format
+ * are rejected.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+public final class EdgeWeightMatrixStore {
+
+  /** The first four bytes of a matrix file ("TSPM" in ASCII). */
+  public static final int MAGIC = 0x5453504d;
+
+  /** The version of the format written by this class. */
+  public static final int VERSION = 1;
+
+  /** The extension of matrix files. */
+  public static final String EXTENSION = ".ewm";
+
+  private static final int HEADER_BYTES = 64;
+  private static final int FULL_LAYOUT = 1;
+  private static final int PACKED_LAYOUT = 2;
+
+  private final Path directory;
+
+  /**
+   * Creates a store keeping its files in the provided directory, which is
+   * created on first use if it does not exist.
+   *
+   * @param directory  the directory holding the matrix files
+   */
+  public EdgeWeightMatrixStore(final Path directory) {
+    if (directory == null) {
+      throw new IllegalArgumentException("Directory is null");
+    }
+    this.directory = directory;
+  }
+
+  /**
+   * Returns the directory holding the matrix files.
+   *
+   * @return  the directory of this store
+   */
+  public Path directory() {
+    return directory;
+  }
+
+  /**
+   * Returns the file holding the matrix of the provided instance (which may
+   * not exist yet).
+   *
+   * @param instance  the instance
+   * @return          the path of the matrix file of the instance
+   */
+  public Path pathOf(final BaseInstance instance) {
+    return pathOf(instance, null);
+  }
+
+  /**
+   * Returns the file holding the matrix of the provided instance, whose
+   * weights are identified by the provided key (which may not exist yet).
+   *
+   * @param instance  the instance
+   * @param key       the identity of the edge weights, or null to derive it from the instance
+   * @return          the path of the matrix file of the instance
+   * @see #load(BaseInstance, String, Executor)
+   */
+  public Path pathOf(final BaseInstance instance, final String key) {
+    final String name = instance.name() == null ? "unnamed" : instance.name();
+    return directory.resolve(
+        name.replaceAll("[^A-Za-z0-9._-]", "_") + "-" +
+        String.format("%016x", fingerprint(instance, key)) + EXTENSION
+    );
+  }
+
+  /**
+   * Returns an instance whose edge weights are read from the memory mapped
+   * matrix file of the provided instance, computing the matrix on the
+   * threads of the common {@link ForkJoinPool} if the file does not exist.
+   *
+   * @param instance  the instance
+   * @return          an instance backed by a memory mapped matrix
+   * @throws IOException  if an I/O error occurs or the matrix file is invalid
+   */
+  public MaterializedInstance load(final BaseInstance instance) throws IOException {
+    return load(instance, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Returns an instance whose edge weights are read from the memory mapped
+   * matrix file of the provided instance, computing the matrix on the
+   * provided executor if the file does not exist.
+   *
+   * @param instance  the instance
+   * @param executor  the executor running the tasks filling the matrix
+   * @return          an instance backed by a memory mapped matrix
+   * @throws IOException  if an I/O error occurs or the matrix file is invalid
+   */
+  public MaterializedInstance load(
+      final BaseInstance instance, final Executor executor
+  ) throws IOException {
+    return load(instance, null, executor);
+  }
+
+  /**
+   * Returns an instance whose edge weights are read from the memory mapped
+   * matrix file identified by the provided key, computing the matrix on the
+   * threads of the common {@link ForkJoinPool} if the file does not exist.
+   *
+   * @param instance  the instance
+   * @param key       the identity of the edge weights, or null to derive it from the instance
+   * @return          an instance backed by a memory mapped matrix
+   * @throws IOException  if an I/O error occurs or the matrix file is invalid
+   * @see #load(BaseInstance, String, Executor)
+   */
+  public MaterializedInstance load(
+      final BaseInstance instance, final String key
+  ) throws IOException {
+    return load(instance, key, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Returns an instance whose edge weights are read from the memory mapped
+   * matrix file identified by the provided key, computing the matrix on the
+   * provided executor if the file does not exist.
+   *
+   * The key replaces the node coordinates or the weights in the fingerprint
+   * of the file, which still includes the name, edge weight type and
+   * dimension of the instance: when the file exists, no weight is computed.
+   * The caller must guarantee that instances sharing these values and the
+   * key have the same weights (e.g. a key naming the function and the
+   * version of the data of a SPECIAL instance), otherwise the matrix of a
+   * different instance is returned.
+   *
+   * @param instance  the instance
+   * @param key       the identity of the edge weights, or null to derive it from the instance
+   * @param executor  the executor running the tasks filling the matrix
+   * @return          an instance backed by a memory mapped matrix
+   * @throws IOException  if an I/O error occurs or the matrix file is invalid
+   */
+  public MaterializedInstance load(
+      final BaseInstance instance, final String key, final Executor executor
+  ) throws IOException {
+    final Path file = pathOf(instance, key);
+    if (!Files.exists(file))  write(instance, file, executor);
+    return new MaterializedInstance(instance, map(file, instance.dimension()));
+  }
+
+  // ==============================================================================================
+  // Private helpers
+  // ==============================================================================================
+
+  /** Computes the matrix into a temporary file, then renames it to the provided one. */
+  private void write(
+      final BaseInstance instance, final Path file, final Executor executor
+  ) throws IOException {
+    Files.createDirectories(directory);
+
+    final int n = instance.dimension();
+    final boolean packed = instance.isSymmetric();
+    // Unique among live writers; unlike Files.createTempFile, the file is
+    // created with the default permissions, hence readable by other users
+    final Path tmp = directory.resolve(
+        file.getFileName() + "." + ProcessHandle.current().pid() + "." +
+        Thread.currentThread().threadId() + ".tmp"
+    );
+    try {
+      try (final FileChannel ch = FileChannel.open(
+          tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+          StandardOpenOption.READ, StandardOpenOption.WRITE
+      )) {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(MAGIC).putInt(VERSION).putInt(n).putInt(packed ? PACKED_LAYOUT : FULL_LAYOUT);
+        header.rewind();
+        while (header.hasRemaining())  ch.write(header);
+
+        final MappedByteBuffer[] buffers = mapChunks(ch, MapMode.READ_WRITE, n, packed);
+        EdgeWeightMaterializer.fill(instance, matrix(buffers, n, packed), executor);
+        for (final MappedByteBuffer buffer: buffers)  buffer.force();
+      }
+
+      Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /** Maps a matrix file read-only, after checking its header. */
+  private static ChunkedEdgeWeightMatrix map(
+      final Path file, final int dimension
+  ) throws IOException {
+    try (final FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+      final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining()) {
+        if (ch.read(header) < 0)  break;
+      }
+      header.flip();
+
+      if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+        throw new TsplibFileFormatException("Not a matrix file: " + file);
+      }
+
+      final int version = header.getInt();
+      if (version != VERSION) {
+        throw new TsplibFileFormatException(
+            "Unsupported matrix file version " + version + " (expected " + VERSION + "): " + file
+        );
+      }
+
+      final int n = header.getInt();
+      final int layout = header.getInt();
+      if (n != dimension || (layout != FULL_LAYOUT && layout != PACKED_LAYOUT)) {
+        throw new TsplibFileFormatException("Invalid matrix file header: " + file);
+      }
+
+      final boolean packed = layout == PACKED_LAYOUT;
+      final long expectedSize =
+          HEADER_BYTES + ChunkedEdgeWeightMatrix.length(n, packed) * Integer.BYTES;
+      if (ch.size() != expectedSize) {
+        throw new TsplibFileFormatException(
+            "Matrix file has " + ch.size() + " bytes, expected " + expectedSize + ": " + file
+        );
+      }
+
+      return matrix(mapChunks(ch, MapMode.READ_ONLY, n, packed), n, packed);
+    }
+  }
+
+  /** Maps the weights of a matrix file, one buffer per chunk of {@link ChunkedEdgeWeightMatrix}. */
+  private static MappedByteBuffer[] mapChunks(
+      final FileChannel ch, final MapMode mode, final int n, final boolean packed
+  ) throws IOException {
+    final int shift = ChunkedEdgeWeightMatrix.DEFAULT_CHUNK_SHIFT;
+    final long length = ChunkedEdgeWeightMatrix.length(n, packed);
+    final int count = (int) ((length + (1 << shift) - 1) >>> shift);
+    final MappedByteBuffer[] buffers = new MappedByteBuffer[count];
+    for (int c = 0; c < buffers.length; ++c) {
+      final long first = (long) c << shift;
+      final long size = Math.min(1L << shift, length - first);
+      buffers[c] = ch.map(mode, HEADER_BYTES + first * Integer.BYTES, size * Integer.BYTES);
+    }
+    return buffers;
+  }
+
+  private static ChunkedEdgeWeightMatrix matrix(
+      final MappedByteBuffer[] buffers, final int n, final boolean packed
+  ) {
+    final IntBuffer[] chunks = new IntBuffer[buffers.length];
+    for (int c = 0; c < buffers.length; ++c) {
+      chunks[c] = buffers[c].order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+    return new ChunkedEdgeWeightMatrix(
+        n, packed, ChunkedEdgeWeightMatrix.DEFAULT_CHUNK_SHIFT, chunks
+    );
+  }
+
+  /**
+   * Returns a 64-bit FNV-1a hash of the data the edge weights of the
+   * instance depend on: the key, when provided, the node coordinates when
+   * weights are computed from them by a built-in metric (as doubles, hence
+   * single and double precision copies of an instance share their file), all
+   * the weights otherwise.
+   */
+  private static long fingerprint(final BaseInstance instance, final String key) {
+    final int n = instance.dimension();
+    final EdgeWeightType type = instance.edgeWeightType();
+    long h = 0xcbf29ce484222325L;
+    h = mixString(h, instance.name());
+    h = mixInt(h, type == null ? -1 : type.ordinal());
+    h = mixInt(h, n);
+    h = mixInt(h, instance.isSymmetric() ? 1 : 0);
+
+    if (key != null) {
+      // The length keeps the bytes of the key apart from those of coordinates or weights
+      return mixString(mixInt(h, key.length()), key);
+    }
+
+    final NodeCoordinates coords = instance.coordinates();
+    if (coords != null && isCoordinateMetric(type)) {
+      for (int i = 0; i < n; ++i) {
+        h = mix(h, Double.doubleToLongBits(coords.x(i)));
+        h = mix(h, Double.doubleToLongBits(coords.y(i)));
+        if (coords.is3d())  h = mix(h, Double.doubleToLongBits(coords.z(i)));
+      }
+      return h;
+    }
+
+    // Explicit weights are already in memory and hashing them costs as much
+    // as parsing them; weights computed by other functions (e.g. SPECIAL)
+    // cannot be told apart without computing them
+    final int[] row = new int[n];
+    for (int i = 0; i < n; ++i) {
+      final int length = instance.isSymmetric() ? i + 1 : n;
+      instance.getEdgeWeights(i, 0, length, row);
+      for (int j = 0; j < length; ++j)  h = mixInt(h, row[j]);
+    }
+    return h;
+  }
+
+  /** Returns whether the weights of the provided type are a function of node coordinates only. */
+  private static boolean isCoordinateMetric(final EdgeWeightType type) {
+    if (type == null)  return false;
+    return switch (type) {
+      case EUC_2D, EUC_3D, MAX_2D, MAX_3D, MAN_2D, MAN_3D, CEIL_2D, GEO, ATT -> true;
+      default -> false;
+    };
+  }
+
+  /** Mixes the UTF-8 bytes of the string, if not null. */
+  private static long mixString(final long h, final String value) {
+    long r = h;
+    if (value != null) {
+      for (final byte b: value.getBytes(StandardCharsets.UTF_8))  r = mixByte(r, b);
+    }
+    return r;
+  }
+
+  private static long mixInt(final long h, final int value) {
+    long r = h;
+    for (int k = 0; k < Integer.BYTES; ++k)  r = mixByte(r, value >>> (8 * k));
+    return r;
+  }
+
+  private static long mix(final long h, final long value) {
+    long r = h;
+    for (int k = 0; k < Long.BYTES; ++k)  r = mixByte(r, (int) (value >>> (8 * k)));
+    return r;
+  }
+
+  /** Mixes the lowest byte of the value (a single FNV-1a step). */
+  private static long mixByte(final long h, final int value) {
+    return (h ^ (value & 0xff)) * 0x100000001b3L;
+  }
+}
@@ -0,0 +1,303 @@
+package io.github.lmores.tsplib;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
+
+/**
+ * An instance that wraps another one and caches rows of its edge weights
+ * matrix, up to a bounded amount of memory.
+ *
+ * Algorithms such as local searches keep querying the edges of a small set
+ * of nodes. The first query of an edge incident to node {@code i} computes
+ * the weights of all the edges leaving {@code i} (see
+ * {@link BaseInstance#getEdgeWeights(int, int, int, int[])}); following
+ * queries of such edges are served by reading the cached row. For symmetric
+ * instances (see {@link BaseInstance#isSymmetric()}), the weight of edge
+ * {@code (i, j)} is also read from the row of node {@code j} when cached.
+ * <p>
+ * The cache pays off only when computing a weight costs more than reading
+ * it from memory, i.e. for expensive metrics such as GEO (about 55 ns per
+ * weight against 7 ns when cached on gr666.tsp), ATT or custom weights of
+ * SPECIAL instances. For cheap 2D metrics on large instances recomputing is
+ * faster: rows of thousands of nodes do not fit into the CPU caches, e.g.
+ * on pla85900.tsp (CEIL_2D) a weight costs 3-4 ns when computed and 14-25 ns
+ * when read from a cached row, hence such instances should not be wrapped.
+ * <p>
+ * When the size limit is reached, rows are evicted with the CLOCK policy,
+ * an approximation of least recently used eviction that only requires
+ * setting a flag when a row is read. Reads are lock-free and any number of
+ * threads may query this instance concurrently: cached rows are never
+ * modified, so a thread that reads a row while it is being evicted still
+ * gets the correct weight. Computing a missing row takes a lock only to
+ * insert it into the cache.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+public final class EdgeWeightRowCache implements BaseInstance {
+
+  /** Estimated size in bytes of an array header. */
+  private static final long ARRAY_HEADER_BYTES = 16;
+
+  private final BaseInstance instance;
+  private final int dimension;
+  private final boolean symmetric;
+  private final int capacity;
+
+  /** The cached row of each node, or null. */
+  private final AtomicReferenceArray<int[]> rows;
+
+  /** Whether the row of each node has been read since the clock hand last passed it. */
+  private final boolean[] referenced;
+
+  /** The node whose row is held by each slot of the clock, or -1 (guarded by this). */
+  private final int[] slots;
+  private int hand = 0;
+  private int size = 0;
+  private long missCount = 0;
+  private long evictionCount = 0;
+
+  /**
+   * Creates a cache of the edge weights of the provided instance holding
+   * rows up to the provided size.
+   *
+   * @param instance  the instance whose edge weights are cached
+   * @param maxBytes  the maximum size in bytes of the cached rows (at least one row is cached)
+   * @throws IllegalArgumentException  if {@code maxBytes} is negative
+   */
+  public EdgeWeightRowCache(final BaseInstance instance, final long maxBytes) {
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException("Cache size must be non negative, found: " + maxBytes);
+    }
+
+    this.instance = instance;
+    this.dimension = instance.dimension();
+    this.symmetric = instance.isSymmetric();
+    this.capacity = (int) Math.max(1, Math.min(dimension, maxBytes / rowBytes(dimension)));
+    this.rows = new AtomicReferenceArray<>(dimension);
+    this.referenced = new boolean[dimension];
+    this.slots = new int[capacity];
+    Arrays.fill(slots, -1);
+  }
+
+  /**
+   * Returns the instance whose edge weights are cached.
+   *
+   * @return  the wrapped instance
+   */
+  public BaseInstance instance() {
+    return instance;
+  }
+
+  /**
+   * Returns the maximum number of rows held by this cache.
+   *
+   * @return  the number of rows fitting the size limit
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the number of rows currently held by this cache.
+   *
+   * @return  the number of cached rows
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of rows computed because they were not cached.
+   *
+   * @return  the number of cache misses
+   */
+  public synchronized long missCount() {
+    return missCount;
+  }
+
+  /**
+   * Returns the number of rows evicted to keep the cache within its size limit.
+   *
+   * @return  the number of evicted rows
+   */
+  public synchronized long evictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Returns the weights of the edges leaving node {@code i}, computing them
+   * if they are not cached.
+   *
+   * The returned array is shared with other callers and must not be modified.
+   *
+   * @param i  the 0-based index of the node
+   * @return   an array whose j-th entry is the weight of edge {@code (i, j)}
+   */
+  public int[] row(final int i) {
+    final int[] row = rows.getAcquire(i);
+    if (row != null) {
+      if (!referenced[i])  referenced[i] = true;
+      return row;
+    }
+
+    return load(i);
+  }
+
+  @Override
+  public int getEdgeWeight(final int i, final int j) {
+    final int[] row = rows.getAcquire(i);
+    if (row != null) {
+      if (!referenced[i])  referenced[i] = true;
+      return row[j];
+    }
+
+    if (symmetric) {
+      final int[] other = rows.getAcquire(j);
+      if (other != null) {
+        if (!referenced[j])  referenced[j] = true;
+        return other[i];
+      }
+    }
+
+    return load(i)[j];
+  }
+
+  @Override
+  public void getEdgeWeights(final int i, final int[] targets, final int[] out) {
+    final int[] row = row(i);
+    for (int k = 0; k < targets.length; ++k)  out[k] = row[targets[k]];
+  }
+
+  @Override
+  public void getEdgeWeights(final int i, final int from, final int to, final int[] out) {
+    System.arraycopy(row(i), from, out, 0, to - from);
+  }
+
+  /**
+   * Returns a copy of the edge weights in a square matrix, computed by the
+   * wrapped instance without going through this cache.
+   *
+   * @return  a square matrix containing edge weights
+   */
+  @Override
+  public int[][] materializeEdgeWeightsMatrix() {
+    return instance.materializeEdgeWeightsMatrix();
+  }
+
+  /**
+   * Returns the edge weights in a matrix computed by the wrapped instance
+   * without going through this cache.
+   *
+   * @param executor  the executor running the tasks
+   * @return          a matrix containing edge weights
+   */
+  @Override
+  public EdgeWeightMatrix materializeEdgeWeights(final Executor executor) {
+    return instance.materializeEdgeWeights(executor);
+  }
+
+  @Override
+  public String name() {
+    return instance.name();
+  }
+
+  @Override
+  public String comment() {
+    return instance.comment();
+  }
+
+  @Override
+  public int dimension() {
+    return dimension;
+  }
+
+  @Override
+  public NodeCoordinates coordinates() {
+    return instance.coordinates();
+  }
+
+  @Override
+  public double[][] displayCoords() {
+    return instance.displayCoords();
+  }
+
+  @Override
+  public EdgeWeightType edgeWeightType() {
+    return instance.edgeWeightType();
+  }
+
+  @Override
+  public int[][] fixedEdges() {
+    return instance.fixedEdges();
+  }
+
+  @Override
+  public boolean hasEdge(final int i, final int j) {
+    return instance.hasEdge(i, j);
+  }
+
+  @Override
+  public boolean isSymmetric() {
+    return symmetric;
+  }
+
+  // ==============================================================================================
+  // Private helpers
+  // ==============================================================================================
+
+  private static long rowBytes(final int dimension) {
+    return ARRAY_HEADER_BYTES + dimension * (long) Integer.BYTES;
+  }
+
+  /**
+   * Computes the row of node {@code i} and inserts it into the cache,
+   * evicting another row if the cache is full.
+   *
+   * The row is computed without holding the lock, hence concurrent misses
+   * on the same node may compute it more than once: the first inserted row
+   * is kept.
+   */
+  private int[] load(final int i) {
+    final int[] row = new int[dimension];
+    instance.getEdgeWeights(i, 0, dimension, row);
+
+    synchronized (this) {
+      final int[] cached = rows.getPlain(i);
+      if (cached != null)  return cached;
+
+      ++missCount;
+      if (size == capacity)  evict();
+
+      while (slots[hand] >= 0)  hand = (hand + 1) % capacity;
+      slots[hand] = i;
+      hand = (hand + 1) % capacity;
+      ++size;
+
+      referenced[i] = true;
+      rows.setRelease(i, row);
+    }
+
+    return row;
+  }
+
+  /** Moves the clock hand to the first row not referenced since the last pass and evicts it. */
+  private void evict() {
+    while (true) {
+      final int node = slots[hand];
+      if (referenced[node]) {
+        referenced[node] = false;
+        hand = (hand + 1) % capacity;
+      } else {
+        rows.setRelease(node, null);
+        slots[hand] = -1;
+        --size;
+        ++evictionCount;
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package io.github.lmores.tsplib;
+
+/**
+ * Helpers to store edge weights in the narrowest primitive type that can
+ * represent all of them.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+final class EdgeWeightStorage {
+
+  /** Estimated size in bytes of the header of an array. */
+  private static final long ARRAY_HEADER_BYTES = 16;
+
+  /** This class contains only static methods and no instance is allowed. */
+  private EdgeWeightStorage() { /* no-op */ }
+
+  /**
+   * Returns the number of bytes (1, 2 or 4) of the narrowest primitive type
+   * that can represent all the values in the given range.
+   *
+   * @param min  the smallest value
+   * @param max  the largest value
+   * @return     {@link Byte#BYTES}, {@link Short#BYTES} or {@link Integer#BYTES}
+   */
+  static int narrowestSize(final int min, final int max) {
+    if (Byte.MIN_VALUE <= min && max <= Byte.MAX_VALUE)  return Byte.BYTES;
+    if (Short.MIN_VALUE <= min && max <= Short.MAX_VALUE)  return Short.BYTES;
+    return Integer.BYTES;
+  }
+
+  /**
+   * Returns the number of bytes of the narrowest primitive type that can
+   * represent all the provided values.
+   *
+   * @param values  the values to scan
+   * @return        {@link Byte#BYTES}, {@link Short#BYTES} or {@link Integer#BYTES}
+   */
+  static int narrowestSize(final int[] values) {
+    int min = 0;
+    int max = 0;
+    for (final int v: values) {
+      min = Math.min(min, v);
+      max = Math.max(max, v);
+    }
+    return narrowestSize(min, max);
+  }
+
+  /**
+   * Returns the number of bytes of the narrowest primitive type that can
+   * represent all the values in the provided rows.
+   *
+   * @param rows  the rows to scan
+   * @return      {@link Byte#BYTES}, {@link Short#BYTES} or {@link Integer#BYTES}
+   */
+  static int narrowestSize(final int[][] rows) {
+    int size = Byte.BYTES;
+    for (final int[] row: rows) {
+      size = Math.max(size, narrowestSize(row));
+      if (size == Integer.BYTES)  break;
+    }
+    return size;
+  }
+
+  /**
+   * Returns an estimate of the memory taken by the arrays of a matrix.
+   *
+   * @param m  the matrix (possibly null)
+   * @return   the estimated size in bytes
+   */
+  static long estimateBytes(final EdgeWeightMatrix m) {
+    if (m == null)  return 0;
+
+    final long n = m.dimension();
+    if (m instanceof PackedEdgeWeightMatrix p) {
+      return ARRAY_HEADER_BYTES + PackedEdgeWeightMatrix.length(p.dimension()) * (long) p.weightSize();
+    }
+    if (m instanceof FullEdgeWeightMatrix f) {
+      return n * (ARRAY_HEADER_BYTES + n * f.weightSize());
+    }
+    return n * n * Integer.BYTES;
+  }
+
+  static byte[] toBytes(final int[] values) {
+    final byte[] bytes = new byte[values.length];
+    for (int k = 0; k < values.length; ++k)  bytes[k] = (byte) values[k];
+    return bytes;
+  }
+
+  static short[] toShorts(final int[] values) {
+    final short[] shorts = new short[values.length];
+    for (int k = 0; k < values.length; ++k)  shorts[k] = (short) values[k];
+    return shorts;
+  }
+}
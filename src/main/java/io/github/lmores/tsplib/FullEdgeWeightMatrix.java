@@ -0,0 +1,90 @@
+package io.github.lmores.tsplib;
+
+/**
+ * An {@link EdgeWeightMatrix} stored as an array of rows.
+ *
+ * Rows are held in the narrowest primitive type (byte, short or int) that
+ * can represent all the weights: exactly one of the row arrays is non-null.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+final class FullEdgeWeightMatrix implements EdgeWeightMatrix {
+  private final int dimension;
+  private final byte[][] byteRows;
+  private final short[][] shortRows;
+  private final int[][] intRows;
+
+  FullEdgeWeightMatrix(final byte[][] byteRows, final short[][] shortRows, final int[][] intRows) {
+    final Object[] rows = byteRows != null ? byteRows : shortRows != null ? shortRows : intRows;
+    this.dimension = rows.length;
+    this.byteRows = byteRows;
+    this.shortRows = shortRows;
+    this.intRows = intRows;
+  }
+
+  /**
+   * Returns a matrix with the same entries as the provided rows, stored in
+   * the narrowest primitive type that can represent all of them (the
+   * provided rows are used as is when they need int storage).
+   *
+   * @param rows  a square matrix
+   * @return      a matrix with the same entries
+   */
+  static FullEdgeWeightMatrix of(final int[][] rows) {
+    final int n = rows.length;
+    for (final int[] row: rows) {
+      if (row.length != n) {
+        throw new IllegalArgumentException("Edge weights matrix is not square");
+      }
+    }
+
+    return switch (EdgeWeightStorage.narrowestSize(rows)) {
+      case Byte.BYTES -> {
+        final byte[][] byteRows = new byte[n][];
+        for (int i = 0; i < n; ++i)  byteRows[i] = EdgeWeightStorage.toBytes(rows[i]);
+        yield new FullEdgeWeightMatrix(byteRows, null, null);
+      }
+      case Short.BYTES -> {
+        final short[][] shortRows = new short[n][];
+        for (int i = 0; i < n; ++i)  shortRows[i] = EdgeWeightStorage.toShorts(rows[i]);
+        yield new FullEdgeWeightMatrix(null, shortRows, null);
+      }
+      default -> new FullEdgeWeightMatrix(null, null, rows);
+    };
+  }
+
+  /** Returns the number of bytes used to store each weight (1, 2 or 4). */
+  int weightSize() {
+    return byteRows != null ? Byte.BYTES : shortRows != null ? Short.BYTES : Integer.BYTES;
+  }
+
+  byte[][] byteRows() {
+    return byteRows;
+  }
+
+  short[][] shortRows() {
+    return shortRows;
+  }
+
+  int[][] intRows() {
+    return intRows;
+  }
+
+  @Override
+  public int dimension() {
+    return dimension;
+  }
+
+  @Override
+  public int get(final int i, final int j) {
+    if (byteRows != null)  return byteRows[i][j];
+    if (shortRows != null)  return shortRows[i][j];
+    return intRows[i][j];
+  }
+
+  @Override
+  public boolean isSymmetric() {
+    return false;
+  }
+}
@@ -0,0 +1,169 @@
+package io.github.lmores.tsplib;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
+
+/**
+ * An instance that wraps another one and reads its edge weights from a
+ * matrix computed once.
+ *
+ * The matrix of an instance with tens of thousands of nodes takes several
+ * gigabytes (e.g. about 7 GB for the lower triangle of a 60000 nodes
+ * instance): the {@link #offHeap} factories store it outside the Java heap,
+ * so that it does not inflate the heap nor the work of the garbage
+ * collector. Off-heap matrices are allocated as direct buffers, whose total
+ * size is limited by the {@code -XX:MaxDirectMemorySize} option of the JVM
+ * (by default, the maximum heap size); their memory is released when the
+ * matrix is garbage collected. Instances backed by memory mapped files,
+ * shared among processes, are returned by {@link EdgeWeightMatrixStore}.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+public final class MaterializedInstance implements BaseInstance {
+  private final BaseInstance instance;
+  private final EdgeWeightMatrix matrix;
+
+  /**
+   * Creates an instance reading the edge weights of the provided instance
+   * from the provided matrix.
+   *
+   * @param instance  the instance whose edge weights are held by the matrix
+   * @param matrix    the edge weights of the instance
+   * @throws IllegalArgumentException  if the dimensions of the instance and the matrix differ
+   */
+  public MaterializedInstance(final BaseInstance instance, final EdgeWeightMatrix matrix) {
+    if (instance.dimension() != matrix.dimension()) {
+      throw new IllegalArgumentException(
+          "Matrix of dimension " + matrix.dimension() + " does not match instance " +
+          instance.name() + " of dimension " + instance.dimension()
+      );
+    }
+
+    this.instance = instance;
+    this.matrix = matrix;
+  }
+
+  /**
+   * Computes the edge weights of the provided instance into an off-heap
+   * matrix, using the threads of the common {@link ForkJoinPool}.
+   *
+   * Only the lower triangle is stored when the instance is symmetric (see
+   * {@link BaseInstance#isSymmetric()}).
+   *
+   * @param instance  the instance
+   * @return          an instance backed by an off-heap matrix
+   * @throws OutOfMemoryError  if the direct memory limit of the JVM is exceeded
+   */
+  public static MaterializedInstance offHeap(final BaseInstance instance) {
+    return offHeap(instance, instance.isSymmetric(), ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Computes the edge weights of the provided instance into an off-heap
+   * matrix on the provided executor.
+   *
+   * @param instance  the instance
+   * @param packed    whether to store only the lower triangle of the matrix
+   * @param executor  the executor running the tasks filling the matrix
+   * @return          an instance backed by an off-heap matrix
+   * @throws IllegalArgumentException  if {@code packed} is true but the instance is not symmetric
+   * @throws OutOfMemoryError  if the direct memory limit of the JVM is exceeded
+   */
+  public static MaterializedInstance offHeap(
+      final BaseInstance instance, final boolean packed, final Executor executor
+  ) {
+    if (packed && !instance.isSymmetric()) {
+      throw new IllegalArgumentException(
+          "Instance " + instance.name() + " is not symmetric and cannot be packed"
+      );
+    }
+
+    final ChunkedEdgeWeightMatrix matrix = ChunkedEdgeWeightMatrix.allocateDirect(
+        instance.dimension(), packed, ChunkedEdgeWeightMatrix.DEFAULT_CHUNK_SHIFT
+    );
+    EdgeWeightMaterializer.fill(instance, matrix, executor);
+    return new MaterializedInstance(instance, matrix);
+  }
+
+  /**
+   * Returns the instance whose edge weights are held by the matrix.
+   *
+   * @return  the wrapped instance
+   */
+  public BaseInstance instance() {
+    return instance;
+  }
+
+  /**
+   * Returns the matrix holding the edge weights.
+   *
+   * @return  the edge weights of the wrapped instance
+   */
+  public EdgeWeightMatrix matrix() {
+    return matrix;
+  }
+
+  @Override
+  public int getEdgeWeight(final int i, final int j) {
+    return matrix.get(i, j);
+  }
+
+  /**
+   * Returns the matrix holding the edge weights (nothing is computed).
+   *
+   * @param executor  ignored
+   * @return          the edge weights of the wrapped instance
+   */
+  @Override
+  public EdgeWeightMatrix materializeEdgeWeights(final Executor executor) {
+    return matrix;
+  }
+
+  @Override
+  public String name() {
+    return instance.name();
+  }
+
+  @Override
+  public String comment() {
+    return instance.comment();
+  }
+
+  @Override
+  public int dimension() {
+    return instance.dimension();
+  }
+
+  @Override
+  public NodeCoordinates coordinates() {
+    return instance.coordinates();
+  }
+
+  @Override
+  public double[][] displayCoords() {
+    return instance.displayCoords();
+  }
+
+  @Override
+  public EdgeWeightType edgeWeightType() {
+    return instance.edgeWeightType();
+  }
+
+  @Override
+  public int[][] fixedEdges() {
+    return instance.fixedEdges();
+  }
+
+  @Override
+  public boolean hasEdge(final int i, final int j) {
+    return instance.hasEdge(i, j);
+  }
+
+  @Override
+  public boolean isSymmetric() {
+    return instance.isSymmetric();
+  }
+}
@@ -0,0 +1,313 @@
+package io.github.lmores.tsplib;
+
+/**
+ * The coordinates of the nodes read from a 'NODE_COORD_SECTION'.
+ *
+ * Coordinates are stored as a structure of arrays, i.e. one flat array for
+ * each axis, so that computing the distance between two nodes reads
+ * contiguous primitive values instead of following a reference to a
+ * separate array for each node.
+ *
+ * Coordinates are held either in double precision or, when every value is
+ * exactly representable as a float (see {@link #toSinglePrecision()}), in
+ * single precision, which halves their memory footprint. Since values are
+ * widened back to double before any computation, the distances between nodes
+ * are the same in both cases.
+ *
+ * The row-wise representation returned by {@link #toArray()} and the
+ * angles returned by {@link #toRadians()} are built on first use and then
+ * shared by all callers.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+public final class NodeCoordinates {
+  private final double[] xs;
+  private final double[] ys;
+  private final double[] zs;
+  private final float[] floatXs;
+  private final float[] floatYs;
+  private final float[] floatZs;
+  private final int dimension;
+  private volatile double[][] rows;
+  private volatile double[][] radians;
+
+  /**
+   * Creates an object backed by the provided arrays (no copy is made).
+   *
+   * @param xs  the first coordinate of each node
+   * @param ys  the second coordinate of each node
+   * @param zs  the third coordinate of each node, or null for 2D coordinates
+   * @throws IllegalArgumentException  if the arrays have different lengths
+   */
+  public NodeCoordinates(final double[] xs, final double[] ys, final double[] zs) {
+    this(xs, ys, zs, null, null, null, xs.length, ys.length, zs == null ? xs.length : zs.length);
+  }
+
+  /**
+   * Creates an object backed by the provided single precision arrays (no
+   * copy is made).
+   *
+   * @param xs  the first coordinate of each node
+   * @param ys  the second coordinate of each node
+   * @param zs  the third coordinate of each node, or null for 2D coordinates
+   * @throws IllegalArgumentException  if the arrays have different lengths
+   */
+  public NodeCoordinates(final float[] xs, final float[] ys, final float[] zs) {
+    this(null, null, null, xs, ys, zs, xs.length, ys.length, zs == null ? xs.length : zs.length);
+  }
+
+  private NodeCoordinates(
+      final double[] xs, final double[] ys, final double[] zs,
+      final float[] floatXs, final float[] floatYs, final float[] floatZs,
+      final int nXs, final int nYs, final int nZs
+  ) {
+    if (nXs != nYs || nXs != nZs) {
+      throw new IllegalArgumentException("Node coordinates arrays have different lengths");
+    }
+
+    this.xs = xs;
+    this.ys = ys;
+    this.zs = zs;
+    this.floatXs = floatXs;
+    this.floatYs = floatYs;
+    this.floatZs = floatZs;
+    this.dimension = nXs;
+  }
+
+  /**
+   * Returns the coordinates provided as one array per node.
+   *
+   * @param nodeCoords  the coordinates of each node (all with 2 or all with 3 entries)
+   * @return            the same coordinates, or null if {@code nodeCoords} is null
+   * @throws IllegalArgumentException  if nodes have a different number of coordinates
+   */
+  public static NodeCoordinates of(final double[][] nodeCoords) {
+    if (nodeCoords == null)  return null;
+
+    final int n = nodeCoords.length;
+    final int nCoords = n == 0 ? 2 : nodeCoords[0].length;
+    if (nCoords != 2 && nCoords != 3) {
+      throw new IllegalArgumentException("Nodes must have 2 or 3 coordinates, found: " + nCoords);
+    }
+
+    final double[] xs = new double[n];
+    final double[] ys = new double[n];
+    final double[] zs = nCoords == 3 ? new double[n] : null;
+    for (int i = 0; i < n; ++i) {
+      final double[] c = nodeCoords[i];
+      if (c.length != nCoords) {
+        throw new IllegalArgumentException(
+            "Node " + (i + 1) + " has " + c.length + " coordinates, expected: " + nCoords
+        );
+      }
+
+      xs[i] = c[0];
+      ys[i] = c[1];
+      if (zs != null)  zs[i] = c[2];
+    }
+
+    return new NodeCoordinates(xs, ys, zs);
+  }
+
+  /**
+   * Returns the number of nodes.
+   *
+   * @return  the number of nodes
+   */
+  public int dimension() {
+    return dimension;
+  }
+
+  /**
+   * Returns whether nodes have three coordinates.
+   *
+   * @return  true for 3D coordinates, false for 2D ones
+   */
+  public boolean is3d() {
+    return zs != null || floatZs != null;
+  }
+
+  /**
+   * Returns whether coordinates are stored in single precision.
+   *
+   * @return  true if coordinates are stored as floats, false if stored as doubles
+   */
+  public boolean isSinglePrecision() {
+    return floatXs != null;
+  }
+
+  /**
+   * Returns the first coordinate of node {@code i}.
+   *
+   * @param i  the 0-based index of the node
+   * @return   the first coordinate of the node
+   */
+  public double x(final int i) {
+    return xs != null ? xs[i] : floatXs[i];
+  }
+
+  /**
+   * Returns the second coordinate of node {@code i}.
+   *
+   * @param i  the 0-based index of the node
+   * @return   the second coordinate of the node
+   */
+  public double y(final int i) {
+    return ys != null ? ys[i] : floatYs[i];
+  }
+
+  /**
+   * Returns the third coordinate of node {@code i} (3D coordinates only).
+   *
+   * @param i  the 0-based index of the node
+   * @return   the third coordinate of the node
+   */
+  public double z(final int i) {
+    return zs != null ? zs[i] : floatZs[i];
+  }
+
+  /**
+   * Returns the first coordinate of each node (the returned array is not a copy).
+   *
+   * @return  the first coordinate of each node, or null if stored in single precision
+   */
+  public double[] xs() {
+    return xs;
+  }
+
+  /**
+   * Returns the second coordinate of each node (the returned array is not a copy).
+   *
+   * @return  the second coordinate of each node, or null if stored in single precision
+   */
+  public double[] ys() {
+    return ys;
+  }
+
+  /**
+   * Returns the third coordinate of each node (the returned array is not a copy).
+   *
+   * @return  the third coordinate of each node, or null for 2D coordinates
+   *          or if stored in single precision
+   */
+  public double[] zs() {
+    return zs;
+  }
+
+  /**
+   * Returns the first coordinate of each node in single precision (the
+   * returned array is not a copy).
+   *
+   * @return  the first coordinate of each node, or null if stored in double precision
+   */
+  public float[] floatXs() {
+    return floatXs;
+  }
+
+  /**
+   * Returns the second coordinate of each node in single precision (the
+   * returned array is not a copy).
+   *
+   * @return  the second coordinate of each node, or null if stored in double precision
+   */
+  public float[] floatYs() {
+    return floatYs;
+  }
+
+  /**
+   * Returns the third coordinate of each node in single precision (the
+   * returned array is not a copy).
+   *
+   * @return  the third coordinate of each node, or null for 2D coordinates
+   *          or if stored in double precision
+   */
+  public float[] floatZs() {
+    return floatZs;
+  }
+
+  /**
+   * Returns the same coordinates stored in single precision, provided that
+   * every value is exactly representable as a float.
+   *
+   * Exact representability guarantees that every distance computed by
+   * {@link TsplibUtil} from the widened values is bit-identical to the one
+   * computed from the original doubles. When some value would be rounded,
+   * this object is returned and coordinates stay in double precision.
+   *
+   * @return  coordinates stored in single precision if no value is rounded, this object otherwise
+   */
+  public NodeCoordinates toSinglePrecision() {
+    if (floatXs != null)  return this;
+
+    final float[] fxs = toFloats(xs);
+    final float[] fys = fxs == null ? null : toFloats(ys);
+    final float[] fzs = fys == null || zs == null ? null : toFloats(zs);
+    if (fys == null || (zs != null && fzs == null))  return this;
+
+    return new NodeCoordinates(fxs, fys, fzs);
+  }
+
+  /**
+   * Returns the coordinates as one array per node.
+   *
+   * The matrix is built on the first call and the same instance is returned
+   * afterwards: changes made to it are not reflected in this object.
+   *
+   * @return  a matrix whose i-th row holds the coordinates of node i
+   */
+  public double[][] toArray() {
+    double[][] m = rows;
+    if (m == null) {
+      final boolean is3d = is3d();
+      m = new double[dimension][];
+      for (int i = 0; i < dimension; ++i) {
+        m[i] = is3d ? new double[] {x(i), y(i), z(i)} : new double[] {x(i), y(i)};
+      }
+      rows = m;
+    }
+
+    return m;
+  }
+
+  /**
+   * Returns the first and second coordinates of the nodes, read as angles
+   * in the DDD.MM format of 'GEO' instances, converted to radians (see
+   * {@link TsplibUtil#ddmmToRadians(double)}).
+   *
+   * The arrays are built on the first call and the same instances are
+   * returned afterwards: changes made to them are not reflected in this object.
+   *
+   * @return  two arrays holding the latitude and the longitude of each node in radians
+   */
+  public double[][] toRadians() {
+    double[][] r = radians;
+    if (r == null) {
+      final double[] latitudes = new double[dimension];
+      final double[] longitudes = new double[dimension];
+      for (int i = 0; i < dimension; ++i) {
+        latitudes[i] = TsplibUtil.ddmmToRadians(x(i));
+        longitudes[i] = TsplibUtil.ddmmToRadians(y(i));
+      }
+      r = new double[][] {latitudes, longitudes};
+      radians = r;
+    }
+
+    return r;
+  }
+
+  // ==============================================================================================
+  // Private helpers
+  // ==============================================================================================
+
+  /** Returns the values converted to float, or null if some value is not exactly representable. */
+  private static float[] toFloats(final double[] values) {
+    final float[] floats = new float[values.length];
+    for (int i = 0; i < values.length; ++i) {
+      final float f = (float) values[i];
+      if (f != values[i])  return null;
+      floats[i] = f;
+    }
+    return floats;
+  }
+}
@@ -0,0 +1,116 @@
+package io.github.lmores.tsplib;
+
+/**
+ * A symmetric {@link EdgeWeightMatrix} whose lower triangle (diagonal
+ * included) is stored row by row in a single flat array.
+ *
+ * The lower triangle is held in the narrowest primitive type (byte, short or
+ * int) that can represent all the weights: exactly one of the arrays is
+ * non-null.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+final class PackedEdgeWeightMatrix implements EdgeWeightMatrix {
+
+  /** Largest length of a Java array supported by all common JVMs. */
+  private static final long MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+  private final int dimension;
+  private final byte[] bytes;
+  private final short[] shorts;
+  private final int[] ints;
+
+  PackedEdgeWeightMatrix(
+      final int dimension, final byte[] bytes, final short[] shorts, final int[] ints
+  ) {
+    final int actualLength = bytes != null ? bytes.length : shorts != null ? shorts.length : ints.length;
+    if (actualLength != length(dimension)) {
+      throw new IllegalArgumentException(
+          "Packed matrix of dimension " + dimension + " has " + actualLength +
+          " entries, expected: " + length(dimension)
+      );
+    }
+
+    this.dimension = dimension;
+    this.bytes = bytes;
+    this.shorts = shorts;
+    this.ints = ints;
+  }
+
+  /**
+   * Returns a matrix with the provided lower triangle, stored in the
+   * narrowest primitive type that can represent all of its entries (the
+   * provided array is used as is when it needs int storage).
+   *
+   * @param dimension      the dimension of the matrix
+   * @param lowerTriangle  the lower triangle (diagonal included) row by row
+   * @return               a matrix with the same entries
+   */
+  static PackedEdgeWeightMatrix of(final int dimension, final int[] lowerTriangle) {
+    return switch (EdgeWeightStorage.narrowestSize(lowerTriangle)) {
+      case Byte.BYTES -> new PackedEdgeWeightMatrix(
+          dimension, EdgeWeightStorage.toBytes(lowerTriangle), null, null
+      );
+      case Short.BYTES -> new PackedEdgeWeightMatrix(
+          dimension, null, EdgeWeightStorage.toShorts(lowerTriangle), null
+      );
+      default -> new PackedEdgeWeightMatrix(dimension, null, null, lowerTriangle);
+    };
+  }
+
+  /**
+   * Returns the length of the array holding the lower triangle (diagonal
+   * included) of a matrix with the given dimension.
+   *
+   * @param dimension  the dimension of the matrix
+   * @return           the number of entries in the lower triangle
+   * @throws IllegalArgumentException  if the lower triangle does not fit into a Java array
+   */
+  static int length(final int dimension) {
+    final long length = TsplibUtil.lowerTriangularToArrayIndex(dimension, 0);
+    if (length > MAX_ARRAY_LENGTH) {
+      throw new IllegalArgumentException(
+          "Dimension " + dimension + " is too large for a packed edge weights matrix"
+      );
+    }
+    return (int) length;
+  }
+
+  /** Returns the number of bytes used to store each weight (1, 2 or 4). */
+  int weightSize() {
+    return bytes != null ? Byte.BYTES : shorts != null ? Short.BYTES : Integer.BYTES;
+  }
+
+  byte[] bytes() {
+    return bytes;
+  }
+
+  short[] shorts() {
+    return shorts;
+  }
+
+  int[] ints() {
+    return ints;
+  }
+
+  @Override
+  public int dimension() {
+    return dimension;
+  }
+
+  @Override
+  public int get(final int i, final int j) {
+    final int k = (int) (i >= j
+        ? TsplibUtil.lowerTriangularToArrayIndex(i, j)
+        : TsplibUtil.lowerTriangularToArrayIndex(j, i));
+    if (bytes != null)  return bytes[k];
+    if (shorts != null)  return shorts[k];
+    return ints[k];
+  }
+
+  @Override
+  public boolean isSymmetric() {
+    return true;
+  }
+}
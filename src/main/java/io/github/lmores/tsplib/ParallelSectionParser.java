@@ -0,0 +1,334 @@
+package io.github.lmores.tsplib;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightFormat;
+import io.github.lmores.tsplib.TsplibFileFormat.TsplibFileFormatException;
+
+/**
+ * Parses the largest data sections of a TSPLIB file using multiple threads.
+ *
+ * The bytes following the current position of a tokenizer that holds the
+ * whole content are split into ranges whose boundaries fall on delimiters.
+ * A first parallel pass counts the tokens in each range, so that the global
+ * index of the first token of each range is known: the end of the section is
+ * not known in advance, hence ranges are counted in waves that cover the
+ * bytes estimated to hold the tokens still missing, so that the bytes
+ * following the section (e.g. a large 'DISPLAY_DATA_SECTION') are mostly
+ * left alone. A second parallel pass
+ * tokenizes each range on its own {@link ForkJoinPool} worker and stores the
+ * parsed values at the offsets computed from their global index.
+ * <p>
+ * Workers check the interrupt status of the thread that called the parser,
+ * not their own: interrupting the caller (e.g. by cancelling the future
+ * returned by {@link TsplibFileData#readAsync}) stops every range within a
+ * few thousand tokens, and the caller gets an {@link InterruptedIOException}
+ * as for a sequential parse.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+final class ParallelSectionParser {
+
+  /** Sections with fewer tokens than this threshold are not worth splitting. */
+  static final long MIN_PARALLEL_TOKENS = 1 << 15;
+
+  /** Number of byte ranges assigned to each worker of the common pool. */
+  private static final int RANGES_PER_WORKER = 4;
+
+  /** Minimum number of bytes added to the estimated end of a section by each counting wave. */
+  private static final int MIN_WAVE_BYTES = 1 << 16;
+
+  /** This class contains only static methods and no instance is allowed. */
+  private ParallelSectionParser() { /* no-op */ }
+
+  /**
+   * Returns the number of values listed in the 'EDGE_WEIGHT_SECTION' when
+   * edge weights are provided in the given format.
+   *
+   * @param format     the format of the edge weights
+   * @param dimension  the number of nodes
+   * @return           the number of values in the section
+   */
+  static long countEdgeWeights(final EdgeWeightFormat format, final int dimension) {
+    final long n = dimension;
+    return switch (format) {
+      case FULL_MATRIX -> n * n;
+      case LOWER_DIAG_COL, LOWER_DIAG_ROW, UPPER_DIAG_COL, UPPER_DIAG_ROW -> n * (n + 1) / 2;
+      case LOWER_COL, LOWER_ROW, UPPER_COL, UPPER_ROW -> n * (n - 1) / 2;
+      case FUNCTION -> 0;
+    };
+  }
+
+  /**
+   * Parses the values of an 'EDGE_WEIGHT_SECTION' into the provided arrays.
+   *
+   * Values are listed row by row (or column by column) and, for each row
+   * {@code a}, only the entries between {@link #firstInRow} (included) and
+   * {@link #endOfRow} (excluded) are present. Values in 'FULL_MATRIX' format
+   * are stored into {@code rows}, values in symmetric formats are stored
+   * once into the packed lower triangle {@code packed}.
+   *
+   * @param tk         a tokenizer holding the whole content, positioned at the beginning of the section
+   * @param format     the format of the edge weights
+   * @param dimension  the number of nodes
+   * @param rows       the square matrix to fill (when format is 'FULL_MATRIX', null otherwise)
+   * @param packed     the packed lower triangle to fill (when format is symmetric, null otherwise)
+   * @throws InterruptedIOException  if the calling thread is interrupted
+   */
+  static void parseEdgeWeights(
+      final TsplibTokenizer tk, final EdgeWeightFormat format, final int dimension,
+      final int[][] rows, final int[] packed
+  ) throws InterruptedIOException {
+    final int n = dimension;
+
+    parse(tk, countEdgeWeights(format, n), (rtk, first, count) -> {
+      // Locate the row and column of the first value of the range
+      int a = 0;
+      long t = first;
+      while (t >= endOfRow(format, a, n) - firstInRow(format, a, n)) {
+        t -= endOfRow(format, a, n) - firstInRow(format, a, n);
+        ++a;
+      }
+      int b = firstInRow(format, a, n) + (int) t;
+      int end = endOfRow(format, a, n);
+
+      for (long k = 0; k < count; ++k) {
+        final int w = rtk.nextInt();
+        if (rows != null) {
+          rows[a][b] = w;
+        } else {
+          packed[(int) (a >= b
+              ? TsplibUtil.lowerTriangularToArrayIndex(a, b)
+              : TsplibUtil.lowerTriangularToArrayIndex(b, a))] = w;
+        }
+
+        if (++b == end) {
+          do {
+            ++a;
+          } while (a < n && firstInRow(format, a, n) == endOfRow(format, a, n));
+
+          if (a < n) {
+            b = firstInRow(format, a, n);
+            end = endOfRow(format, a, n);
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Parses the lines of a 'NODE_COORD_SECTION' into the provided arrays.
+   *
+   * @param tk         a tokenizer holding the whole content, positioned at the first line to parse
+   * @param name       the name of the instance (used in error messages)
+   * @param xs         the array of first coordinates, whose length is the number of nodes
+   * @param ys         the array of second coordinates
+   * @param zs         the array of third coordinates, or null for 2D coordinates
+   * @param firstNode  the 0-based index of the first node to parse
+   * @throws InterruptedIOException  if the calling thread is interrupted
+   */
+  static void parseNodeCoords(
+      final TsplibTokenizer tk, final String name,
+      final double[] xs, final double[] ys, final double[] zs, final int firstNode
+  ) throws InterruptedIOException {
+    final int stride = zs == null ? 3 : 4;
+    final long nTokens = (long) (xs.length - firstNode) * stride;
+
+    parse(tk, nTokens, (rtk, first, count) -> {
+      for (long t = first, end = first + count; t < end; ++t) {
+        final int i = firstNode + (int) (t / stride);
+        switch ((int) (t % stride)) {
+          case 0 -> {
+            final int nodeIdx = rtk.nextInt() - 1;
+            if (nodeIdx != i) {
+              throw new TsplibFileFormatException(
+                  "Instance " + name + ": found node " + (nodeIdx + 1) +
+                  " in 'NODE_COORD_SECTION', expected: " + (i + 1)
+              );
+            }
+          }
+          case 1 -> xs[i] = rtk.nextDouble();
+          case 2 -> ys[i] = rtk.nextDouble();
+          default -> zs[i] = rtk.nextDouble();
+        }
+      }
+    });
+  }
+
+  /**
+   * Returns the 0-based index of the first entry of row {@code a} listed in a
+   * section with the given format (rows are meant as columns for column-wise formats).
+   *
+   * @param format  the format of the edge weights
+   * @param a       the 0-based index of the row
+   * @param n       the number of nodes
+   * @return        the index of the first entry of the row
+   */
+  static int firstInRow(final EdgeWeightFormat format, final int a, final int n) {
+    return switch (format) {
+      case FULL_MATRIX, LOWER_DIAG_ROW, LOWER_ROW, UPPER_COL, UPPER_DIAG_COL, FUNCTION -> 0;
+      case LOWER_DIAG_COL, UPPER_DIAG_ROW -> a;
+      case LOWER_COL, UPPER_ROW -> Math.min(a + 1, n);
+    };
+  }
+
+  /**
+   * Returns the 0-based index following the last entry of row {@code a}
+   * listed in a section with the given format (rows are meant as columns for
+   * column-wise formats).
+   *
+   * @param format  the format of the edge weights
+   * @param a       the 0-based index of the row
+   * @param n       the number of nodes
+   * @return        the index following the last entry of the row
+   */
+  static int endOfRow(final EdgeWeightFormat format, final int a, final int n) {
+    return switch (format) {
+      case FULL_MATRIX, LOWER_COL, LOWER_DIAG_COL, UPPER_DIAG_ROW, UPPER_ROW -> n;
+      case LOWER_DIAG_ROW, UPPER_DIAG_COL -> a + 1;
+      case LOWER_ROW, UPPER_COL -> a;
+      case FUNCTION -> 0;
+    };
+  }
+
+  // ==============================================================================================
+  // Private helpers
+  // ==============================================================================================
+
+  /** Parses {@code count} consecutive tokens of a byte range starting from the token {@code first}. */
+  @FunctionalInterface
+  private interface RangeParser {
+    void parse(TsplibTokenizer rtk, long first, long count) throws IOException;
+  }
+
+  /**
+   * Splits the content following the current position of the tokenizer into
+   * byte ranges, parses the next {@code nTokens} tokens in parallel and moves
+   * the tokenizer past the last parsed token.
+   *
+   * @param tk       a tokenizer holding the whole content
+   * @param nTokens  the number of tokens to parse
+   * @param parser   the function parsing the tokens of a range
+   * @throws InterruptedIOException  if the calling thread is interrupted
+   */
+  private static void parse(
+      final TsplibTokenizer tk, final long nTokens, final RangeParser parser
+  ) throws InterruptedIOException {
+    if (nTokens == 0)  return;
+    final Thread caller = Thread.currentThread();
+
+    final ByteBuffer content = tk.content();
+    final int from = tk.position();
+    final int to = content.limit();
+    final int rangesPerWave =
+        Math.max(1, ForkJoinPool.getCommonPoolParallelism() * RANGES_PER_WORKER);
+
+    // First pass: count the tokens in each range, one wave of ranges at a time
+    int nRanges = 0;
+    int[] bounds = {from};
+    long[] counts = new long[0];
+    long[] offsets = {0};
+    while (offsets[nRanges] < nTokens && bounds[nRanges] < to) {
+      final int waveFrom = bounds[nRanges];
+      final long missing = nTokens - offsets[nRanges];
+      // A token takes at least two bytes (including a delimiter), later waves
+      // use the density of the counted bytes plus a margin
+      final long estimate = offsets[nRanges] == 0
+          ? 2 * missing
+          : (long) Math.ceil((double) (waveFrom - from) / offsets[nRanges] * missing * 1.125);
+      final int waveTo = delimiterAtOrAfter(
+          content, (int) Math.min(to, waveFrom + estimate + MIN_WAVE_BYTES), to
+      );
+
+      final int first = nRanges;
+      nRanges += rangesPerWave;
+      bounds = Arrays.copyOf(bounds, nRanges + 1);
+      counts = Arrays.copyOf(counts, nRanges);
+      offsets = Arrays.copyOf(offsets, nRanges + 1);
+      bounds[nRanges] = waveTo;
+      for (int r = first + 1; r < nRanges; ++r) {
+        final int b = waveFrom + (int) ((long) (waveTo - waveFrom) * (r - first) / rangesPerWave);
+        bounds[r] = delimiterAtOrAfter(content, Math.max(bounds[r - 1], b), waveTo);
+      }
+
+      final int[] waveBounds = bounds;
+      final long[] waveCounts = counts;
+      forEachRange(rangesPerWave, k -> {
+        checkInterrupted(caller);
+        final int r = first + k;
+        long count = 0;
+        boolean inToken = false;
+        for (int i = waveBounds[r], end = waveBounds[r + 1]; i < end; ++i) {
+          final boolean delimiter = TsplibTokenizer.isDelimiter(content.get(i));
+          if (!delimiter && !inToken)  ++count;
+          inToken = !delimiter;
+        }
+        waveCounts[r] = count;
+      });
+
+      for (int r = first; r < nRanges; ++r)  offsets[r + 1] = offsets[r] + counts[r];
+    }
+    if (offsets[nRanges] < nTokens)  throw new NoSuchElementException();
+
+    // Second pass: parse the tokens of each range (ranges past the section are skipped)
+    final int[] rangeBounds = bounds;
+    final long[] rangeCounts = counts;
+    final long[] rangeOffsets = offsets;
+    final int[] endPosition = new int[1];
+    forEachRange(nRanges, r -> {
+      final long first = rangeOffsets[r];
+      if (first >= nTokens || rangeCounts[r] == 0)  return;
+
+      checkInterrupted(caller);
+      final long count = Math.min(rangeCounts[r], nTokens - first);
+      final ByteBuffer range =
+          content.duplicate().limit(rangeBounds[r + 1]).position(rangeBounds[r]);
+      try (final TsplibTokenizer rtk = new TsplibTokenizer(range, caller)) {
+        parser.parse(rtk, first, count);
+        if (first + count == nTokens)  endPosition[0] = rtk.position();
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+
+    tk.position(endPosition[0]);
+  }
+
+  /**
+   * Runs the provided action for each range on the common pool, rethrowing
+   * the interrupt of a range as an {@link InterruptedIOException}.
+   */
+  private static void forEachRange(
+      final int nRanges, final IntConsumer action
+  ) throws InterruptedIOException {
+    try {
+      IntStream.range(0, nRanges).parallel().forEach(action);
+    } catch (final UncheckedIOException e) {
+      if (e.getCause() instanceof InterruptedIOException ie)  throw ie;
+      throw e;
+    }
+  }
+
+  /** Returns the index of the first delimiter at or after {@code i}, or {@code to} if none. */
+  private static int delimiterAtOrAfter(final ByteBuffer content, final int i, final int to) {
+    int b = i;
+    while (b < to && !TsplibTokenizer.isDelimiter(content.get(b)))  ++b;
+    return b;
+  }
+
+  /** Stops a range early if the thread that called the parser has been interrupted. */
+  private static void checkInterrupted(final Thread caller) {
+    if (caller.isInterrupted()) {
+      throw new UncheckedIOException(new InterruptedIOException("Parsing interrupted"));
+    }
+  }
+}
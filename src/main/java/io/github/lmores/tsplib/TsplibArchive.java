@@ -2,7 +2,17 @@ package io.github.lmores.tsplib;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
 
 import io.github.lmores.tsplib.atsp.AtspInstance;
 import io.github.lmores.tsplib.hcp.HcpInstance;
@@ -13,6 +23,9 @@ import io.github.lmores.tsplib.vrp.VrpInstance;
 /**
  * Methods to load the TSPLIB instances shipped with this package.
  *
+ * Each call reads and parses the requested file again: use a
+ * {@link TsplibInstanceCache} to share instances among callers.
+ *
  * @author   Lorenzo Moreschini
  * @since    0.0.1
  */
@@ -23,6 +36,7 @@ public class TsplibArchive {
   private static final String SOP_ARCHIVE_RESOURCE_NAME = ARCHIVE_RESOURCE_NAME + "/sop";
   private static final String TSP_ARCHIVE_RESOURCE_NAME = ARCHIVE_RESOURCE_NAME + "/tsp";
   private static final String VRP_ARCHIVE_RESOURCE_NAME = ARCHIVE_RESOURCE_NAME + "/vrp";
+  private static final String[] COMPRESSED_SUFFIXES = new String[] {"", ".gz", ".zip"};
 
   private static final String[] ATSP_FILENAMES = new String[] {
     "br17.atsp",            "ft53.atsp",            "ft70.atsp",            "ftv33.atsp",
@@ -192,6 +206,39 @@ public class TsplibArchive {
     return Arrays.copyOf(VRP_FILENAMES, VRP_FILENAMES.length);
   }
 
+  // ==============================================================================================
+  // Methods to query the archive manifest
+  // ==============================================================================================
+
+  /**
+   * Returns the metadata of the files in the archive, generated when the
+   * package is built, in the order of the {@code extractXxxFilenames()}
+   * methods.
+   *
+   * Metadata are available without reading any instance file, e.g. to
+   * estimate the memory needed by a set of instances or to sort them by size
+   * before loading them. Files that are not in TSPLIB format (i.e.
+   * "xray.problems") are not listed.
+   *
+   * @return  an unmodifiable list of entries
+   */
+  public static List<TsplibArchiveEntry> getManifest() {
+    return ManifestHolder.ENTRIES;
+  }
+
+  /**
+   * Returns the metadata of the archive file with the given name.
+   *
+   * @param filename  the name of the file (e.g. "a280.tsp")
+   * @return          the entry for the given file name, or null if no such file is listed
+   */
+  public static TsplibArchiveEntry getManifestEntry(final String filename) {
+    for (final TsplibArchiveEntry entry: ManifestHolder.ENTRIES) {
+      if (entry.filename().equals(filename))  return entry;
+    }
+    return null;
+  }
+
   // ==============================================================================================
   // Methods to read the content of instance files from resource directories
   // ==============================================================================================
@@ -201,14 +248,16 @@ public class TsplibArchive {
    *
    * The file name must be among those returned by {@link extractAtspFilenames}.
    * The ownership of the input stream is passed to the caller that must
-   * properly close it when it is no longer needed.
+   * properly close it when it is no longer needed. If the file is not found,
+   * a compressed version of it (ending in {@code .gz} or {@code .zip}) is
+   * looked for and decompressed on the fly.
    *
    * @param filename      the name of the instance file (e.g. "br17.atsp")
    * @return              the ATSP instance corresponding to the given file name
    * @throws IOException  if an I/O error occurs
    */
   public static InputStream getAtspFileInputStream(final String filename) throws IOException {
-    return TsplibArchive.class.getResourceAsStream(ATSP_ARCHIVE_RESOURCE_NAME + "/" + filename);
+    return getResourceAsStream(ATSP_ARCHIVE_RESOURCE_NAME, filename);
   }
 
   /**
@@ -216,14 +265,16 @@ public class TsplibArchive {
    *
    * The file name must be among those returned by {@link extractHcpFilenames}.
    * The ownership of the input stream is passed to the caller that must
-   * properly close it when it is no longer needed.
+   * properly close it when it is no longer needed. If the file is not found,
+   * a compressed version of it (ending in {@code .gz} or {@code .zip}) is
+   * looked for and decompressed on the fly.
    *
    * @param filename      the name of the instance file (e.g. "alb1000.hcp")
    * @return              the HCP instance corresponding to the given file name
    * @throws IOException  if an I/O error occurs
    */
   public static InputStream getHcpFileInputStream(final String filename) throws IOException {
-    return TsplibArchive.class.getResourceAsStream(HCP_ARCHIVE_RESOURCE_NAME + "/" + filename);
+    return getResourceAsStream(HCP_ARCHIVE_RESOURCE_NAME, filename);
   }
 
   /**
@@ -231,14 +282,16 @@ public class TsplibArchive {
    *
    * The file name must be among those returned by {@link extractSopFilenames}.
    * The ownership of the input stream is passed to the caller that must
-   * properly close it when it is no longer needed.
+   * properly close it when it is no longer needed. If the file is not found,
+   * a compressed version of it (ending in {@code .gz} or {@code .zip}) is
+   * looked for and decompressed on the fly.
    *
    * @param filename      the name of the instance file (e.g. "br17.10.sop")
    * @return              the SOP instance corresponding to the given file name
    * @throws IOException  if an I/O error occurs
    */
   public static InputStream getSopFileInputStream(final String filename) throws IOException {
-    return TsplibArchive.class.getResourceAsStream(SOP_ARCHIVE_RESOURCE_NAME + "/" + filename);
+    return getResourceAsStream(SOP_ARCHIVE_RESOURCE_NAME, filename);
   }
 
   /**
@@ -246,14 +299,16 @@ public class TsplibArchive {
    *
    * The file name must be among those returned by {@link extractTspFilenames}.
    * The ownership of the input stream is passed to the caller that must
-   * properly close it when it is no longer needed.
+   * properly close it when it is no longer needed. If the file is not found,
+   * a compressed version of it (ending in {@code .gz} or {@code .zip}) is
+   * looked for and decompressed on the fly.
    *
    * @param filename      the name of the instance file (e.g. "a280.tsp")
    * @return              the TSP instance corresponding to the given file name
    * @throws IOException  if an I/O error occurs
    */
   public static InputStream getTspFileInputStream(final String filename) throws IOException {
-    return TsplibArchive.class.getResourceAsStream(TSP_ARCHIVE_RESOURCE_NAME + "/" + filename);
+    return getResourceAsStream(TSP_ARCHIVE_RESOURCE_NAME, filename);
   }
 
   /**
@@ -261,14 +316,16 @@ public class TsplibArchive {
    *
    * The file name must be among those returned by {@link extractVrpFilenames}.
    * The ownership of the input stream is passed to the caller that must
-   * properly close it when it is no longer needed.
+   * properly close it when it is no longer needed. If the file is not found,
+   * a compressed version of it (ending in {@code .gz} or {@code .zip}) is
+   * looked for and decompressed on the fly.
    *
    * @param filename      the name of the instance file (e.g. "att48.vrp")
    * @return              the VRP instance corresponding to the given file name
    * @throws IOException  if an I/O error occurs
    */
   public static InputStream getVrpFileInputStream(final String filename) throws IOException {
-    return TsplibArchive.class.getResourceAsStream(VRP_ARCHIVE_RESOURCE_NAME + "/" + filename);
+    return getResourceAsStream(VRP_ARCHIVE_RESOURCE_NAME, filename);
   }
 
   // ==============================================================================================
@@ -344,6 +401,221 @@ public class TsplibArchive {
     return VrpInstance.from(TsplibFileData.read(getVrpFileInputStream(filename)));
   }
 
+  // ==============================================================================================
+  // Methods to load many instances in parallel
+  // ==============================================================================================
+
+  /**
+   * Reads all ATSP instances from the TSPLIB archive using the threads of
+   * the common {@link ForkJoinPool}.
+   *
+   * @return              the instances keyed by file name, in the order of {@link extractAtspFilenames}
+   * @throws IOException  if an I/O error occurs
+   */
+  public static Map<String, AtspInstance> loadAtspInstances() throws IOException {
+    return loadAtspInstances(filename -> true, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Reads the ATSP instances whose file name satisfies the provided filter
+   * from the TSPLIB archive, parsing them concurrently on the provided executor.
+   *
+   * @param filter        the predicate selecting the file names to load
+   * @param executor      the executor running the parsing tasks
+   * @return              the instances keyed by file name, in the order of {@link extractAtspFilenames}
+   * @throws IOException  if an I/O error occurs
+   */
+  public static Map<String, AtspInstance> loadAtspInstances(
+      final Predicate<String> filter, final Executor executor
+  ) throws IOException {
+    return loadAll(ATSP_FILENAMES, ".atsp", filter, executor, TsplibArchive::loadAtspInstance);
+  }
+
+  /**
+   * Reads all HCP instances (i.e. files ending in {@code .hcp}) from the
+   * TSPLIB archive using the threads of the common {@link ForkJoinPool}.
+   *
+   * @return              the instances keyed by file name, in the order of {@link extractHcpFilenames}
+   * @throws IOException  if an I/O error occurs
+   */
+  public static Map<String, HcpInstance> loadHcpInstances() throws IOException {
+    return loadHcpInstances(filename -> true, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Reads the HCP instances (i.e. files ending in {@code .hcp}) whose file
+   * name satisfies the provided filter from the TSPLIB archive, parsing them
+   * concurrently on the provided executor.
+   *
+   * @param filter        the predicate selecting the file names to load
+   * @param executor      the executor running the parsing tasks
+   * @return              the instances keyed by file name, in the order of {@link extractHcpFilenames}
+   * @throws IOException  if an I/O error occurs
+   */
+  public static Map<String, HcpInstance> loadHcpInstances(
+      final Predicate<String> filter, final Executor executor
+  ) throws IOException {
+    return loadAll(HCP_FILENAMES, ".hcp", filter, executor, TsplibArchive::loadHcpInstance);
+  }
+
+  /**
+   * Reads all SOP instances from the TSPLIB archive using the threads of
+   * the common {@link ForkJoinPool}.
+   *
+   * @return              the instances keyed by file name, in the order of {@link extractSopFilenames}
+   * @throws IOException  if an I/O error occurs
+   */
+  public static Map<String, SopInstance> loadSopInstances() throws IOException {
+    return loadSopInstances(filename -> true, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Reads the SOP instances whose file name satisfies the provided filter
+   * from the TSPLIB archive, parsing them concurrently on the provided executor.
+   *
+   * @param filter        the predicate selecting the file names to load
+   * @param executor      the executor running the parsing tasks
+   * @return              the instances keyed by file name, in the order of {@link extractSopFilenames}
+   * @throws IOException  if an I/O error occurs
+   */
+  public static Map<String, SopInstance> loadSopInstances(
+      final Predicate<String> filter, final Executor executor
+  ) throws IOException {
+    return loadAll(SOP_FILENAMES, ".sop", filter, executor, TsplibArchive::loadSopInstance);
+  }
+
+  /**
+   * Reads all TSP instances (i.e. files ending in {@code .tsp}) from the
+   * TSPLIB archive using the threads of the common {@link ForkJoinPool}.
+   *
+   * @return              the instances keyed by file name, in the order of {@link extractTspFilenames}
+   * @throws IOException  if an I/O error occurs
+   */
+  public static Map<String, TspInstance> loadTspInstances() throws IOException {
+    return loadTspInstances(filename -> true, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Reads the TSP instances (i.e. files ending in {@code .tsp}) whose file
+   * name satisfies the provided filter from the TSPLIB archive, parsing them
+   * concurrently on the provided executor.
+   *
+   * @param filter        the predicate selecting the file names to load
+   * @param executor      the executor running the parsing tasks
+   * @return              the instances keyed by file name, in the order of {@link extractTspFilenames}
+   * @throws IOException  if an I/O error occurs
+   */
+  public static Map<String, TspInstance> loadTspInstances(
+      final Predicate<String> filter, final Executor executor
+  ) throws IOException {
+    return loadAll(TSP_FILENAMES, ".tsp", filter, executor, TsplibArchive::loadTspInstance);
+  }
+
+  /**
+   * Reads all VRP instances from the TSPLIB archive using the threads of
+   * the common {@link ForkJoinPool}.
+   *
+   * @return              the instances keyed by file name, in the order of {@link extractVrpFilenames}
+   * @throws IOException  if an I/O error occurs
+   */
+  public static Map<String, VrpInstance> loadVrpInstances() throws IOException {
+    return loadVrpInstances(filename -> true, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Reads the VRP instances whose file name satisfies the provided filter
+   * from the TSPLIB archive, parsing them concurrently on the provided executor.
+   *
+   * @param filter        the predicate selecting the file names to load
+   * @param executor      the executor running the parsing tasks
+   * @return              the instances keyed by file name, in the order of {@link extractVrpFilenames}
+   * @throws IOException  if an I/O error occurs
+   */
+  public static Map<String, VrpInstance> loadVrpInstances(
+      final Predicate<String> filter, final Executor executor
+  ) throws IOException {
+    return loadAll(VRP_FILENAMES, ".vrp", filter, executor, TsplibArchive::loadVrpInstance);
+  }
+
+  // ==============================================================================================
+  // Methods to read the specification part of files from resource directories
+  // ==============================================================================================
+
+  /**
+   * Reads the specification part of a ATSP file from the TSPLIB archive.
+   *
+   * The file name must be among those returned by {@link extractAtspFilenames}.
+   * Only the beginning of the file is read, hence this method is much faster
+   * than {@link loadAtspInstance} when only metadata are needed.
+   *
+   * @param filename      the name of the file (e.g. "br17.atsp")
+   * @return              the header of the file corresponding to the given file name
+   * @throws IOException  if an I/O error occurs
+   */
+  public static TsplibHeader loadAtspHeader(final String filename) throws IOException {
+    return TsplibHeader.read(getAtspFileInputStream(filename));
+  }
+
+  /**
+   * Reads the specification part of a HCP file from the TSPLIB archive.
+   *
+   * The file name must be among those returned by {@link extractHcpFilenames}.
+   * Only the beginning of the file is read, hence this method is much faster
+   * than {@link loadHcpInstance} when only metadata are needed.
+   *
+   * @param filename      the name of the file (e.g. "alb1000.hcp")
+   * @return              the header of the file corresponding to the given file name
+   * @throws IOException  if an I/O error occurs
+   */
+  public static TsplibHeader loadHcpHeader(final String filename) throws IOException {
+    return TsplibHeader.read(getHcpFileInputStream(filename));
+  }
+
+  /**
+   * Reads the specification part of a SOP file from the TSPLIB archive.
+   *
+   * The file name must be among those returned by {@link extractSopFilenames}.
+   * Only the beginning of the file is read, hence this method is much faster
+   * than {@link loadSopInstance} when only metadata are needed.
+   *
+   * @param filename      the name of the file (e.g. "br17.10.sop")
+   * @return              the header of the file corresponding to the given file name
+   * @throws IOException  if an I/O error occurs
+   */
+  public static TsplibHeader loadSopHeader(final String filename) throws IOException {
+    return TsplibHeader.read(getSopFileInputStream(filename));
+  }
+
+  /**
+   * Reads the specification part of a TSP file from the TSPLIB archive.
+   *
+   * The file name must be among those returned by {@link extractTspFilenames}.
+   * Only the beginning of the file is read, hence this method is much faster
+   * than {@link loadTspInstance} when only metadata are needed.
+   *
+   * @param filename      the name of the file (e.g. "a280.tsp")
+   * @return              the header of the file corresponding to the given file name
+   * @throws IOException  if an I/O error occurs
+   */
+  public static TsplibHeader loadTspHeader(final String filename) throws IOException {
+    return TsplibHeader.read(getTspFileInputStream(filename));
+  }
+
+  /**
+   * Reads the specification part of a VRP file from the TSPLIB archive.
+   *
+   * The file name must be among those returned by {@link extractVrpFilenames}.
+   * Only the beginning of the file is read, hence this method is much faster
+   * than {@link loadVrpInstance} when only metadata are needed.
+   *
+   * @param filename      the name of the file (e.g. "att48.vrp")
+   * @return              the header of the file corresponding to the given file name
+   * @throws IOException  if an I/O error occurs
+   */
+  public static TsplibHeader loadVrpHeader(final String filename) throws IOException {
+    return TsplibHeader.read(getVrpFileInputStream(filename));
+  }
+
   // ==============================================================================================
   // Methods to read the content of solutions files from resource directories
   // ==============================================================================================
@@ -377,4 +649,83 @@ public class TsplibArchive {
   public static Solutions loadTspTour(final String filename) throws IOException {
     return Solutions.from(TsplibFileData.read(getTspFileInputStream(filename)));
   }
+
+  // ==============================================================================================
+  // Private helpers
+  // ==============================================================================================
+
+  /** Lazily reads the manifest on first use. */
+  private static final class ManifestHolder {
+    static final List<TsplibArchiveEntry> ENTRIES = TsplibArchiveManifest.read();
+  }
+
+  /** Loads an object from a file of the archive. */
+  @FunctionalInterface
+  private interface Loader<T> {
+    T load(final String filename) throws IOException;
+  }
+
+  /**
+   * Loads the files with the given extension that satisfy the provided
+   * filter, submitting one task per file to the provided executor.
+   *
+   * @param filenames     the names of the files in the archive
+   * @param extension     the extension of the files to load
+   * @param filter        the predicate selecting the file names to load
+   * @param executor      the executor running the loading tasks
+   * @param loader        the function loading a single file
+   * @return              the loaded objects keyed by file name, in the order of {@code filenames}
+   * @throws IOException  if an I/O error occurs while loading any file
+   */
+  private static <T> Map<String, T> loadAll(
+      final String[] filenames, final String extension, final Predicate<String> filter,
+      final Executor executor, final Loader<T> loader
+  ) throws IOException {
+    final List<String> selected = new ArrayList<>(filenames.length);
+    final List<CompletableFuture<T>> futures = new ArrayList<>(filenames.length);
+    for (final String filename: filenames) {
+      if (!filename.endsWith(extension) || !filter.test(filename))  continue;
+
+      selected.add(filename);
+      futures.add(CompletableFuture.supplyAsync(() -> {
+        try {
+          return loader.load(filename);
+        } catch (final IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }, executor));
+    }
+
+    final Map<String, T> instances = new LinkedHashMap<>();
+    try {
+      for (int i = 0; i < futures.size(); ++i)  instances.put(selected.get(i), futures.get(i).join());
+    } catch (final CompletionException e) {
+      futures.forEach(f -> f.cancel(false));
+      if (e.getCause() instanceof UncheckedIOException u)  throw u.getCause();
+      if (e.getCause() instanceof RuntimeException r)  throw r;
+      throw e;
+    }
+
+    return instances;
+  }
+
+  /**
+   * Returns an input stream reading from the specified resource file, or
+   * from its compressed version if the file itself is not found.
+   *
+   * @param dirname       the name of the resource directory, either absolute or relative to the archive
+   * @param filename      the name of the file
+   * @return              the decompressed content of the file or null if the file is not found
+   * @throws IOException  if an I/O error occurs
+   */
+  static InputStream getResourceAsStream(
+      final String dirname, final String filename
+  ) throws IOException {
+    final String dir = dirname.startsWith("/") ? dirname : ARCHIVE_RESOURCE_NAME + "/" + dirname;
+    for (final String suffix: COMPRESSED_SUFFIXES) {
+      final InputStream is = TsplibArchive.class.getResourceAsStream(dir + "/" + filename + suffix);
+      if (is != null)  return CompressedInput.decompress(is);
+    }
+    return null;
+  }
 }
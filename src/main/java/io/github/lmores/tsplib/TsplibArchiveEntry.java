@@ -0,0 +1,52 @@
+package io.github.lmores.tsplib;
+
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightFormat;
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
+import io.github.lmores.tsplib.TsplibFileFormat.ProblemType;
+
+/**
+ * Metadata about a file of the TSPLIB archive shipped with this package,
+ * available without reading the file (see {@link TsplibArchive#getManifest()}).
+ *
+ * @param directory         the archive directory containing the file ("atsp", "hcp", "sop", "tsp" or "vrp")
+ * @param filename          the name of the file (e.g. "a280.tsp")
+ * @param type              the type of the file content
+ * @param dimension         the number of nodes
+ * @param edgeWeightType    how edge weights are computed (null for tours)
+ * @param edgeWeightFormat  how edge weights are provided (null unless explicit)
+ * @param byteLength        the length in bytes of the (uncompressed) file
+ * @param hasOptTour        whether the archive contains an optimal tour for the instance
+ * @param optimum           the optimal tour value, or -1 if unknown
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+public record TsplibArchiveEntry(
+    String directory,
+    String filename,
+    ProblemType type,
+    int dimension,
+    EdgeWeightType edgeWeightType,
+    EdgeWeightFormat edgeWeightFormat,
+    long byteLength,
+    boolean hasOptTour,
+    int optimum
+) {
+
+  /**
+   * Returns the name of the instance, i.e. the file name without extensions
+   * (e.g. "a280" for both "a280.tsp" and "a280.opt.tour").
+   *
+   * @return  the name of the instance
+   */
+  public String instanceName() {
+    return instanceName(filename);
+  }
+
+  static String instanceName(final String filename) {
+    final String base = filename.endsWith(".opt.tour")
+        ? filename.substring(0, filename.length() - ".opt.tour".length())
+        : filename;
+    final int dot = base.lastIndexOf('.');
+    return dot < 0 ? base : base.substring(0, dot);
+  }
+}
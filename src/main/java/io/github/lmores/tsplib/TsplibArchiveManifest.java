@@ -0,0 +1,188 @@
+package io.github.lmores.tsplib;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightFormat;
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
+import io.github.lmores.tsplib.TsplibFileFormat.ProblemType;
+import io.github.lmores.tsplib.TsplibFileFormat.TsplibFileFormatException;
+import io.github.lmores.tsplib.atsp.AtspOptTourValues;
+import io.github.lmores.tsplib.tsp.TspOptTourValues;
+
+/**
+ * Generates and reads the manifest of the TSPLIB archive, i.e. a resource
+ * listing the metadata of each file in the archive as a {@link TsplibArchiveEntry}.
+ *
+ * The manifest is a tab separated text file with a header line and one line
+ * per file, in the order of the {@code TsplibArchive.extractXxxFilenames()}
+ * methods (files that are not in TSPLIB format, e.g. "xray.problems", are
+ * not listed). It is generated from the archive content by running
+ * <pre>
+ *   java -cp target/classes io.github.lmores.tsplib.TsplibArchiveManifest \
+ *       src/main/resources/io/github/lmores/tsplib/__archive__/MANIFEST.tsv
+ * </pre>
+ * after changing the archive; the test suite checks that the shipped
+ * manifest matches the archive.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+final class TsplibArchiveManifest {
+  static final String RESOURCE_NAME = "/io/github/lmores/tsplib/__archive__/MANIFEST.tsv";
+
+  private static final String HEADER = String.join(
+      "\t", "directory", "filename", "type", "dimension", "edgeWeightType", "edgeWeightFormat",
+      "byteLength", "hasOptTour", "optimum"
+  );
+  private static final String NULL = "-";
+
+  /** This class contains only static methods and no instance is allowed. */
+  private TsplibArchiveManifest() { /* no-op */ }
+
+  /**
+   * Writes the manifest of the archive to the file given as first argument.
+   *
+   * @param args  the path of the manifest to write
+   * @throws IOException  if an I/O error occurs
+   */
+  public static void main(final String[] args) throws IOException {
+    if (args.length != 1) {
+      throw new IllegalArgumentException("Usage: TsplibArchiveManifest <output file>");
+    }
+    Files.writeString(Path.of(args[0]), format(generate()), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads the manifest shipped with this package.
+   *
+   * @return  an unmodifiable list of entries
+   * @throws UncheckedIOException  if the manifest cannot be read
+   */
+  static List<TsplibArchiveEntry> read() {
+    try (final InputStream is = TsplibArchiveManifest.class.getResourceAsStream(RESOURCE_NAME)) {
+      if (is == null)  throw new IOException("Resource not found: " + RESOURCE_NAME);
+      return parse(new String(is.readAllBytes(), StandardCharsets.UTF_8));
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Builds the manifest by reading every file of the archive.
+   *
+   * @return  the entries, in archive order
+   * @throws IOException  if an I/O error occurs
+   */
+  static List<TsplibArchiveEntry> generate() throws IOException {
+    final List<TsplibArchiveEntry> entries = new ArrayList<>(256);
+    addEntries(entries, "atsp", TsplibArchive.extractAtspFilenames(), AtspOptTourValues.getAll(null));
+    addEntries(entries, "hcp", TsplibArchive.extractHcpFilenames(), Map.of());
+    addEntries(entries, "sop", TsplibArchive.extractSopFilenames(), Map.of());
+    addEntries(entries, "tsp", TsplibArchive.extractTspFilenames(), TspOptTourValues.getAll(null));
+    addEntries(entries, "vrp", TsplibArchive.extractVrpFilenames(), Map.of());
+    return entries;
+  }
+
+  /**
+   * Returns the textual representation of the provided entries.
+   *
+   * @param entries  the entries of the manifest
+   * @return         the content of the manifest file
+   */
+  static String format(final List<TsplibArchiveEntry> entries) {
+    final StringBuilder sb = new StringBuilder(HEADER).append('\n');
+    for (final TsplibArchiveEntry e: entries) {
+      sb.append(e.directory()).append('\t')
+          .append(e.filename()).append('\t')
+          .append(e.type()).append('\t')
+          .append(e.dimension()).append('\t')
+          .append(e.edgeWeightType() == null ? NULL : e.edgeWeightType().name()).append('\t')
+          .append(e.edgeWeightFormat() == null ? NULL : e.edgeWeightFormat().name()).append('\t')
+          .append(e.byteLength()).append('\t')
+          .append(e.hasOptTour()).append('\t')
+          .append(e.optimum()).append('\n');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Parses the textual representation of a manifest.
+   *
+   * @param content  the content of the manifest file
+   * @return         an unmodifiable list of entries
+   * @throws IOException  if the content is malformed
+   */
+  static List<TsplibArchiveEntry> parse(final String content) throws IOException {
+    final List<TsplibArchiveEntry> entries = new ArrayList<>(256);
+    try (final BufferedReader reader = new BufferedReader(new StringReader(content))) {
+      if (!HEADER.equals(reader.readLine())) {
+        throw new TsplibFileFormatException("Invalid archive manifest header");
+      }
+
+      String line;
+      while ((line = reader.readLine()) != null) {
+        final String[] f = line.split("\t");
+        if (f.length != 9) {
+          throw new TsplibFileFormatException("Invalid archive manifest line: " + line);
+        }
+
+        entries.add(new TsplibArchiveEntry(
+            f[0], f[1], ProblemType.valueOf(f[2]), Integer.parseInt(f[3]),
+            f[4].equals(NULL) ? null : EdgeWeightType.valueOf(f[4]),
+            f[5].equals(NULL) ? null : EdgeWeightFormat.valueOf(f[5]),
+            Long.parseLong(f[6]), Boolean.parseBoolean(f[7]), Integer.parseInt(f[8])
+        ));
+      }
+    }
+    return Collections.unmodifiableList(entries);
+  }
+
+  // ==============================================================================================
+  // Private helpers
+  // ==============================================================================================
+
+  private static void addEntries(
+      final List<TsplibArchiveEntry> entries, final String directory, final String[] filenames,
+      final Map<String, Integer> optima
+  ) throws IOException {
+    final Set<String> names = new HashSet<>(Arrays.asList(filenames));
+    for (final String filename: filenames) {
+      if (filename.endsWith(".problems"))  continue;
+
+      final byte[] content;
+      try (final InputStream is = TsplibArchive.getResourceAsStream(directory, filename)) {
+        content = is.readAllBytes();
+      }
+
+      // Tours may omit 'DIMENSION', which is then inferred by a full read
+      final TsplibHeader header = TsplibHeader.read(new ByteArrayInputStream(content));
+      final int dimension = header.dimension() >= 0
+          ? header.dimension()
+          : TsplibFileData.read(new ByteArrayInputStream(content)).dimension();
+
+      final String name = TsplibArchiveEntry.instanceName(filename);
+      final boolean isTour = header.type() == ProblemType.TOUR;
+      entries.add(new TsplibArchiveEntry(
+          directory, filename, header.type(), dimension, header.edgeWeightType(),
+          header.edgeWeightFormat(), content.length,
+          !isTour && names.contains(name + ".opt.tour"),
+          isTour ? -1 : optima.getOrDefault(name, -1)
+      ));
+    }
+  }
+}
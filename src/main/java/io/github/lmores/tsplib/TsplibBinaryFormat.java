@@ -0,0 +1,557 @@
+package io.github.lmores.tsplib;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import io.github.lmores.tsplib.TsplibFileFormat.DisplayDataType;
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeDataFormat;
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightFormat;
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
+import io.github.lmores.tsplib.TsplibFileFormat.NodeCoordType;
+import io.github.lmores.tsplib.TsplibFileFormat.ProblemType;
+import io.github.lmores.tsplib.TsplibFileFormat.TsplibFileFormatException;
+
+/**
+ * Write and read the content of a {@link TsplibFileData} in a compact binary
+ * format, which avoids parsing text files every time an instance is loaded.
+ *
+ * A binary file is a little-endian sequence of:
+ * <ul>
+ *   <li>the magic number {@code "TSPB"} followed by the format version;</li>
+ *   <li>the specification part: name and comment (length in bytes followed by
+ *     the UTF-8 encoding, or -1 if null), then the ordinal of the problem type,
+ *     dimension, capacity and the ordinal of each other enum (-1 if null);</li>
+ *   <li>the data part: each array is stored as its length (-1 if null)
+ *     followed by its elements; each matrix as the number of rows (-1 if null),
+ *     the length of each row (-1 if null) and then all the elements, row by row.</li>
+ * </ul>
+ * Node coordinates are stored as the number of coordinates per node (-1 if
+ * null), the number of nodes and the number of bytes of each value (4 or 8),
+ * followed by all the first coordinates, all the second ones and, for 3D
+ * coordinates, all the third ones.
+ * Edge weights are preceded by a layout flag, the dimension and the number
+ * of bytes of each weight (1, 2 or 4, as chosen by {@link EdgeWeightMatrix}):
+ * symmetric matrices are packed by storing only the lower triangle
+ * (diagonal included) row by row, other ones are stored in full row by row.
+ *
+ * Binary files are read back by memory mapping them and bulk-copying each
+ * array into the heap, hence no per-element parsing takes place and the
+ * cost of loading an instance is dominated by page faults. Files written by a
+ * different version of the format are rejected.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+public final class TsplibBinaryFormat {
+
+  /** The first four bytes of a binary file ("TSPB" in ASCII). */
+  public static final int MAGIC = 0x54535042;
+
+  /** The version of the format written by this class. */
+  public static final int VERSION = 1;
+
+  private static final byte NO_WEIGHTS = 0;
+  private static final byte FULL_WEIGHTS = 1;
+  private static final byte PACKED_WEIGHTS = 2;
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /** This class contains only static methods and no instance is allowed. */
+  private TsplibBinaryFormat() { /* no-op */ }
+
+  /**
+   * Writes the provided data to a file in binary format (the file is created
+   * if it does not exist, truncated otherwise).
+   *
+   * @param data  the instance data
+   * @param file  the destination file
+   * @throws IOException  if an I/O error occurs
+   */
+  public static void write(final TsplibFileData data, final Path file) throws IOException {
+    if (data == null) {
+      throw new IllegalArgumentException("Data is null");
+    }
+
+    try (final FileChannel ch = FileChannel.open(
+        file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE
+    )) {
+      final Writer w = new Writer(ch);
+
+      w.ensure(Integer.BYTES * 2);
+      w.buf.putInt(MAGIC).putInt(VERSION);
+
+      // Specification part
+      w.putString(data.name());
+      w.putString(data.comment());
+      w.ensure(Integer.BYTES * 8);
+      w.buf.putInt(ordinal(data.type()))
+          .putInt(data.dimension())
+          .putInt(data.capacity())
+          .putInt(ordinal(data.edgeWeightType()))
+          .putInt(ordinal(data.edgeWeightFormat()))
+          .putInt(ordinal(data.edgeDataFormat()))
+          .putInt(ordinal(data.nodeCoordType()))
+          .putInt(ordinal(data.displayDataType()));
+
+      // Data part
+      w.putCoordinates(data.coordinates());
+      w.putIntArray(data.depots());
+      w.putIntArray(data.demands());
+      w.putIntMatrix(data.edges());
+      w.putIntMatrix(data.fixedEdges());
+      w.putEdgeWeights(data.edgeWeights());
+      w.putDoubleMatrix(data.displayCoords());
+      w.putIntMatrix(data.tours());
+
+      w.flush();
+    }
+  }
+
+  /**
+   * Reads a file written by {@link #write(TsplibFileData, Path)}.
+   *
+   * @param file  a file in binary format
+   * @return      the instance data
+   * @throws IOException  if an I/O error occurs
+   */
+  public static TsplibFileData read(final Path file) throws IOException {
+    final ByteBuffer buf;
+    try (final FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+      final long size = ch.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new TsplibFileFormatException("Binary file too large: " + file);
+      }
+      buf = ch.map(MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    if (buf.remaining() < Integer.BYTES * 2 || buf.getInt() != MAGIC) {
+      throw new TsplibFileFormatException("Not a binary TSPLIB file: " + file);
+    }
+
+    final int version = buf.getInt();
+    if (version != VERSION) {
+      throw new TsplibFileFormatException(
+          "Unsupported binary format version " + version + " (expected: " + VERSION + ")"
+      );
+    }
+
+    try {
+      return read(buf);
+    } catch (final BufferUnderflowException e) {
+      throw new TsplibFileFormatException("Truncated binary file: " + file);
+    }
+  }
+
+  // ==============================================================================================
+  // Private helpers
+  // ==============================================================================================
+
+  /**
+   * Reads the specification and data parts. Each length is checked against
+   * the remaining bytes before allocating an array, hence a corrupted length
+   * makes the read fail instead of allocating an arbitrary amount of memory.
+   */
+  private static TsplibFileData read(final ByteBuffer buf) {
+    // Specification part
+    final String name = getString(buf);
+    final String comment = getString(buf);
+    final ProblemType type = valueOf(ProblemType.values(), buf.getInt());
+    final int dimension = buf.getInt();
+    final int capacity = buf.getInt();
+    final EdgeWeightType edgeWeightType = valueOf(EdgeWeightType.values(), buf.getInt());
+    final EdgeWeightFormat edgeWeightFormat = valueOf(EdgeWeightFormat.values(), buf.getInt());
+    final EdgeDataFormat edgeDataFormat = valueOf(EdgeDataFormat.values(), buf.getInt());
+    final NodeCoordType nodeCoordType = valueOf(NodeCoordType.values(), buf.getInt());
+    final DisplayDataType displayDataType = valueOf(DisplayDataType.values(), buf.getInt());
+
+    // Data part
+    final NodeCoordinates coordinates = getCoordinates(buf);
+    final int[] depots = getIntArray(buf);
+    final int[] demands = getIntArray(buf);
+    final int[][] edges = getIntMatrix(buf);
+    final int[][] fixedEdges = getIntMatrix(buf);
+    final EdgeWeightMatrix edgeWeights = getEdgeWeights(buf);
+    final double[][] displayCoords = getDoubleMatrix(buf);
+    final int[][] tours = getIntMatrix(buf);
+
+    return new TsplibFileData(
+        name, type, comment, dimension, capacity, edgeWeightType, edgeWeightFormat,
+        edgeDataFormat, nodeCoordType, displayDataType, coordinates, depots, demands, edges,
+        fixedEdges, edgeWeights, displayCoords, tours
+    );
+  }
+
+  /**
+   * Checks that the buffer holds at least {@code count} values of the
+   * provided size.
+   *
+   * @throws TsplibFileFormatException  if the count is negative or exceeds the remaining bytes
+   */
+  private static void requireRemaining(
+      final ByteBuffer buf, final long count, final int valueSize
+  ) {
+    if (count < 0 || count * valueSize > buf.remaining()) {
+      throw new TsplibFileFormatException(
+          "Invalid length " + count + " in binary file (" + buf.remaining() + " bytes left)"
+      );
+    }
+  }
+
+  private static int ordinal(final Enum<?> e) {
+    return e == null ? -1 : e.ordinal();
+  }
+
+  private static <E extends Enum<E>> E valueOf(final E[] values, final int ordinal) {
+    if (ordinal < -1 || ordinal >= values.length) {
+      throw new TsplibFileFormatException("Invalid ordinal " + ordinal + " in binary file");
+    }
+    return ordinal == -1 ? null : values[ordinal];
+  }
+
+  private static String getString(final ByteBuffer buf) {
+    final int len = buf.getInt();
+    if (len < 0)  return null;
+
+    requireRemaining(buf, len, Byte.BYTES);
+    final byte[] bytes = new byte[len];
+    buf.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static int[] getIntArray(final ByteBuffer buf) {
+    final int len = buf.getInt();
+    if (len < 0)  return null;
+
+    requireRemaining(buf, len, Integer.BYTES);
+    final int[] a = new int[len];
+    buf.asIntBuffer().get(a);
+    buf.position(buf.position() + len * Integer.BYTES);
+    return a;
+  }
+
+  private static int[][] getIntMatrix(final ByteBuffer buf) {
+    final int[] lengths = getIntArray(buf);
+    if (lengths == null)  return null;
+
+    long total = 0;
+    for (final int len: lengths)  total += Math.max(len, 0);
+    requireRemaining(buf, total, Integer.BYTES);
+
+    final int[][] m = new int[lengths.length][];
+    final IntBuffer view = buf.asIntBuffer();
+    for (int i = 0; i < m.length; ++i) {
+      if (lengths[i] < 0)  continue;
+      m[i] = new int[lengths[i]];
+      view.get(m[i]);
+    }
+    buf.position(buf.position() + (int) (total * Integer.BYTES));
+    return m;
+  }
+
+  private static double[][] getDoubleMatrix(final ByteBuffer buf) {
+    final int[] lengths = getIntArray(buf);
+    if (lengths == null)  return null;
+
+    long total = 0;
+    for (final int len: lengths)  total += Math.max(len, 0);
+    requireRemaining(buf, total, Double.BYTES);
+
+    final double[][] m = new double[lengths.length][];
+    final DoubleBuffer view = buf.asDoubleBuffer();
+    for (int i = 0; i < m.length; ++i) {
+      if (lengths[i] < 0)  continue;
+      m[i] = new double[lengths[i]];
+      view.get(m[i]);
+    }
+    buf.position(buf.position() + (int) (total * Double.BYTES));
+    return m;
+  }
+
+  private static NodeCoordinates getCoordinates(final ByteBuffer buf) {
+    final int nCoords = buf.getInt();
+    if (nCoords < 0)  return null;
+    if (nCoords != 2 && nCoords != 3) {
+      throw new TsplibFileFormatException("Invalid number of node coordinates: " + nCoords);
+    }
+
+    final int n = buf.getInt();
+    final int valueSize = buf.getInt();
+    if (valueSize == Float.BYTES || valueSize == Double.BYTES) {
+      requireRemaining(buf, (long) nCoords * n, valueSize);
+    }
+    if (valueSize == Float.BYTES) {
+      final float[] xs = getFloats(buf, n);
+      final float[] ys = getFloats(buf, n);
+      final float[] zs = nCoords == 3 ? getFloats(buf, n) : null;
+      return new NodeCoordinates(xs, ys, zs);
+    }
+    if (valueSize != Double.BYTES) {
+      throw new TsplibFileFormatException("Invalid node coordinate size: " + valueSize);
+    }
+
+    final double[] xs = getDoubles(buf, n);
+    final double[] ys = getDoubles(buf, n);
+    final double[] zs = nCoords == 3 ? getDoubles(buf, n) : null;
+    return new NodeCoordinates(xs, ys, zs);
+  }
+
+  private static float[] getFloats(final ByteBuffer buf, final int length) {
+    final float[] a = new float[length];
+    buf.asFloatBuffer().get(a);
+    buf.position(buf.position() + length * Float.BYTES);
+    return a;
+  }
+
+  private static double[] getDoubles(final ByteBuffer buf, final int length) {
+    final double[] a = new double[length];
+    buf.asDoubleBuffer().get(a);
+    buf.position(buf.position() + length * Double.BYTES);
+    return a;
+  }
+
+  private static EdgeWeightMatrix getEdgeWeights(final ByteBuffer buf) {
+    final byte layout = buf.get();
+    if (layout == NO_WEIGHTS)  return null;
+
+    final int n = buf.getInt();
+    final byte weightSize = buf.get();
+    if (weightSize != Byte.BYTES && weightSize != Short.BYTES && weightSize != Integer.BYTES) {
+      throw new TsplibFileFormatException("Invalid edge weight size: " + weightSize);
+    }
+    if (n < 0) {
+      throw new TsplibFileFormatException("Invalid edge weights dimension: " + n);
+    }
+    requireRemaining(
+        buf,
+        layout == PACKED_WEIGHTS ? TsplibUtil.lowerTriangularToArrayIndex(n, 0) : (long) n * n,
+        weightSize
+    );
+
+    return switch (layout) {
+      case FULL_WEIGHTS -> {
+        final byte[][] byteRows = weightSize == Byte.BYTES ? new byte[n][] : null;
+        final short[][] shortRows = weightSize == Short.BYTES ? new short[n][] : null;
+        final int[][] intRows = weightSize == Integer.BYTES ? new int[n][] : null;
+        for (int i = 0; i < n; ++i) {
+          if (byteRows != null)  byteRows[i] = getBytes(buf, n);
+          else if (shortRows != null)  shortRows[i] = getShorts(buf, n);
+          else  intRows[i] = getInts(buf, n);
+        }
+        yield new FullEdgeWeightMatrix(byteRows, shortRows, intRows);
+      }
+      case PACKED_WEIGHTS -> {
+        final int length = PackedEdgeWeightMatrix.length(n);
+        yield new PackedEdgeWeightMatrix(
+            n,
+            weightSize == Byte.BYTES ? getBytes(buf, length) : null,
+            weightSize == Short.BYTES ? getShorts(buf, length) : null,
+            weightSize == Integer.BYTES ? getInts(buf, length) : null
+        );
+      }
+      default -> throw new TsplibFileFormatException("Invalid edge weights layout: " + layout);
+    };
+  }
+
+  private static byte[] getBytes(final ByteBuffer buf, final int length) {
+    final byte[] a = new byte[length];
+    buf.get(a);
+    return a;
+  }
+
+  private static short[] getShorts(final ByteBuffer buf, final int length) {
+    final short[] a = new short[length];
+    buf.asShortBuffer().get(a);
+    buf.position(buf.position() + length * Short.BYTES);
+    return a;
+  }
+
+  private static int[] getInts(final ByteBuffer buf, final int length) {
+    final int[] a = new int[length];
+    buf.asIntBuffer().get(a);
+    buf.position(buf.position() + length * Integer.BYTES);
+    return a;
+  }
+
+  /** Buffers the data written to a file channel. */
+  private static final class Writer {
+    final FileChannel ch;
+    final ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    Writer(final FileChannel ch) {
+      this.ch = ch;
+    }
+
+    void flush() throws IOException {
+      buf.flip();
+      while (buf.hasRemaining())  ch.write(buf);
+      buf.clear();
+    }
+
+    void ensure(final int nBytes) throws IOException {
+      if (buf.remaining() < nBytes)  flush();
+    }
+
+    void putString(final String s) throws IOException {
+      if (s == null) {
+        ensure(Integer.BYTES);
+        buf.putInt(-1);
+        return;
+      }
+
+      final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      ensure(Integer.BYTES);
+      buf.putInt(bytes.length);
+      for (int off = 0; off < bytes.length; ) {
+        ensure(1);
+        final int k = Math.min(buf.remaining(), bytes.length - off);
+        buf.put(bytes, off, k);
+        off += k;
+      }
+    }
+
+    void putInts(final int[] a, final int from, final int to) throws IOException {
+      for (int off = from; off < to; ) {
+        ensure(Integer.BYTES);
+        final int k = Math.min(buf.remaining() / Integer.BYTES, to - off);
+        buf.asIntBuffer().put(a, off, k);
+        buf.position(buf.position() + k * Integer.BYTES);
+        off += k;
+      }
+    }
+
+    void putDoubles(final double[] a) throws IOException {
+      for (int off = 0; off < a.length; ) {
+        ensure(Double.BYTES);
+        final int k = Math.min(buf.remaining() / Double.BYTES, a.length - off);
+        buf.asDoubleBuffer().put(a, off, k);
+        buf.position(buf.position() + k * Double.BYTES);
+        off += k;
+      }
+    }
+
+    void putIntArray(final int[] a) throws IOException {
+      ensure(Integer.BYTES);
+      if (a == null) {
+        buf.putInt(-1);
+      } else {
+        buf.putInt(a.length);
+        putInts(a, 0, a.length);
+      }
+    }
+
+    void putIntMatrix(final int[][] m) throws IOException {
+      if (m == null) {
+        putIntArray(null);
+        return;
+      }
+
+      final int[] lengths = new int[m.length];
+      for (int i = 0; i < m.length; ++i)  lengths[i] = m[i] == null ? -1 : m[i].length;
+      putIntArray(lengths);
+      for (final int[] row: m) {
+        if (row != null)  putInts(row, 0, row.length);
+      }
+    }
+
+    void putCoordinates(final NodeCoordinates c) throws IOException {
+      ensure(Integer.BYTES * 3);
+      if (c == null) {
+        buf.putInt(-1);
+        return;
+      }
+
+      buf.putInt(c.is3d() ? 3 : 2).putInt(c.dimension());
+      if (c.isSinglePrecision()) {
+        buf.putInt(Float.BYTES);
+        putFloats(c.floatXs());
+        putFloats(c.floatYs());
+        if (c.is3d())  putFloats(c.floatZs());
+      } else {
+        buf.putInt(Double.BYTES);
+        putDoubles(c.xs());
+        putDoubles(c.ys());
+        if (c.is3d())  putDoubles(c.zs());
+      }
+    }
+
+    void putFloats(final float[] a) throws IOException {
+      for (int off = 0; off < a.length; ) {
+        ensure(Float.BYTES);
+        final int k = Math.min(buf.remaining() / Float.BYTES, a.length - off);
+        buf.asFloatBuffer().put(a, off, k);
+        buf.position(buf.position() + k * Float.BYTES);
+        off += k;
+      }
+    }
+
+    void putDoubleMatrix(final double[][] m) throws IOException {
+      if (m == null) {
+        putIntArray(null);
+        return;
+      }
+
+      final int[] lengths = new int[m.length];
+      for (int i = 0; i < m.length; ++i)  lengths[i] = m[i] == null ? -1 : m[i].length;
+      putIntArray(lengths);
+      for (final double[] row: m) {
+        if (row != null)  putDoubles(row);
+      }
+    }
+
+    void putBytes(final byte[] a) throws IOException {
+      for (int off = 0; off < a.length; ) {
+        ensure(1);
+        final int k = Math.min(buf.remaining(), a.length - off);
+        buf.put(a, off, k);
+        off += k;
+      }
+    }
+
+    void putShorts(final short[] a) throws IOException {
+      for (int off = 0; off < a.length; ) {
+        ensure(Short.BYTES);
+        final int k = Math.min(buf.remaining() / Short.BYTES, a.length - off);
+        buf.asShortBuffer().put(a, off, k);
+        buf.position(buf.position() + k * Short.BYTES);
+        off += k;
+      }
+    }
+
+    void putEdgeWeights(final EdgeWeightMatrix m) throws IOException {
+      ensure(1 + Integer.BYTES + 1);
+      if (m == null) {
+        buf.put(NO_WEIGHTS);
+
+      } else if (m instanceof PackedEdgeWeightMatrix p) {
+        buf.put(PACKED_WEIGHTS).putInt(p.dimension()).put((byte) p.weightSize());
+        switch (p.weightSize()) {
+          case Byte.BYTES -> putBytes(p.bytes());
+          case Short.BYTES -> putShorts(p.shorts());
+          default -> putInts(p.ints(), 0, p.ints().length);
+        }
+
+      } else if (m instanceof FullEdgeWeightMatrix f) {
+        buf.put(FULL_WEIGHTS).putInt(f.dimension()).put((byte) f.weightSize());
+        for (int i = 0, n = f.dimension(); i < n; ++i) {
+          switch (f.weightSize()) {
+            case Byte.BYTES -> putBytes(f.byteRows()[i]);
+            case Short.BYTES -> putShorts(f.shortRows()[i]);
+            default -> putInts(f.intRows()[i], 0, n);
+          }
+        }
+
+      } else {
+        putEdgeWeights(m.isSymmetric() ? EdgeWeightMatrix.of(m.toArray()) : EdgeWeightMatrix.full(m.toArray()));
+      }
+    }
+  }
+}
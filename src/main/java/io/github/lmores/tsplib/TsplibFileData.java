@@ -1,18 +1,30 @@
 package io.github.lmores.tsplib;
 
-import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import io.github.lmores.tsplib.TsplibFileFormat.DisplayDataType;
 import io.github.lmores.tsplib.TsplibFileFormat.EdgeDataFormat;
 import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightFormat;
 import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
+import io.github.lmores.tsplib.TsplibFileFormat.Keyword;
 import io.github.lmores.tsplib.TsplibFileFormat.TsplibFileFormatException;
 import io.github.lmores.tsplib.TsplibFileFormat.NodeCoordType;
 import io.github.lmores.tsplib.TsplibFileFormat.ProblemType;
@@ -30,12 +42,12 @@ import io.github.lmores.tsplib.TsplibFileFormat.ProblemType;
  * @param edgeDataFormat    how edges are provided
  * @param nodeCoordType     how node coordinates are provided
  * @param displayDataType   how nodes should be displayed
- * @param nodeCoords        the coordinates of the nodes
+ * @param coordinates       the coordinates of the nodes
  * @param depots            the number of depots in a CVRP
  * @param demands           the demand fo each node (including depots) in a CVRP
  * @param edges             the edges of the graph encoded according to {@code edgeDataFormat}
  * @param fixedEdges        the list of fixed edges
- * @param edgeWeights       the edge weights
+ * @param edgeWeights       the edge weights (packed when provided in a symmetric format)
  * @param displayCoords     node coordinates for graph representation only
  * @param tours             a list of tours
  * @author   Lorenzo Moreschini
@@ -55,19 +67,84 @@ public record TsplibFileData(
     DisplayDataType displayDataType,
 
     // Data part
-    double[][] nodeCoords,
+    NodeCoordinates coordinates,
     int[] depots,
     int[] demands,
     int[][] edges,
     int[][] fixedEdges,
-    int[][] edgeWeights,
+    EdgeWeightMatrix edgeWeights,
     double[][] displayCoords,
     int[][] tours
 ) {
 
+  /**
+   * Options that configure how a file in TSPLIB format is read.
+   *
+   * @author   Lorenzo Moreschini
+   * @since    0.0.4
+   */
+  public enum ReadOption {
+    /**
+     * Maps the file in memory using {@link FileChannel#map} and parses its
+     * content straight from the mapped buffer, avoiding the copies through
+     * heap buffers performed when reading from an input stream.
+     *
+     * Files larger than 2 GB cannot be mapped with a single buffer and are
+     * read as if this option was not provided.
+     */
+    MEMORY_MAPPED,
+
+    /**
+     * Parses the largest data sections (i.e. 'NODE_COORD_SECTION' and
+     * 'EDGE_WEIGHT_SECTION') using the threads of the common
+     * {@link java.util.concurrent.ForkJoinPool}.
+     *
+     * Each section is split into byte ranges that are tokenized independently
+     * and whose values are stored at offsets computed from the number of
+     * tokens in the preceding ranges. This requires the whole content to be
+     * in memory: unless the file is also memory mapped, it is read into a
+     * byte array before parsing.
+     */
+    PARALLEL,
+
+    /**
+     * Stores node coordinates in single precision when every coordinate is
+     * exactly representable as a float, which halves the memory they take on
+     * large geometric instances.
+     *
+     * Since coordinates are widened back to double before computing
+     * distances, exact representability guarantees that edge weights are
+     * bit-identical to the ones obtained without this option. Coordinates
+     * that would be rounded (e.g. most values with decimal digits) are kept
+     * in double precision, see {@link NodeCoordinates#toSinglePrecision()}.
+     * <p>
+     * Memory is traded for speed: widening each coordinate lengthens the
+     * computation of edge weights, e.g. evaluating a tour of pla85900.tsp
+     * takes about 1.2 ms instead of 0.27 ms on a single core.
+     */
+    SINGLE_PRECISION,
+  }
+
+  /**
+   * Returns the coordinates of the nodes, one array per node.
+   *
+   * The matrix is built from {@link #coordinates()} on first use.
+   *
+   * @return  the coordinates of the nodes, or null if not provided
+   */
+  public double[][] nodeCoords() {
+    return coordinates == null ? null : coordinates.toArray();
+  }
+
   /**
    * Reads a file in TSPLIB format and returns its data.
    *
+   * All the tours in a 'TOUR_SECTION' are kept in memory: use
+   * {@link TsplibTourReader} to process them one at a time.
+   * <p>
+   * Gzip and zip compressed files are detected by their magic bytes and
+   * decompressed on the fly (a zip archive must contain a single file).
+   *
    * @param file  a file in TSPLIB format
    * @return      the instance data
    * @throws IOException  if a I/O error occurs
@@ -78,12 +155,68 @@ public record TsplibFileData(
     }
   }
 
+  /**
+   * Reads a file in TSPLIB format using the provided options and returns its data.
+   *
+   * @param file     a file in TSPLIB format
+   * @param options  options specifying how the file is read
+   * @return         the instance data
+   * @throws IOException  if a I/O error occurs
+   */
+  public static TsplibFileData read(final Path file, final ReadOption... options) throws IOException {
+    final Set<ReadOption> opts = EnumSet.noneOf(ReadOption.class);
+    Collections.addAll(opts, options);
+    final boolean singlePrecision = opts.contains(ReadOption.SINGLE_PRECISION);
+
+    if (opts.contains(ReadOption.MEMORY_MAPPED)) {
+      try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        final long size = channel.size();
+        if (size <= Integer.MAX_VALUE) {
+          final MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, size);
+          if (!CompressedInput.isCompressed(buffer)) {
+            try (final TsplibTokenizer tk = new TsplibTokenizer(buffer)) {
+              return read(tk, opts.contains(ReadOption.PARALLEL), singlePrecision);
+            }
+          }
+        }
+      }
+    }
+
+    if (opts.contains(ReadOption.PARALLEL)) {
+      byte[] content = Files.readAllBytes(file);
+      if (CompressedInput.isCompressed(ByteBuffer.wrap(content))) {
+        try (final InputStream is = CompressedInput.decompress(new ByteArrayInputStream(content))) {
+          content = is.readAllBytes();
+        }
+      }
+
+      try (final TsplibTokenizer tk = new TsplibTokenizer(ByteBuffer.wrap(content))) {
+        return read(tk, true, singlePrecision);
+      }
+    }
+
+    try (
+        final InputStream is = new FileInputStream(file.toFile());
+        final TsplibTokenizer tk = new TsplibTokenizer(CompressedInput.decompress(is))
+    ) {
+      return read(tk, false, singlePrecision);
+    }
+  }
+
   /**
    * Reads an input stream emitting data in TSPLIB format and returns the data.
    *
    * The caller passes the ownership of the provided input stream to this
    * method which takes care of properly closing it before returning or
-   * throwing an exception.
+   * throwing an exception. Gzip and zip compressed input is decompressed
+   * on the fly.
+   * <p>
+   * The input is split into tokens by a byte-level tokenizer that parses
+   * numbers without allocating intermediate objects. Compared to the
+   * {@link java.util.Scanner} based parser used up to version 0.0.3, the
+   * throughput measured on a single core goes from 6.9 to 114 MB/s on
+   * pla85900.tsp, from 5.6 to 61 MB/s on usa13509.tsp and from 11 to 66 MB/s
+   * on si1032.tsp.
    *
    * @param is  the source in TSPLIB format
    * @return    the instance data
@@ -94,6 +227,111 @@ public record TsplibFileData(
       throw new IllegalArgumentException("Input stream is null");
     }
 
+    try (is; final TsplibTokenizer tk = new TsplibTokenizer(CompressedInput.decompress(is))) {
+      return read(tk, false, false);
+    }
+  }
+
+  /**
+   * Reads an input stream emitting data in TSPLIB format using the provided
+   * options and returns the data.
+   *
+   * The caller passes the ownership of the provided input stream to this
+   * method which takes care of properly closing it before returning or
+   * throwing an exception. The {@link ReadOption#MEMORY_MAPPED} option does
+   * not apply to input streams and it is ignored.
+   *
+   * @param is       the source in TSPLIB format
+   * @param options  options specifying how the source is read
+   * @return         the instance data
+   * @throws IOException  if an I/O error occurs
+   */
+  public static TsplibFileData read(final InputStream is, final ReadOption... options) throws IOException {
+    if (is == null) {
+      throw new IllegalArgumentException("Input stream is null");
+    }
+
+    final List<ReadOption> opts = Arrays.asList(options);
+    final boolean singlePrecision = opts.contains(ReadOption.SINGLE_PRECISION);
+    if (opts.contains(ReadOption.PARALLEL)) {
+      final byte[] content;
+      try (final InputStream dis = CompressedInput.decompress(is)) {
+        content = dis.readAllBytes();
+      }
+
+      try (final TsplibTokenizer tk = new TsplibTokenizer(ByteBuffer.wrap(content))) {
+        return read(tk, true, singlePrecision);
+      }
+    }
+
+    try (is; final TsplibTokenizer tk = new TsplibTokenizer(CompressedInput.decompress(is))) {
+      return read(tk, false, singlePrecision);
+    }
+  }
+
+  /**
+   * Reads a file in TSPLIB format asynchronously, using the default
+   * asynchronous executor of {@link CompletableFuture}.
+   *
+   * @param file     a file in TSPLIB format
+   * @param options  options specifying how the file is read
+   * @return         a future completed with the instance data
+   * @see #readAsync(Path, Executor, ReadOption...)
+   */
+  public static CompletableFuture<TsplibFileData> readAsync(
+      final Path file, final ReadOption... options
+  ) {
+    final CancellableRead<TsplibFileData> read = new CancellableRead<>(() -> read(file, options));
+    read.defaultExecutor().execute(read);
+    return read;
+  }
+
+  /**
+   * Reads a file in TSPLIB format asynchronously, using the provided executor.
+   *
+   * The returned future is completed with the same result as
+   * {@link #read(Path, ReadOption...)}, or exceptionally with the exception
+   * it throws. Cancelling the future (with any value of
+   * {@code mayInterruptIfRunning}) interrupts the thread parsing the file,
+   * which stops shortly after together with the common pool workers parsing
+   * sections in parallel (see {@link ReadOption#PARALLEL}); the interrupt
+   * status of the thread is cleared
+   * before it is returned to the executor. Dependent stages (e.g. those
+   * created by {@link CompletableFuture#thenApply}) do not propagate their
+   * cancellation: cancel the returned future instead.
+   *
+   * @param file      a file in TSPLIB format
+   * @param executor  the executor running the read
+   * @param options   options specifying how the file is read
+   * @return          a future completed with the instance data
+   */
+  public static CompletableFuture<TsplibFileData> readAsync(
+      final Path file, final Executor executor, final ReadOption... options
+  ) {
+    final CancellableRead<TsplibFileData> read = new CancellableRead<>(() -> read(file, options));
+    executor.execute(read);
+    return read;
+  }
+
+  // ==============================================================================================
+  // Private helpers
+  // ==============================================================================================
+
+  /**
+   * Reads the tokens emitted by the provided tokenizer and returns the data.
+   *
+   * When {@code parallel} is true and the tokenizer holds the whole content,
+   * the largest data sections are parsed by {@link ParallelSectionParser}.
+   *
+   * @param tk               the tokenizer splitting the source in TSPLIB format
+   * @param parallel         whether large data sections can be parsed in parallel
+   * @param singlePrecision  whether node coordinates should be stored as floats when exact
+   * @return                 the instance data
+   * @throws IOException  if an I/O error occurs
+   */
+  static TsplibFileData read(
+      final TsplibTokenizer tk, final boolean parallel, final boolean singlePrecision
+  ) throws IOException {
     // Specification part
     String name = null;
     ProblemType type = null;
@@ -107,118 +345,130 @@ public record TsplibFileData(
     DisplayDataType displayDataType = DisplayDataType.NO_DISPLAY;
 
     // Data part
-    double[][] nodeCoords = null;
+    NodeCoordinates coordinates = null;
     int[] depots = null;
     int[] demands = null;
     int[][] edges = null;
     int[][] fixedEdges = null;
-    int[][] edgeWeights = null;
+    EdgeWeightMatrix edgeWeights = null;
     double[][] displayCoords = null;
     int[][] tours = null;
 
-    try (
-        is;
-        final BufferedInputStream bis = new BufferedInputStream(is);
-        final Scanner sc = new Scanner(bis)
-    ) {
-      sc.useDelimiter(TsplibFileFormat.DELIMITER);
-
-      while (sc.hasNext()) {
-        final String section = sc.next();
-        switch (section) {
-          // Specification part
-          case "NAME" -> { name = sc.skip(TsplibFileFormat.DELIMITER).nextLine(); }
-          case "TYPE" -> {
-            type = ProblemType.valueOf(sc.next());
-            sc.nextLine();  // some instances incorrectly report the author's name after the type
-          }
-          case "COMMENT" -> { comment = sc.skip(TsplibFileFormat.DELIMITER).nextLine(); }
-          case "DIMENSION" -> { dimension = sc.nextInt(); }
-          case "CAPACITY" -> { capacity = sc.nextInt(); }
-          case "EDGE_WEIGHT_TYPE" -> { edgeWeightType = EdgeWeightType.valueOf(sc.next()); }
-          case "EDGE_WEIGHT_FORMAT" -> { edgeWeightFormat = EdgeWeightFormat.valueOf(sc.next()); }
-          case "EDGE_DATA_FORMAT" -> { edgeDataFormat = EdgeDataFormat.valueOf(sc.next()); }
-          case "NODE_COORD_TYPE" -> { nodeCoordType = NodeCoordType.valueOf(sc.next()); }
-          case "DISPLAY_DATA_TYPE" -> { displayDataType = DisplayDataType.valueOf(sc.next()); }
-
-          // Data part
-          case "NODE_COORD_SECTION" -> {
-            nodeCoords = new double[dimension][];
-
-            int i = 0;
-            if (nodeCoordType == null) {
-              // Sniff coordinate type
-              final String line = sc.skip(TsplibFileFormat.DELIMITER).nextLine();
-              final String[] parts = TsplibFileFormat.DELIMITER.split(line);
-              final int nParts = parts.length;
-
-              if (nParts == 3) {
-                nodeCoordType = NodeCoordType.TWOD_COORDS;
-
-                final int nodeIdx = Integer.parseInt(parts[0]) - 1;
-                if (nodeIdx != 0) {
-                  throw new TsplibFileFormatException(
-                    "Instance: " + name + ", first edge in 'NODE_COORD_SECTION' " +
-                    "has index " + (nodeIdx + 1) + " (expected: 1)"
-                  );
-                }
-
-                nodeCoords[0] = new double[] {
-                    Double.parseDouble(parts[1]),
-                    Double.parseDouble(parts[2])
-                };
-                i = 1;
-
-              } else if (nParts == 4) {
-                nodeCoordType = NodeCoordType.THREED_COORDS;
+    while (tk.hasNext()) {
+      final Keyword keyword = tk.nextKeyword();
+      switch (keyword) {
+        // Specification part
+        case NAME -> {
+          tk.skipDelimiters();
+          name = tk.nextLine();
+        }
+        case TYPE -> {
+          type = ProblemType.valueOf(tk.next());
+          tk.skipLine();  // some instances incorrectly report the author's name after the type
+        }
+        case COMMENT -> {
+          tk.skipDelimiters();
+          comment = tk.nextLine();
+        }
+        case DIMENSION -> { dimension = tk.nextInt(); }
+        case CAPACITY -> { capacity = tk.nextInt(); }
+        case EDGE_WEIGHT_TYPE -> { edgeWeightType = EdgeWeightType.valueOf(tk.next()); }
+        case EDGE_WEIGHT_FORMAT -> { edgeWeightFormat = EdgeWeightFormat.valueOf(tk.next()); }
+        case EDGE_DATA_FORMAT -> { edgeDataFormat = EdgeDataFormat.valueOf(tk.next()); }
+        case NODE_COORD_TYPE -> { nodeCoordType = NodeCoordType.valueOf(tk.next()); }
+        case DISPLAY_DATA_TYPE -> { displayDataType = DisplayDataType.valueOf(tk.next()); }
+
+        // Data part
+        case NODE_COORD_SECTION -> {
+          final double[] xs = new double[dimension];
+          final double[] ys = new double[dimension];
+          double[] zs = null;
+
+          int i = 0;
+          if (nodeCoordType == null) {
+            // Sniff coordinate type
+            tk.skipDelimiters();
+            final String line = tk.nextLine();
+            final String[] parts = TsplibFileFormat.DELIMITER.split(line);
+            final int nParts = parts.length;
+
+            if (nParts == 3) {
+              nodeCoordType = NodeCoordType.TWOD_COORDS;
+
+              final int nodeIdx = Integer.parseInt(parts[0]) - 1;
+              if (nodeIdx != 0) {
+                throw new TsplibFileFormatException(
+                  "Instance: " + name + ", first edge in 'NODE_COORD_SECTION' " +
+                  "has index " + (nodeIdx + 1) + " (expected: 1)"
+                );
+              }
 
-                final int nodeIdx = Integer.parseInt(parts[0]) - 1;
-                if (nodeIdx != 0) {
-                  throw new TsplibFileFormatException(
-                    "Instance " + name + ": first edge in 'NODE_COORD_SECTION' " +
-                    "has index " + (nodeIdx + 1) + " (expected: 1)"
-                  );
-                }
+              xs[0] = Double.parseDouble(parts[1]);
+              ys[0] = Double.parseDouble(parts[2]);
+              i = 1;
 
-                nodeCoords[0] = new double[] {
-                    Double.parseDouble(parts[1]),
-                    Double.parseDouble(parts[2]),
-                    Double.parseDouble(parts[3])
-                };
-                i = 1;
+            } else if (nParts == 4) {
+              nodeCoordType = NodeCoordType.THREED_COORDS;
 
-              } else {
+              final int nodeIdx = Integer.parseInt(parts[0]) - 1;
+              if (nodeIdx != 0) {
                 throw new TsplibFileFormatException(
-                    "Instance " + name + ": found 'NODE_COORD_SECTION' with no prior " +
-                    "'NODE_COORD_TYPE' section and failed to autodetect 'NODE_COORD_TYPE'"
+                  "Instance " + name + ": first edge in 'NODE_COORD_SECTION' " +
+                  "has index " + (nodeIdx + 1) + " (expected: 1)"
                 );
               }
+
+              zs = new double[dimension];
+              xs[0] = Double.parseDouble(parts[1]);
+              ys[0] = Double.parseDouble(parts[2]);
+              zs[0] = Double.parseDouble(parts[3]);
+              i = 1;
+
+            } else {
+              throw new TsplibFileFormatException(
+                  "Instance " + name + ": found 'NODE_COORD_SECTION' with no prior " +
+                  "'NODE_COORD_TYPE' section and failed to autodetect 'NODE_COORD_TYPE'"
+              );
             }
 
+          } else if (nodeCoordType == NodeCoordType.THREED_COORDS) {
+            zs = new double[dimension];
+          }
+
+          final int nCoords = nodeCoordType == NodeCoordType.THREED_COORDS ? 3 : 2;
+          if (
+              parallel && tk.holdsWholeContent() && nodeCoordType != NodeCoordType.NO_COORDS &&
+              (long) (dimension - i) * (nCoords + 1) >= ParallelSectionParser.MIN_PARALLEL_TOKENS
+          ) {
+            ParallelSectionParser.parseNodeCoords(tk, name, xs, ys, zs, i);
+          } else {
             switch (nodeCoordType) {
               case TWOD_COORDS -> {
                 for (; i < dimension; ++i) {
-                  final int nodeIdx = sc.nextInt() - 1;
+                  final int nodeIdx = tk.nextInt() - 1;
                   if (nodeIdx != i) {
                     throw new TsplibFileFormatException(
                         "Instance " + name + ": found node " + (nodeIdx + 1) +
                         " in 'NODE_COORD_SECTION', expected: " + (i + 1)
                     );
                   }
-                  nodeCoords[nodeIdx] = new double[] {sc.nextDouble(), sc.nextDouble()};
+                  xs[i] = tk.nextDouble();
+                  ys[i] = tk.nextDouble();
                 }
               }
 
               case THREED_COORDS -> {
                 for (; i < dimension; ++i) {
-                  final int nodeIdx = sc.nextInt() - 1;
+                  final int nodeIdx = tk.nextInt() - 1;
                   if (nodeIdx != i) {
                     throw new TsplibFileFormatException(
                         "Instance " + name + ": found node " + (nodeIdx + 1) +
                         " in 'NODE_COORD_SECTION', expected: " + (i + 1)
                     );
                   }
-                  nodeCoords[nodeIdx] = new double[] {sc.nextDouble(), sc.nextDouble(), sc.nextDouble()};
+                  xs[i] = tk.nextDouble();
+                  ys[i] = tk.nextDouble();
+                  zs[i] = tk.nextDouble();
                 }
               }
 
@@ -230,136 +480,157 @@ public record TsplibFileData(
             }
           }
 
-          case "DEPOT_SECTION" -> {
-            int nextDepot;
-            final List<Integer> tmpDepots = new ArrayList<>(16);
-            while ((nextDepot = sc.nextInt()) != -1) {
-              if (nextDepot < 1 || nextDepot > dimension) {
-                throw new TsplibFileFormatException(
-                    "Instance " + name + ": found depot " + nextDepot + " in 'DEPOT_SECTION'"
-                );
-              }
-              tmpDepots.add(nextDepot - 1);
-            }
-
-            int i = -1;
-            depots = new int[tmpDepots.size()];
-            for (final int d: tmpDepots)  depots[++i] = d;
-          }
+          coordinates = new NodeCoordinates(xs, ys, zs);
+          if (singlePrecision)  coordinates = coordinates.toSinglePrecision();
+        }
 
-          case "DEMAND_SECTION" -> {
-            demands = new int[dimension];
-            for (int i = 0; i < dimension; ++i) {
-              final int nodeIdx = sc.nextInt() - 1;
-              demands[nodeIdx] = sc.nextInt();
+        case DEPOT_SECTION -> {
+          int nextDepot;
+          final List<Integer> tmpDepots = new ArrayList<>(16);
+          while ((nextDepot = tk.nextInt()) != -1) {
+            if (nextDepot < 1 || nextDepot > dimension) {
+              throw new TsplibFileFormatException(
+                  "Instance " + name + ": found depot " + nextDepot + " in 'DEPOT_SECTION'"
+              );
             }
+            tmpDepots.add(nextDepot - 1);
           }
 
-          case "EDGE_DATA_SECTION" -> {
-            switch (edgeDataFormat) {
-              case ADJ_LIST -> {
-                final List<int[]> tmpEdges = new ArrayList<>();
-
-                int firstNode;
-                while ((firstNode = sc.nextInt()) != -1) {
-                  final List<Integer> tmpAdjacentNodes = new ArrayList<>(32);
-                  tmpAdjacentNodes.add(firstNode - 1);
-
-                  int node;
-                  while ((node = sc.nextInt()) != -1) {
-                    tmpAdjacentNodes.add(node - 1);
-                  }
+          int i = -1;
+          depots = new int[tmpDepots.size()];
+          for (final int d: tmpDepots)  depots[++i] = d;
+        }
 
-                  int i = -1;
-                  final int[] adjacentNodes = new int[tmpAdjacentNodes.size()];
-                  for (final int x: tmpAdjacentNodes)  adjacentNodes[++i] = x;
+        case DEMAND_SECTION -> {
+          demands = new int[dimension];
+          for (int i = 0; i < dimension; ++i) {
+            final int nodeIdx = tk.nextInt() - 1;
+            TsplibReader.checkNode(name, keyword, nodeIdx, dimension);
+            demands[nodeIdx] = tk.nextInt();
+          }
+        }
 
-                  tmpEdges.add(adjacentNodes);
+        case EDGE_DATA_SECTION -> {
+          switch (edgeDataFormat) {
+            case ADJ_LIST -> {
+              final List<int[]> tmpEdges = new ArrayList<>();
+
+              int firstNode;
+              while ((firstNode = tk.nextInt()) != -1) {
+                TsplibReader.checkNode(name, keyword, firstNode - 1, dimension);
+                final List<Integer> tmpAdjacentNodes = new ArrayList<>(32);
+                tmpAdjacentNodes.add(firstNode - 1);
+
+                int node;
+                while ((node = tk.nextInt()) != -1) {
+                  TsplibReader.checkNode(name, keyword, node - 1, dimension);
+                  tmpAdjacentNodes.add(node - 1);
                 }
 
-                edges = tmpEdges.toArray(new int[0][]);
+                int i = -1;
+                final int[] adjacentNodes = new int[tmpAdjacentNodes.size()];
+                for (final int x: tmpAdjacentNodes)  adjacentNodes[++i] = x;
+
+                tmpEdges.add(adjacentNodes);
               }
 
-              case EDGE_LIST -> {
-                final List<int[]> tmpEdges = new ArrayList<>();
+              edges = tmpEdges.toArray(new int[0][]);
+            }
 
-                int firstNode;
-                while ((firstNode = sc.nextInt()) != -1) {
-                  final int[] edge = new int[] {firstNode - 1, sc.nextInt() - 1};
-                  tmpEdges.add(edge);
-                }
+            case EDGE_LIST -> {
+              final List<int[]> tmpEdges = new ArrayList<>();
 
-                edges = tmpEdges.toArray(new int[0][]);
+              int firstNode;
+              while ((firstNode = tk.nextInt()) != -1) {
+                final int[] edge = new int[] {firstNode - 1, tk.nextInt() - 1};
+                TsplibReader.checkNode(name, keyword, edge[0], dimension);
+                TsplibReader.checkNode(name, keyword, edge[1], dimension);
+                tmpEdges.add(edge);
               }
 
-              case null -> {
-                throw new TsplibFileFormatException(
-                    "Instance " + name + ": found 'EDGE_DATA' section but 'EDGE_DATA_FORMAT' is null"
-                );
-              }
+              edges = tmpEdges.toArray(new int[0][]);
             }
-          }
 
-          // alb4000.hcp contains "FIXED_EDGES" rather than "FIXED_EDGES_SECTION"
-          case "FIXED_EDGES", "FIXED_EDGES_SECTION" -> {
-            int firstNode;
-            final List<int[]> tmpFixedEdges = new ArrayList<>(16);
-            while ((firstNode = sc.nextInt()) != -1) {
-              if (firstNode < 1 || firstNode > dimension) {
-                throw new TsplibFileFormatException(
-                  "Instance " + name + ": node with index " + firstNode + " in 'FIXED_EDGES_SECTION'"
-                );
-              }
+            case null -> {
+              throw new TsplibFileFormatException(
+                  "Instance " + name + ": found 'EDGE_DATA' section but 'EDGE_DATA_FORMAT' is null"
+              );
+            }
+          }
+        }
 
-              final int otherNode = sc.nextInt();
-              if (otherNode < 1 || otherNode > dimension) {
-                throw new TsplibFileFormatException(
-                  "Instance " + name + ": node with index " + otherNode + " in 'FIXED_EDGES_SECTION'"
-                );
-              }
+        // alb4000.hcp contains "FIXED_EDGES" rather than "FIXED_EDGES_SECTION"
+        case FIXED_EDGES_SECTION -> {
+          int firstNode;
+          final List<int[]> tmpFixedEdges = new ArrayList<>(16);
+          while ((firstNode = tk.nextInt()) != -1) {
+            if (firstNode < 1 || firstNode > dimension) {
+              throw new TsplibFileFormatException(
+                "Instance " + name + ": node with index " + firstNode + " in 'FIXED_EDGES_SECTION'"
+              );
+            }
 
-              tmpFixedEdges.add(new int[] {firstNode - 1, otherNode - 1});
+            final int otherNode = tk.nextInt();
+            if (otherNode < 1 || otherNode > dimension) {
+              throw new TsplibFileFormatException(
+                "Instance " + name + ": node with index " + otherNode + " in 'FIXED_EDGES_SECTION'"
+              );
             }
 
-            int i = -1;
-            fixedEdges = new int[tmpFixedEdges.size()][];
-            for (final int[] e: tmpFixedEdges)  fixedEdges[++i] = e;
+            tmpFixedEdges.add(new int[] {firstNode - 1, otherNode - 1});
           }
 
-          case "DISPLAY_DATA_SECTION" -> {
-            switch (displayDataType) {
-              case TWOD_DISPLAY -> {
-                displayCoords = new double[dimension][2];
-                for (int i = 0; i < dimension; ++i) {
-                  final int nodeIdx = sc.nextInt() - 1;
-                  if (nodeIdx != i) {
-                    throw new TsplibFileFormatException(
-                      "Instance " + name + ": found node " + (nodeIdx + 1) +
-                      " in 'NODE_COORD_SECTION', expected: " + (i + 1)
-                    );
-                  }
-                  final double[] dCoords = displayCoords[i];
-                  dCoords[0] = sc.nextDouble();
-                  dCoords[1] = sc.nextDouble();
+          int i = -1;
+          fixedEdges = new int[tmpFixedEdges.size()][];
+          for (final int[] e: tmpFixedEdges)  fixedEdges[++i] = e;
+        }
+
+        case DISPLAY_DATA_SECTION -> {
+          switch (displayDataType) {
+            case TWOD_DISPLAY -> {
+              displayCoords = new double[dimension][2];
+              for (int i = 0; i < dimension; ++i) {
+                final int nodeIdx = tk.nextInt() - 1;
+                if (nodeIdx != i) {
+                  throw new TsplibFileFormatException(
+                    "Instance " + name + ": found node " + (nodeIdx + 1) +
+                    " in 'NODE_COORD_SECTION', expected: " + (i + 1)
+                  );
                 }
+                final double[] dCoords = displayCoords[i];
+                dCoords[0] = tk.nextDouble();
+                dCoords[1] = tk.nextDouble();
               }
+            }
 
-              case COORD_DISPLAY, NO_DISPLAY -> {
-                throw new TsplibFileFormatException(
-                    "Found 'DISPLAY_DATA_SECTION' but DATA_DISPLAY_TYPE == " + displayDataType
-                );
-              }
+            case COORD_DISPLAY, NO_DISPLAY -> {
+              throw new TsplibFileFormatException(
+                  "Found 'DISPLAY_DATA_SECTION' but DATA_DISPLAY_TYPE == " + displayDataType
+              );
             }
           }
+        }
 
-          case "EDGE_WEIGHT_SECTION" -> {
-            edgeWeights = new int[dimension][dimension];
-
+        case EDGE_WEIGHT_SECTION -> {
+          // Symmetric formats are stored in packed form, hence each value is written once
+          final boolean full = edgeWeightFormat == EdgeWeightFormat.FULL_MATRIX;
+          final int[][] rows = full ? new int[dimension][dimension] : null;
+          final int[] packed = full ? null : new int[PackedEdgeWeightMatrix.length(dimension)];
+
+          if (
+              parallel && tk.holdsWholeContent() && edgeWeightFormat != null &&
+              edgeWeightFormat != EdgeWeightFormat.FUNCTION &&
+              ParallelSectionParser.countEdgeWeights(edgeWeightFormat, dimension) >=
+                  ParallelSectionParser.MIN_PARALLEL_TOKENS
+          ) {
+            ParallelSectionParser.parseEdgeWeights(tk, edgeWeightFormat, dimension, rows, packed);
+          } else {
             switch (edgeWeightFormat) {
               case FULL_MATRIX -> {
                 for (int i = 0; i < dimension; ++i) {
+                  final int[] row = rows[i];
                   for (int j = 0; j < dimension; ++j) {
-                    edgeWeights[i][j] = sc.nextInt();
+                    row[j] = tk.nextInt();
                   }
                 }
               }
@@ -373,7 +644,7 @@ public record TsplibFileData(
               case LOWER_COL -> {
                 for (int j = 0, n = dimension - 1; j < n; ++j) {
                   for (int i = j + 1; i < dimension; ++i) {
-                    edgeWeights[i][j] = edgeWeights[j][i] = sc.nextInt();
+                    packed[(int) TsplibUtil.lowerTriangularToArrayIndex(i, j)] = tk.nextInt();
                   }
                 }
               }
@@ -381,7 +652,7 @@ public record TsplibFileData(
               case LOWER_DIAG_COL -> {
                 for (int j = 0; j < dimension; ++j) {
                   for (int i = j; i < dimension; ++i) {
-                    edgeWeights[i][j] = edgeWeights[j][i] = sc.nextInt();
+                    packed[(int) TsplibUtil.lowerTriangularToArrayIndex(i, j)] = tk.nextInt();
                   }
                 }
               }
@@ -389,7 +660,7 @@ public record TsplibFileData(
               case LOWER_DIAG_ROW -> {
                 for (int i = 0; i < dimension; ++i) {
                   for (int j = 0; j <= i; ++j) {
-                    edgeWeights[i][j] = edgeWeights[j][i] = sc.nextInt();;
+                    packed[(int) TsplibUtil.lowerTriangularToArrayIndex(i, j)] = tk.nextInt();
                   }
                 }
               }
@@ -397,7 +668,7 @@ public record TsplibFileData(
               case LOWER_ROW -> {
                 for (int i = 1; i < dimension; ++i) {
                   for (int j = 0; j < i; ++j) {
-                    edgeWeights[i][j] = edgeWeights[j][i] = sc.nextInt();
+                    packed[(int) TsplibUtil.lowerTriangularToArrayIndex(i, j)] = tk.nextInt();
                   }
                 }
               }
@@ -405,7 +676,7 @@ public record TsplibFileData(
               case UPPER_COL -> {
                 for (int j = 1; j < dimension; ++j) {
                   for (int i = 0; i < j; ++i) {
-                    edgeWeights[i][j] = edgeWeights[j][i] = sc.nextInt();
+                    packed[(int) TsplibUtil.lowerTriangularToArrayIndex(j, i)] = tk.nextInt();
                   }
                 }
               }
@@ -413,7 +684,7 @@ public record TsplibFileData(
               case UPPER_DIAG_COL -> {
                 for (int j = 0; j < dimension; ++j) {
                   for (int i = 0; i <= j; ++i) {
-                    edgeWeights[i][j] = edgeWeights[j][i] = sc.nextInt();
+                    packed[(int) TsplibUtil.lowerTriangularToArrayIndex(j, i)] = tk.nextInt();
                   }
                 }
               }
@@ -421,7 +692,7 @@ public record TsplibFileData(
               case UPPER_DIAG_ROW -> {
                 for (int i = 0; i < dimension; ++i) {
                   for (int j = i; j < dimension; ++j) {
-                    edgeWeights[i][j] = edgeWeights[j][i] = sc.nextInt();;
+                    packed[(int) TsplibUtil.lowerTriangularToArrayIndex(j, i)] = tk.nextInt();
                   }
                 }
               }
@@ -429,7 +700,7 @@ public record TsplibFileData(
               case UPPER_ROW -> {
                 for (int i = 0, n = dimension - 1; i < n; ++i) {
                   for (int j = i + 1; j < dimension; ++j) {
-                    edgeWeights[i][j] = edgeWeights[j][i] = sc.nextInt();
+                    packed[(int) TsplibUtil.lowerTriangularToArrayIndex(j, i)] = tk.nextInt();
                   }
                 }
               }
@@ -442,54 +713,59 @@ public record TsplibFileData(
             }
           }
 
-          case "TOUR_SECTION" -> {
-            int node;
-            final List<int[]> tmpTours = new ArrayList<>();
-
-            if (dimension < 0) {
-              // The data file does not declare the dimension of the tour (e.g. rd100.opt.tour)
-              final List<Integer> tmpTour = new ArrayList<>(1024);
-              while (sc.hasNext() && (node = sc.nextInt()) != -1)  tmpTour.add(node - 1);
+          edgeWeights = full
+              ? EdgeWeightMatrix.full(rows)
+              : EdgeWeightMatrix.packedSymmetric(dimension, packed);
+        }
 
-              dimension = tmpTour.size();
-              final int[] tour = new int[dimension];
-              for (int i = 0; i < dimension; ++i)  tour[i] = tmpTour.get(i);
-              tmpTours.add(tour);
+        case TOUR_SECTION -> {
+          int node;
+          final List<int[]> tmpTours = new ArrayList<>();
+
+          if (dimension < 0) {
+            // The data file does not declare the dimension of the tour (e.g. rd100.opt.tour)
+            int[] tour = new int[1024];
+            int n = 0;
+            while (tk.hasNext() && (node = tk.nextInt()) != -1) {
+              TsplibReader.checkNode(name, keyword, node - 1, -1);
+              if (n == tour.length)  tour = Arrays.copyOf(tour, 2 * n);
+              tour[n++] = node - 1;
             }
 
-            // As this section often ends with 'EOF', sc.hasNextInt() is needed
-            while (sc.hasNextInt() && (node = sc.nextInt()) != -1) {
-              final int[] tour = new int[dimension];
-              tour[0] = node - 1;
-
-              int i = 0;
-              while (sc.hasNext() && (node = sc.nextInt()) != -1)  tour[++i] = node - 1;
-
-              if (++i != dimension) {
-                throw new TsplibFileFormatException(
-                    "Tour " + (tmpTours.size() + 1) + " has " + i + " nodes, expected " + dimension
-                );
-              }
+            dimension = n;
+            tmpTours.add(Arrays.copyOf(tour, n));
+          }
 
-              tmpTours.add(tour);
+          // As this section often ends with 'EOF', tk.hasNextInt() is needed
+          while (tk.hasNextInt() && (node = tk.nextInt()) != -1) {
+            final int[] tour = new int[dimension];
+            int i = 0;
+            do {
+              TsplibReader.checkTourPosition(name, tmpTours.size(), i, dimension);
+              TsplibReader.checkNode(name, keyword, node - 1, dimension);
+              tour[i++] = node - 1;
+            } while (tk.hasNext() && (node = tk.nextInt()) != -1);
+
+            if (i != dimension) {
+              throw new TsplibFileFormatException(
+                  "Tour " + (tmpTours.size() + 1) + " has " + i + " nodes, expected " + dimension
+              );
             }
 
-            tours = tmpTours.toArray(new int[0][0]);
+            tmpTours.add(tour);
           }
 
-          case "EOF" -> { /* no-op */ }
-
-          default -> {
-            throw new TsplibFileFormatException("Unexpected section: " + section);
-          }
+          tours = tmpTours.toArray(new int[0][0]);
         }
+
+        case EOF -> { /* no-op */ }
       }
     }
 
     return new TsplibFileData(
         name, type, comment, dimension, capacity,
         edgeWeightType, edgeWeightFormat, edgeDataFormat, nodeCoordType, displayDataType,
-        nodeCoords, depots, demands, edges, fixedEdges, edgeWeights, displayCoords, tours
+        coordinates, depots, demands, edges, fixedEdges, edgeWeights, displayCoords, tours
     );
   }
 }
\ No newline at end of file
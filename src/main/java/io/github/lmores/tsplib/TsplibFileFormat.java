@@ -28,6 +28,66 @@ public class TsplibFileFormat {
   /** Section marker that denotes the end of a file in TSPLIB format. */
   public final String EOF = "EOF";
 
+  /** Keywords that introduce an entry of the specification part or a section of the data part. */
+  public enum Keyword {
+    /** Identifies the data file */
+    NAME,
+
+    /** Specifies the type of the data */
+    TYPE,
+
+    /** Additional comments */
+    COMMENT,
+
+    /** The number of nodes */
+    DIMENSION,
+
+    /** The truck capacity in a CVRP */
+    CAPACITY,
+
+    /** How edge weights are computed */
+    EDGE_WEIGHT_TYPE,
+
+    /** How edge weights are provided */
+    EDGE_WEIGHT_FORMAT,
+
+    /** How edges are provided */
+    EDGE_DATA_FORMAT,
+
+    /** How node coordinates are provided */
+    NODE_COORD_TYPE,
+
+    /** How nodes should be displayed */
+    DISPLAY_DATA_TYPE,
+
+    /** Section listing the node coordinates */
+    NODE_COORD_SECTION,
+
+    /** Section listing the depots of a CVRP */
+    DEPOT_SECTION,
+
+    /** Section listing the demand of each node of a CVRP */
+    DEMAND_SECTION,
+
+    /** Section listing the edges of the graph */
+    EDGE_DATA_SECTION,
+
+    /** Section listing the edges that must be part of any solution */
+    FIXED_EDGES_SECTION,
+
+    /** Section listing the node coordinates used for graphical display */
+    DISPLAY_DATA_SECTION,
+
+    /** Section listing one or more tours */
+    TOUR_SECTION,
+
+    /** Section listing the edge weights explicitly */
+    EDGE_WEIGHT_SECTION,
+
+    /** Marks the end of the file */
+    EOF,
+  }
+
   /** Values allowed in the 'TYPE' section of TSPLIB file format. */
   public enum ProblemType {
     /** Asymmetric Travelling Salesman Problem */
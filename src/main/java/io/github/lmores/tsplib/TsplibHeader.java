@@ -0,0 +1,156 @@
+package io.github.lmores.tsplib;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+import io.github.lmores.tsplib.TsplibFileFormat.DisplayDataType;
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeDataFormat;
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightFormat;
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
+import io.github.lmores.tsplib.TsplibFileFormat.Keyword;
+import io.github.lmores.tsplib.TsplibFileFormat.NodeCoordType;
+import io.github.lmores.tsplib.TsplibFileFormat.ProblemType;
+
+/**
+ * Store the specification part of a file in TSPLIB format.
+ *
+ * Reading a header stops at the first section of the data part, hence it
+ * takes a small and constant amount of time regardless of the size of the
+ * file. Headers are meant to list and filter instances (e.g. by dimension
+ * or edge weight type) before fully loading them. As done by
+ * {@link TsplibFileData#read(InputStream)}, a missing 'NODE_COORD_TYPE' is
+ * inferred from the first line of the 'NODE_COORD_SECTION' (provided that
+ * it is the first section of the data part, otherwise it is left null).
+ * Unlike a full read, a missing 'DIMENSION' is not inferred from the length
+ * of the tours and it is reported as -1.
+ *
+ * @param name              the name of the instance
+ * @param type              the type of problem
+ * @param comment           the comment associated with the instance
+ * @param dimension         the number of nodes (and depotes) for ATSP, TSP and CVRP
+ * @param capacity          the truck capacity (CVRP only)
+ * @param edgeWeightType    how edge weights are computed
+ * @param edgeWeightFormat  how edge weight are provided
+ * @param edgeDataFormat    how edges are provided
+ * @param nodeCoordType     how node coordinates are provided
+ * @param displayDataType   how nodes should be displayed
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+public record TsplibHeader(
+    String name,
+    ProblemType type,
+    String comment,
+    int dimension,
+    int capacity,
+    EdgeWeightType edgeWeightType,
+    EdgeWeightFormat edgeWeightFormat,
+    EdgeDataFormat edgeDataFormat,
+    NodeCoordType nodeCoordType,
+    DisplayDataType displayDataType
+) {
+  /** Specification parts are short, a small buffer avoids reading much of the data part. */
+  private static final int BUFFER_SIZE = 1 << 12;
+
+  /**
+   * Returns the header of the provided data.
+   *
+   * @param data  the instance data
+   * @return      the header of the instance
+   */
+  public static TsplibHeader from(final TsplibFileData data) {
+    return new TsplibHeader(
+        data.name(), data.type(), data.comment(), data.dimension(), data.capacity(),
+        data.edgeWeightType(), data.edgeWeightFormat(), data.edgeDataFormat(),
+        data.nodeCoordType(), data.displayDataType()
+    );
+  }
+
+  /**
+   * Reads the specification part of a file in TSPLIB format.
+   *
+   * @param file  a file in TSPLIB format
+   * @return      the header of the instance
+   * @throws IOException  if a I/O error occurs
+   */
+  public static TsplibHeader read(final Path file) throws IOException {
+    return read(new FileInputStream(file.toFile()));
+  }
+
+  /**
+   * Reads the specification part from an input stream emitting data in
+   * TSPLIB format.
+   *
+   * The caller passes the ownership of the provided input stream to this
+   * method which takes care of properly closing it before returning or
+   * throwing an exception. The stream is not consumed beyond the first
+   * section of the data part. Gzip and zip compressed input is decompressed
+   * on the fly.
+   *
+   * @param is  the source in TSPLIB format
+   * @return    the header of the instance
+   * @throws IOException  if an I/O error occurs
+   */
+  public static TsplibHeader read(final InputStream is) throws IOException {
+    if (is == null) {
+      throw new IllegalArgumentException("Input stream is null");
+    }
+
+    String name = null;
+    ProblemType type = null;
+    String comment = "";
+    int dimension = -1;
+    int capacity = -1;
+    EdgeWeightType edgeWeightType = null;
+    EdgeWeightFormat edgeWeightFormat = null;
+    EdgeDataFormat edgeDataFormat = null;
+    NodeCoordType nodeCoordType = null;
+    DisplayDataType displayDataType = DisplayDataType.NO_DISPLAY;
+
+    try (is; final TsplibTokenizer tk = new TsplibTokenizer(CompressedInput.decompress(is), BUFFER_SIZE)) {
+      boolean dataPart = false;
+      while (!dataPart && tk.hasNext()) {
+        final Keyword keyword = tk.nextKeyword();
+        switch (keyword) {
+          case NAME -> {
+            tk.skipDelimiters();
+            name = tk.nextLine();
+          }
+          case TYPE -> {
+            type = ProblemType.valueOf(tk.next());
+            tk.skipLine();  // some instances incorrectly report the author's name after the type
+          }
+          case COMMENT -> {
+            tk.skipDelimiters();
+            comment = tk.nextLine();
+          }
+          case DIMENSION -> { dimension = tk.nextInt(); }
+          case CAPACITY -> { capacity = tk.nextInt(); }
+          case EDGE_WEIGHT_TYPE -> { edgeWeightType = EdgeWeightType.valueOf(tk.next()); }
+          case EDGE_WEIGHT_FORMAT -> { edgeWeightFormat = EdgeWeightFormat.valueOf(tk.next()); }
+          case EDGE_DATA_FORMAT -> { edgeDataFormat = EdgeDataFormat.valueOf(tk.next()); }
+          case NODE_COORD_TYPE -> { nodeCoordType = NodeCoordType.valueOf(tk.next()); }
+          case DISPLAY_DATA_TYPE -> { displayDataType = DisplayDataType.valueOf(tk.next()); }
+          case NODE_COORD_SECTION -> {
+            if (nodeCoordType == null) {
+              // Sniff coordinate type from the first line, as done by TsplibFileData.read()
+              tk.skipDelimiters();
+              final int nParts = TsplibFileFormat.DELIMITER.split(tk.nextLine()).length;
+              if (nParts == 3)  nodeCoordType = NodeCoordType.TWOD_COORDS;
+              else if (nParts == 4)  nodeCoordType = NodeCoordType.THREED_COORDS;
+            }
+            dataPart = true;
+          }
+          default -> { dataPart = true; }
+        }
+      }
+    }
+
+    return new TsplibHeader(
+        name, type, comment, dimension, capacity,
+        edgeWeightType, edgeWeightFormat, edgeDataFormat, nodeCoordType, displayDataType
+    );
+  }
+}
@@ -0,0 +1,311 @@
+package io.github.lmores.tsplib;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import io.github.lmores.tsplib.atsp.AtspInstance;
+import io.github.lmores.tsplib.atsp.ExplicitAtspInstance;
+import io.github.lmores.tsplib.hcp.HcpInstance;
+import io.github.lmores.tsplib.sop.SopInstance;
+import io.github.lmores.tsplib.tsp.ExplicitTspInstance;
+import io.github.lmores.tsplib.tsp.TspInstance;
+import io.github.lmores.tsplib.vrp.ExplicitVrpInstance;
+import io.github.lmores.tsplib.vrp.VrpInstance;
+
+/**
+ * A thread-safe cache of the instances loaded from the {@link TsplibArchive}.
+ *
+ * Concurrent requests for an instance that is not cached yet trigger a
+ * single parse, whose result is shared by all the requesting threads. The
+ * cache holds instances up to an estimate of the memory they take: when the
+ * limit is exceeded, the least recently used instances are evicted.
+ * <p>
+ * Cached instances are shared among callers, hence their arrays must not be
+ * modified.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+public final class TsplibInstanceCache {
+
+  /** Estimated size in bytes of an object header. */
+  private static final long OBJECT_HEADER_BYTES = 16;
+
+  /** Estimated size in bytes of an entry of a HCP edge set (entry, boxed nodes and hash node). */
+  private static final long EDGE_ENTRY_BYTES = 80;
+
+  private final long maxBytes;
+  private final Object lock = new Object();
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long totalBytes = 0;
+  private long hitCount = 0;
+  private long missCount = 0;
+  private long evictionCount = 0;
+
+  /** A cached instance, possibly still being loaded. */
+  private static final class Entry {
+    final CompletableFuture<BaseInstance> future = new CompletableFuture<>();
+    long bytes = -1;  // unknown until loaded
+  }
+
+  /**
+   * Creates an empty cache holding instances up to the provided estimated size.
+   *
+   * @param maxBytes  the maximum estimated size in bytes of the cached instances
+   * @throws IllegalArgumentException  if {@code maxBytes} is negative
+   */
+  public TsplibInstanceCache(final long maxBytes) {
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException("Cache size must be non negative, found: " + maxBytes);
+    }
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Returns the ATSP instance with the given file name, loading it with
+   * {@link TsplibArchive#loadAtspInstance} if it is not cached.
+   *
+   * @param filename      the name of the instance file (e.g. "br17.atsp")
+   * @return              the ATSP instance corresponding to the given file name
+   * @throws IOException  if an I/O error occurs
+   */
+  public AtspInstance getAtspInstance(final String filename) throws IOException {
+    return (AtspInstance) get("atsp/" + filename, () -> TsplibArchive.loadAtspInstance(filename));
+  }
+
+  /**
+   * Returns the HCP instance with the given file name, loading it with
+   * {@link TsplibArchive#loadHcpInstance} if it is not cached.
+   *
+   * @param filename      the name of the instance file (e.g. "alb1000.hcp")
+   * @return              the HCP instance corresponding to the given file name
+   * @throws IOException  if an I/O error occurs
+   */
+  public HcpInstance getHcpInstance(final String filename) throws IOException {
+    return (HcpInstance) get("hcp/" + filename, () -> TsplibArchive.loadHcpInstance(filename));
+  }
+
+  /**
+   * Returns the SOP instance with the given file name, loading it with
+   * {@link TsplibArchive#loadSopInstance} if it is not cached.
+   *
+   * @param filename      the name of the instance file (e.g. "br17.10.sop")
+   * @return              the SOP instance corresponding to the given file name
+   * @throws IOException  if an I/O error occurs
+   */
+  public SopInstance getSopInstance(final String filename) throws IOException {
+    return (SopInstance) get("sop/" + filename, () -> TsplibArchive.loadSopInstance(filename));
+  }
+
+  /**
+   * Returns the TSP instance with the given file name, loading it with
+   * {@link TsplibArchive#loadTspInstance} if it is not cached.
+   *
+   * @param filename      the name of the instance file (e.g. "a280.tsp")
+   * @return              the TSP instance corresponding to the given file name
+   * @throws IOException  if an I/O error occurs
+   */
+  public TspInstance getTspInstance(final String filename) throws IOException {
+    return (TspInstance) get("tsp/" + filename, () -> TsplibArchive.loadTspInstance(filename));
+  }
+
+  /**
+   * Returns the VRP instance with the given file name, loading it with
+   * {@link TsplibArchive#loadVrpInstance} if it is not cached.
+   *
+   * @param filename      the name of the instance file (e.g. "att48.vrp")
+   * @return              the VRP instance corresponding to the given file name
+   * @throws IOException  if an I/O error occurs
+   */
+  public VrpInstance getVrpInstance(final String filename) throws IOException {
+    return (VrpInstance) get("vrp/" + filename, () -> TsplibArchive.loadVrpInstance(filename));
+  }
+
+  /** Removes all the instances from this cache (statistics are preserved). */
+  public void clear() {
+    synchronized (lock) {
+      entries.clear();
+      totalBytes = 0;
+    }
+  }
+
+  /**
+   * Returns the number of instances held by this cache (including those being loaded).
+   *
+   * @return  the number of cached instances
+   */
+  public int size() {
+    synchronized (lock) {
+      return entries.size();
+    }
+  }
+
+  /**
+   * Returns the estimated size in bytes of the instances held by this cache.
+   *
+   * @return  the estimated size in bytes of the cached instances
+   */
+  public long estimatedBytes() {
+    synchronized (lock) {
+      return totalBytes;
+    }
+  }
+
+  /**
+   * Returns the number of requests served by an instance already cached or being loaded.
+   *
+   * @return  the number of cache hits
+   */
+  public long hitCount() {
+    synchronized (lock) {
+      return hitCount;
+    }
+  }
+
+  /**
+   * Returns the number of requests that caused an instance to be loaded.
+   *
+   * @return  the number of cache misses
+   */
+  public long missCount() {
+    synchronized (lock) {
+      return missCount;
+    }
+  }
+
+  /**
+   * Returns the number of instances evicted to keep the cache within its size limit.
+   *
+   * @return  the number of evicted instances
+   */
+  public long evictionCount() {
+    synchronized (lock) {
+      return evictionCount;
+    }
+  }
+
+  /**
+   * Returns an estimate of the memory taken by the arrays of an instance.
+   *
+   * @param instance  the instance
+   * @return          the estimated size in bytes
+   */
+  static long estimateBytes(final BaseInstance instance) {
+    long bytes = OBJECT_HEADER_BYTES;
+
+    final NodeCoordinates coords = instance.coordinates();
+    if (coords != null) {
+      final long valueBytes = coords.isSinglePrecision() ? Float.BYTES : Double.BYTES;
+      bytes += (coords.is3d() ? 3 : 2) * (OBJECT_HEADER_BYTES + coords.dimension() * valueBytes);
+    }
+
+    bytes += estimateBytes(instance.displayCoords(), Double.BYTES);
+    bytes += estimateBytes(instance.fixedEdges(), Integer.BYTES);
+
+    if (instance instanceof ExplicitTspInstance i)  bytes += EdgeWeightStorage.estimateBytes(i.edgeWeights());
+    else if (instance instanceof ExplicitAtspInstance i)  bytes += EdgeWeightStorage.estimateBytes(i.edgeWeights());
+    else if (instance instanceof SopInstance i)  bytes += EdgeWeightStorage.estimateBytes(i.edgeWeights());
+    else if (instance instanceof ExplicitVrpInstance i)  bytes += EdgeWeightStorage.estimateBytes(i.edgeWeights());
+    else if (instance instanceof HcpInstance i)  bytes += i.edges().size() * EDGE_ENTRY_BYTES;
+
+    return bytes;
+  }
+
+  // ==============================================================================================
+  // Private helpers
+  // ==============================================================================================
+
+  /** Loads an instance from the archive. */
+  @FunctionalInterface
+  private interface Loader {
+    BaseInstance load() throws IOException;
+  }
+
+  /**
+   * Returns the instance cached under the given key, loading it with the
+   * provided loader if it is neither cached nor being loaded by another thread.
+   *
+   * @param key           the key identifying the instance
+   * @param loader        the function loading the instance
+   * @return              the instance
+   * @throws IOException  if an I/O error occurs while loading the instance
+   */
+  private BaseInstance get(final String key, final Loader loader) throws IOException {
+    final Entry entry;
+    boolean owner = false;
+    synchronized (lock) {
+      Entry e = entries.get(key);
+      if (e == null) {
+        e = new Entry();
+        entries.put(key, e);
+        owner = true;
+        ++missCount;
+      } else {
+        ++hitCount;
+      }
+      entry = e;
+    }
+
+    if (owner) {
+      final BaseInstance instance;
+      try {
+        instance = loader.load();
+      } catch (final Throwable t) {
+        synchronized (lock) {
+          entries.remove(key, entry);
+        }
+        entry.future.completeExceptionally(t);
+        throw t;
+      }
+
+      final long bytes = estimateBytes(instance);
+      synchronized (lock) {
+        entry.bytes = bytes;
+        if (entries.get(key) == entry) {
+          totalBytes += bytes;
+          evict();
+        }
+      }
+      entry.future.complete(instance);
+      return instance;
+    }
+
+    try {
+      return entry.future.join();
+    } catch (final CompletionException e) {
+      if (e.getCause() instanceof IOException ioe)  throw ioe;
+      if (e.getCause() instanceof UncheckedIOException u)  throw u.getCause();
+      if (e.getCause() instanceof RuntimeException r)  throw r;
+      throw e;
+    }
+  }
+
+  /** Evicts the least recently used loaded instances until the size limit is met. */
+  private void evict() {
+    final Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+    while (totalBytes > maxBytes && it.hasNext()) {
+      final Entry e = it.next().getValue();
+      if (e.bytes < 0)  continue;  // still being loaded
+
+      it.remove();
+      totalBytes -= e.bytes;
+      ++evictionCount;
+    }
+  }
+
+  private static long estimateBytes(final Object[] rows, final long valueBytes) {
+    if (rows == null)  return 0;
+
+    long bytes = OBJECT_HEADER_BYTES + rows.length * (long) Long.BYTES;
+    for (final Object row: rows) {
+      if (row instanceof double[] a)  bytes += OBJECT_HEADER_BYTES + a.length * valueBytes;
+      else if (row instanceof int[] a)  bytes += OBJECT_HEADER_BYTES + a.length * valueBytes;
+    }
+    return bytes;
+  }
+}
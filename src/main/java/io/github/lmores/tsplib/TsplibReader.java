@@ -0,0 +1,511 @@
+package io.github.lmores.tsplib;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+import io.github.lmores.tsplib.TsplibFileFormat.DisplayDataType;
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeDataFormat;
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightFormat;
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
+import io.github.lmores.tsplib.TsplibFileFormat.Keyword;
+import io.github.lmores.tsplib.TsplibFileFormat.NodeCoordType;
+import io.github.lmores.tsplib.TsplibFileFormat.ProblemType;
+import io.github.lmores.tsplib.TsplibFileFormat.TsplibFileFormatException;
+
+/**
+ * Push-style reader of files in TSPLIB format.
+ *
+ * Unlike {@link TsplibFileData#read}, this reader does not build any data
+ * structure: each entry of the specification part and each value of the data
+ * part is passed to a {@link Handler} as soon as it is parsed, hence the
+ * memory required to read a file does not depend on its size. This allows
+ * to stream large instances into custom storage or to aggregate values on
+ * the fly.
+ * <p>
+ * This reader is a separate parser from {@link TsplibFileData#read}, which
+ * needs the whole sections to parse them in parallel, but it rejects the
+ * same malformed content. Unknown keywords throw a
+ * {@link TsplibFileFormatException}, and so do node indexes outside
+ * {@code [1, DIMENSION]} in any section (tours without a declared dimension
+ * are checked against the length of the first one) and tours of the wrong
+ * length. Unknown values of enumerated entries of the specification part
+ * (e.g. 'TYPE') throw an {@link IllegalArgumentException}. Each value is
+ * validated before being passed to the handler, hence the callbacks invoked
+ * before an exception only receive valid values (e.g. the nodes of a tour
+ * that turns out to be too short).
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+public final class TsplibReader {
+
+  /**
+   * Callbacks invoked while reading a file in TSPLIB format.
+   *
+   * All methods have an empty default implementation, so that implementing
+   * classes only need to override the callbacks they are interested in.
+   * Node indexes are 0-based.
+   *
+   * @author   Lorenzo Moreschini
+   * @since    0.0.4
+   */
+  public interface Handler {
+
+    /**
+     * Called for each entry of the specification part.
+     *
+     * @param keyword  the keyword of the entry (e.g. {@link Keyword#DIMENSION})
+     * @param value    the value of the entry as found in the file (e.g. "280")
+     */
+    public default void specification(final Keyword keyword, final String value) { /* no-op */ }
+
+    /**
+     * Called when a section of the data part begins.
+     *
+     * @param section  the keyword of the section (e.g. {@link Keyword#NODE_COORD_SECTION})
+     */
+    public default void beginSection(final Keyword section) { /* no-op */ }
+
+    /**
+     * Called for each node of a 'NODE_COORD_SECTION' with 2D coordinates.
+     *
+     * @param node  the 0-based index of the node
+     * @param x     the x-coordinate of the node
+     * @param y     the y-coordinate of the node
+     */
+    public default void nodeCoord(final int node, final double x, final double y) { /* no-op */ }
+
+    /**
+     * Called for each node of a 'NODE_COORD_SECTION' with 3D coordinates.
+     *
+     * @param node  the 0-based index of the node
+     * @param x     the x-coordinate of the node
+     * @param y     the y-coordinate of the node
+     * @param z     the z-coordinate of the node
+     */
+    public default void nodeCoord(final int node, final double x, final double y, final double z) {
+      /* no-op */
+    }
+
+    /**
+     * Called for each depot in a 'DEPOT_SECTION'.
+     *
+     * @param node  the 0-based index of the depot
+     */
+    public default void depot(final int node) { /* no-op */ }
+
+    /**
+     * Called for each node in a 'DEMAND_SECTION'.
+     *
+     * @param node    the 0-based index of the node
+     * @param demand  the demand of the node
+     */
+    public default void demand(final int node, final int demand) { /* no-op */ }
+
+    /**
+     * Called for each edge in an 'EDGE_DATA_SECTION', regardless of its
+     * {@link EdgeDataFormat}.
+     *
+     * @param i  the 0-based index of one node of the edge
+     * @param j  the 0-based index of the other node of the edge
+     */
+    public default void edge(final int i, final int j) { /* no-op */ }
+
+    /**
+     * Called for each edge in a 'FIXED_EDGES_SECTION'.
+     *
+     * @param i  the 0-based index of one node of the edge
+     * @param j  the 0-based index of the other node of the edge
+     */
+    public default void fixedEdge(final int i, final int j) { /* no-op */ }
+
+    /**
+     * Called for each node in a 'DISPLAY_DATA_SECTION'.
+     *
+     * @param node  the 0-based index of the node
+     * @param x     the x-coordinate of the node
+     * @param y     the y-coordinate of the node
+     */
+    public default void displayCoord(final int node, final double x, final double y) { /* no-op */ }
+
+    /**
+     * Called for each value in an 'EDGE_WEIGHT_SECTION', in the order the
+     * values appear in the file.
+     *
+     * For all formats but {@link EdgeWeightFormat#FULL_MATRIX} the matrix is
+     * symmetric and each value is reported once: it is the weight of both
+     * edge {@code (i, j)} and edge {@code (j, i)}.
+     *
+     * @param i       the 0-based index of one node of the edge
+     * @param j       the 0-based index of the other node of the edge
+     * @param weight  the weight of the edge
+     */
+    public default void edgeWeight(final int i, final int j, final int weight) { /* no-op */ }
+
+    /**
+     * Called for each node of each tour in a 'TOUR_SECTION'.
+     *
+     * @param tour      the 0-based index of the tour
+     * @param position  the 0-based position of the node in the tour
+     * @param node      the 0-based index of the node
+     */
+    public default void tourNode(final int tour, final int position, final int node) { /* no-op */ }
+
+    /**
+     * Called when a section of the data part ends.
+     *
+     * @param section  the keyword of the section (e.g. {@link Keyword#NODE_COORD_SECTION})
+     */
+    public default void endSection(final Keyword section) { /* no-op */ }
+  }
+
+  /** This class contains only static methods and no instance is allowed. */
+  private TsplibReader() { /* no-op */ }
+
+  /**
+   * Reads a file in TSPLIB format passing its content to the provided handler.
+   *
+   * @param file     a file in TSPLIB format
+   * @param handler  the callbacks to invoke
+   * @throws IOException  if an I/O error occurs
+   */
+  public static void read(final Path file, final Handler handler) throws IOException {
+    read(new FileInputStream(file.toFile()), handler);
+  }
+
+  /**
+   * Reads an input stream emitting data in TSPLIB format passing its
+   * content to the provided handler.
+   *
+   * The caller passes the ownership of the provided input stream to this
+   * method which takes care of properly closing it before returning or
+   * throwing an exception. Gzip and zip compressed input is decompressed
+   * on the fly.
+   *
+   * @param is       the source in TSPLIB format
+   * @param handler  the callbacks to invoke
+   * @throws IOException  if an I/O error occurs
+   */
+  public static void read(final InputStream is, final Handler handler) throws IOException {
+    if (is == null) {
+      throw new IllegalArgumentException("Input stream is null");
+    }
+
+    try (is; final TsplibTokenizer tk = new TsplibTokenizer(CompressedInput.decompress(is))) {
+      read(tk, handler);
+    }
+  }
+
+  // ==============================================================================================
+  // Private helpers
+  // ==============================================================================================
+
+  private static void read(final TsplibTokenizer tk, final Handler handler) throws IOException {
+    String name = null;
+    int dimension = -1;
+    EdgeWeightFormat edgeWeightFormat = null;
+    EdgeDataFormat edgeDataFormat = null;
+    NodeCoordType nodeCoordType = null;
+    DisplayDataType displayDataType = DisplayDataType.NO_DISPLAY;
+
+    while (tk.hasNext()) {
+      final Keyword keyword = tk.nextKeyword();
+      switch (keyword) {
+        // Specification part
+        case NAME, COMMENT -> {
+          tk.skipDelimiters();
+          final String value = tk.nextLine();
+          if (keyword == Keyword.NAME)  name = value;
+          handler.specification(keyword, value);
+        }
+        case TYPE -> {
+          final ProblemType type = ProblemType.valueOf(tk.next());
+          tk.skipLine();  // some instances incorrectly report the author's name after the type
+          handler.specification(keyword, type.name());
+        }
+        case DIMENSION -> {
+          dimension = tk.nextInt();
+          handler.specification(keyword, Integer.toString(dimension));
+        }
+        case CAPACITY -> { handler.specification(keyword, Integer.toString(tk.nextInt())); }
+        case EDGE_WEIGHT_TYPE -> {
+          handler.specification(keyword, EdgeWeightType.valueOf(tk.next()).name());
+        }
+        case EDGE_WEIGHT_FORMAT -> {
+          edgeWeightFormat = EdgeWeightFormat.valueOf(tk.next());
+          handler.specification(keyword, edgeWeightFormat.name());
+        }
+        case EDGE_DATA_FORMAT -> {
+          edgeDataFormat = EdgeDataFormat.valueOf(tk.next());
+          handler.specification(keyword, edgeDataFormat.name());
+        }
+        case NODE_COORD_TYPE -> {
+          nodeCoordType = NodeCoordType.valueOf(tk.next());
+          handler.specification(keyword, nodeCoordType.name());
+        }
+        case DISPLAY_DATA_TYPE -> {
+          displayDataType = DisplayDataType.valueOf(tk.next());
+          handler.specification(keyword, displayDataType.name());
+        }
+
+        // Data part
+        case NODE_COORD_SECTION -> {
+          handler.beginSection(keyword);
+          nodeCoordType = readNodeCoords(tk, handler, name, dimension, nodeCoordType);
+          handler.endSection(keyword);
+        }
+
+        case DEPOT_SECTION -> {
+          handler.beginSection(keyword);
+          int nextDepot;
+          while ((nextDepot = tk.nextInt()) != -1) {
+            if (nextDepot < 1 || nextDepot > dimension) {
+              throw new TsplibFileFormatException(
+                  "Instance " + name + ": found depot " + nextDepot + " in 'DEPOT_SECTION'"
+              );
+            }
+            handler.depot(nextDepot - 1);
+          }
+          handler.endSection(keyword);
+        }
+
+        case DEMAND_SECTION -> {
+          handler.beginSection(keyword);
+          for (int i = 0; i < dimension; ++i) {
+            final int nodeIdx = tk.nextInt() - 1;
+            checkNode(name, keyword, nodeIdx, dimension);
+            handler.demand(nodeIdx, tk.nextInt());
+          }
+          handler.endSection(keyword);
+        }
+
+        case EDGE_DATA_SECTION -> {
+          handler.beginSection(keyword);
+          switch (edgeDataFormat) {
+            case ADJ_LIST -> {
+              int firstNode;
+              while ((firstNode = tk.nextInt()) != -1) {
+                checkNode(name, keyword, firstNode - 1, dimension);
+                int node;
+                while ((node = tk.nextInt()) != -1) {
+                  checkNode(name, keyword, node - 1, dimension);
+                  handler.edge(firstNode - 1, node - 1);
+                }
+              }
+            }
+
+            case EDGE_LIST -> {
+              int firstNode;
+              while ((firstNode = tk.nextInt()) != -1) {
+                final int otherNode = tk.nextInt();
+                checkNode(name, keyword, firstNode - 1, dimension);
+                checkNode(name, keyword, otherNode - 1, dimension);
+                handler.edge(firstNode - 1, otherNode - 1);
+              }
+            }
+
+            case null -> {
+              throw new TsplibFileFormatException(
+                  "Instance " + name + ": found 'EDGE_DATA' section but 'EDGE_DATA_FORMAT' is null"
+              );
+            }
+          }
+          handler.endSection(keyword);
+        }
+
+        case FIXED_EDGES_SECTION -> {
+          handler.beginSection(keyword);
+          int firstNode;
+          while ((firstNode = tk.nextInt()) != -1) {
+            if (firstNode < 1 || firstNode > dimension) {
+              throw new TsplibFileFormatException(
+                "Instance " + name + ": node with index " + firstNode + " in 'FIXED_EDGES_SECTION'"
+              );
+            }
+
+            final int otherNode = tk.nextInt();
+            if (otherNode < 1 || otherNode > dimension) {
+              throw new TsplibFileFormatException(
+                "Instance " + name + ": node with index " + otherNode + " in 'FIXED_EDGES_SECTION'"
+              );
+            }
+
+            handler.fixedEdge(firstNode - 1, otherNode - 1);
+          }
+          handler.endSection(keyword);
+        }
+
+        case DISPLAY_DATA_SECTION -> {
+          if (displayDataType != DisplayDataType.TWOD_DISPLAY) {
+            throw new TsplibFileFormatException(
+                "Found 'DISPLAY_DATA_SECTION' but DATA_DISPLAY_TYPE == " + displayDataType
+            );
+          }
+
+          handler.beginSection(keyword);
+          for (int i = 0; i < dimension; ++i) {
+            final int nodeIdx = tk.nextInt() - 1;
+            if (nodeIdx != i) {
+              throw new TsplibFileFormatException(
+                "Instance " + name + ": found node " + (nodeIdx + 1) +
+                " in 'NODE_COORD_SECTION', expected: " + (i + 1)
+              );
+            }
+            handler.displayCoord(i, tk.nextDouble(), tk.nextDouble());
+          }
+          handler.endSection(keyword);
+        }
+
+        case EDGE_WEIGHT_SECTION -> {
+          switch (edgeWeightFormat) {
+            case FUNCTION -> {
+              throw new TsplibFileFormatException(
+                  "Found 'EDGE_WEIGHT_SECTION' but EDGE_WEIGHT_FORMAT == FUNCTION"
+              );
+            }
+
+            default -> {
+              handler.beginSection(keyword);
+              for (int a = 0; a < dimension; ++a) {
+                final int end = ParallelSectionParser.endOfRow(edgeWeightFormat, a, dimension);
+                for (int b = ParallelSectionParser.firstInRow(edgeWeightFormat, a, dimension); b < end; ++b) {
+                  handler.edgeWeight(a, b, tk.nextInt());
+                }
+              }
+              handler.endSection(keyword);
+            }
+          }
+        }
+
+        case TOUR_SECTION -> {
+          handler.beginSection(keyword);
+          readTours(tk, handler, name, dimension);
+          handler.endSection(keyword);
+        }
+
+        case EOF -> { /* no-op */ }
+      }
+    }
+  }
+
+  /**
+   * Checks the 0-based index of a node found in the provided section
+   * (only the lower bound is checked when the dimension is unknown, i.e. negative).
+   */
+  static void checkNode(
+      final String name, final Keyword section, final int nodeIdx, final int dimension
+  ) {
+    if (nodeIdx < 0 || (dimension >= 0 && nodeIdx >= dimension)) {
+      throw new TsplibFileFormatException(
+          "Instance " + name + ": found node " + (nodeIdx + 1) + " in '" + section + "'"
+      );
+    }
+  }
+
+  /** Checks the position of a node in a tour whose expected length is known (non-negative). */
+  static void checkTourPosition(
+      final String name, final int tour, final int position, final int expectedLength
+  ) {
+    if (expectedLength >= 0 && position >= expectedLength) {
+      throw new TsplibFileFormatException(
+          "Instance " + name + ": tour " + (tour + 1) +
+          " has more than " + expectedLength + " nodes"
+      );
+    }
+  }
+
+  private static NodeCoordType readNodeCoords(
+      final TsplibTokenizer tk, final Handler handler, final String name,
+      final int dimension, NodeCoordType nodeCoordType
+  ) throws IOException {
+    int i = 0;
+    if (nodeCoordType == null) {
+      // Sniff coordinate type
+      tk.skipDelimiters();
+      final String line = tk.nextLine();
+      final String[] parts = TsplibFileFormat.DELIMITER.split(line);
+      final int nParts = parts.length;
+      if (nParts != 3 && nParts != 4) {
+        throw new TsplibFileFormatException(
+            "Instance " + name + ": found 'NODE_COORD_SECTION' with no prior " +
+            "'NODE_COORD_TYPE' section and failed to autodetect 'NODE_COORD_TYPE'"
+        );
+      }
+
+      final int nodeIdx = Integer.parseInt(parts[0]) - 1;
+      if (nodeIdx != 0) {
+        throw new TsplibFileFormatException(
+          "Instance " + name + ": first edge in 'NODE_COORD_SECTION' " +
+          "has index " + (nodeIdx + 1) + " (expected: 1)"
+        );
+      }
+
+      if (nParts == 3) {
+        nodeCoordType = NodeCoordType.TWOD_COORDS;
+        handler.nodeCoord(0, Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+      } else {
+        nodeCoordType = NodeCoordType.THREED_COORDS;
+        handler.nodeCoord(
+            0, Double.parseDouble(parts[1]), Double.parseDouble(parts[2]), Double.parseDouble(parts[3])
+        );
+      }
+      i = 1;
+    }
+
+    if (nodeCoordType == NodeCoordType.NO_COORDS) {
+      throw new TsplibFileFormatException(
+          "Instance " + name + ": found 'NODE_COORD_SECTION' but NODE_COORD_TYPE == NO_COORD"
+      );
+    }
+
+    for (; i < dimension; ++i) {
+      final int nodeIdx = tk.nextInt() - 1;
+      if (nodeIdx != i) {
+        throw new TsplibFileFormatException(
+            "Instance " + name + ": found node " + (nodeIdx + 1) +
+            " in 'NODE_COORD_SECTION', expected: " + (i + 1)
+        );
+      }
+
+      if (nodeCoordType == NodeCoordType.TWOD_COORDS) {
+        handler.nodeCoord(i, tk.nextDouble(), tk.nextDouble());
+      } else {
+        handler.nodeCoord(i, tk.nextDouble(), tk.nextDouble(), tk.nextDouble());
+      }
+    }
+
+    return nodeCoordType;
+  }
+
+  private static void readTours(
+      final TsplibTokenizer tk, final Handler handler, final String name, final int dimension
+  ) throws IOException {
+    // The data file may not declare the dimension of the tour (e.g. rd100.opt.tour),
+    // in such case the length of the first tour is used to validate the others
+    int expectedLength = dimension;
+
+    // As this section often ends with 'EOF', tk.hasNextInt() is needed
+    int node;
+    int tour = 0;
+    while (tk.hasNextInt() && (node = tk.nextInt()) != -1) {
+      int i = 0;
+      do {
+        checkTourPosition(name, tour, i, expectedLength);
+        checkNode(name, Keyword.TOUR_SECTION, node - 1, expectedLength);
+        handler.tourNode(tour, i++, node - 1);
+      } while (tk.hasNext() && (node = tk.nextInt()) != -1);
+
+      if (expectedLength < 0) {
+        expectedLength = i;
+      } else if (i != expectedLength) {
+        throw new TsplibFileFormatException(
+            "Tour " + (tour + 1) + " has " + i + " nodes, expected " + expectedLength
+        );
+      }
+
+      ++tour;
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package io.github.lmores.tsplib;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.List;
+
+import io.github.lmores.tsplib.TsplibFileData.ReadOption;
+
+/**
+ * Parser of TSPLIB content that is received in chunks, e.g. from a
+ * non-blocking socket channel or a reactive stream.
+ *
+ * Chunks are passed to {@link #feed(ByteBuffer)} or read from a channel by
+ * {@link #readFrom(ReadableByteChannel)} as they arrive, without ever
+ * blocking the calling thread: a chunk may end anywhere, even in the middle
+ * of a token. Once the end of the content is reached, {@link #finish()}
+ * parses it and returns the same data as {@link TsplibFileData#read}.
+ * <pre>
+ *   final TsplibStreamParser parser = new TsplibStreamParser();
+ *   // whenever the channel is readable
+ *   if (!parser.readFrom(channel)) {
+ *     final TsplibFileData data = parser.finish();
+ *     ...
+ *   }
+ * </pre>
+ * The received bytes are accumulated in a single growing buffer, which is
+ * then parsed in place by the same tokenizer used for memory mapped files.
+ * Gzip and zip compressed content is decompressed by {@link #finish()}.
+ * Instances of this class are not thread-safe.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+public final class TsplibStreamParser {
+  private static final int INITIAL_BUFFER_SIZE = 1 << 16;
+
+  private final boolean parallel;
+  private final boolean singlePrecision;
+  private byte[] buf = new byte[INITIAL_BUFFER_SIZE];
+  private int size = 0;
+  private boolean finished = false;
+
+  /**
+   * Creates a parser that uses the provided options.
+   *
+   * The {@link ReadOption#MEMORY_MAPPED} option does not apply to content
+   * received in chunks and it is ignored.
+   *
+   * @param options  options specifying how the content is parsed
+   */
+  public TsplibStreamParser(final ReadOption... options) {
+    final List<ReadOption> opts = Arrays.asList(options);
+    this.parallel = opts.contains(ReadOption.PARALLEL);
+    this.singlePrecision = opts.contains(ReadOption.SINGLE_PRECISION);
+  }
+
+  /**
+   * Appends the remaining bytes of the provided chunk to the content
+   * received so far (the position of the chunk is moved to its limit).
+   *
+   * @param chunk  the next bytes of the content
+   * @throws IllegalStateException  if {@link #finish()} has already been called
+   */
+  public void feed(final ByteBuffer chunk) {
+    ensureNotFinished();
+
+    final int n = chunk.remaining();
+    ensureCapacity(n);
+    chunk.get(buf, size, n);
+    size += n;
+  }
+
+  /**
+   * Reads all the bytes currently available from the provided channel.
+   *
+   * When the channel is in non-blocking mode, this method returns as soon as
+   * no more bytes are available: it should be called again when the channel
+   * becomes readable (e.g. when selected by a {@link java.nio.channels.Selector}).
+   *
+   * @param ch  the channel emitting the content
+   * @return    true if more bytes may follow, false if the end of stream was reached
+   * @throws IOException  if an I/O error occurs
+   * @throws IllegalStateException  if {@link #finish()} has already been called
+   */
+  public boolean readFrom(final ReadableByteChannel ch) throws IOException {
+    ensureNotFinished();
+
+    while (true) {
+      ensureCapacity(1);
+      final int n = ch.read(ByteBuffer.wrap(buf, size, buf.length - size));
+      if (n < 0)  return false;
+      if (n == 0)  return true;
+      size += n;
+    }
+  }
+
+  /**
+   * Returns the number of bytes received so far.
+   *
+   * @return  the number of bytes received
+   */
+  public long bytesReceived() {
+    return size;
+  }
+
+  /**
+   * Parses the content received so far, which must be complete, and returns
+   * its data. The buffer holding the content is released.
+   *
+   * @return  the instance data
+   * @throws IOException  if the content cannot be decompressed
+   * @throws IllegalStateException  if this method has already been called
+   */
+  public TsplibFileData finish() throws IOException {
+    ensureNotFinished();
+    finished = true;
+
+    ByteBuffer content = ByteBuffer.wrap(buf, 0, size);
+    buf = null;
+    if (CompressedInput.isCompressed(content)) {
+      try (final InputStream is = CompressedInput.decompress(
+          new ByteArrayInputStream(content.array(), 0, content.limit())
+      )) {
+        content = ByteBuffer.wrap(is.readAllBytes());
+      }
+    }
+
+    try (final TsplibTokenizer tk = new TsplibTokenizer(content)) {
+      return TsplibFileData.read(tk, parallel, singlePrecision);
+    }
+  }
+
+  // ==============================================================================================
+  // Private helpers
+  // ==============================================================================================
+
+  private void ensureNotFinished() {
+    if (finished)  throw new IllegalStateException("Parser already finished");
+  }
+
+  /** Grows the buffer, if needed, so that it can hold {@code n} more bytes. */
+  private void ensureCapacity(final int n) {
+    final long required = (long) size + n;
+    if (required <= buf.length)  return;
+    if (required > Integer.MAX_VALUE - 8) {
+      throw new IllegalStateException("Content larger than 2 GB");
+    }
+
+    final long capacity = Math.min(Math.max(required, 2L * buf.length), Integer.MAX_VALUE - 8);
+    buf = Arrays.copyOf(buf, (int) capacity);
+  }
+}
@@ -0,0 +1,569 @@
+package io.github.lmores.tsplib;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+import io.github.lmores.tsplib.TsplibFileFormat.Keyword;
+import io.github.lmores.tsplib.TsplibFileFormat.TsplibFileFormatException;
+
+/**
+ * Splits the content of a file in TSPLIB format into tokens.
+ *
+ * Tokens are separated by the same symbols matched by
+ * {@link TsplibFileFormat#DELIMITER} (ASCII whitespaces and colons) and are
+ * parsed straight from a byte buffer: integers, doubles and keywords are
+ * decoded without creating an intermediate {@link String}.
+ * The buffer is either an internal one, refilled from an input stream, or a
+ * buffer provided by the caller that holds the whole content (e.g. a
+ * {@link java.nio.MappedByteBuffer}).
+ * The methods of this class mimic those of {@link java.util.Scanner} and
+ * throw the same exceptions ({@link NoSuchElementException} when the input
+ * is exhausted and {@link InputMismatchException} when a token cannot be
+ * parsed as a number).
+ * <p>
+ * Every {@value #INTERRUPT_CHECK_INTERVAL} tokens, the tokenizer checks
+ * whether the current thread has been interrupted and, if so, throws an
+ * {@link InterruptedIOException}: this lets a long parse be cancelled (see
+ * {@link TsplibFileData#readAsync}) without checking the interrupt status
+ * for each token. Tokenizers parsing a range of the content on behalf of
+ * another thread (see {@link ParallelSectionParser}) check the interrupt
+ * status of that thread instead.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+final class TsplibTokenizer implements Closeable {
+  private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+  /** Number of tokens located between two checks of the interrupt status. */
+  static final int INTERRUPT_CHECK_INTERVAL = 1 << 12;
+
+  private static final Keyword[] KEYWORDS = Keyword.values();
+  private static final byte[][] KEYWORD_BYTES = new byte[KEYWORDS.length][];
+  static {
+    for (int k = 0; k < KEYWORDS.length; ++k) {
+      KEYWORD_BYTES[k] = KEYWORDS[k].name().getBytes(StandardCharsets.US_ASCII);
+    }
+  }
+
+  // alb4000.hcp contains "FIXED_EDGES" rather than "FIXED_EDGES_SECTION"
+  private static final byte[] FIXED_EDGES_BYTES = "FIXED_EDGES".getBytes(StandardCharsets.US_ASCII);
+
+  /** Powers of ten that are exactly representable as a double. */
+  private static final double[] POWERS_OF_TEN = {
+    1e0,  1e1,  1e2,  1e3,  1e4,  1e5,  1e6,  1e7,  1e8,  1e9,  1e10, 1e11,
+    1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  private final InputStream is;
+  private ByteBuffer buf;
+  private int pos;
+  private int limit;
+  private boolean eof;
+
+  /** End (exclusive) of the token starting at {@code pos}, or -1 if not located yet. */
+  private int tokenEnd = -1;
+
+  /** Number of tokens to locate before the next check of the interrupt status. */
+  private int untilInterruptCheck = INTERRUPT_CHECK_INTERVAL;
+
+  /** The thread whose interrupt status is checked, or null for the current thread. */
+  private final Thread interruptSource;
+
+  /**
+   * Creates a tokenizer reading from the provided input stream.
+   *
+   * @param is  the source in TSPLIB format
+   */
+  TsplibTokenizer(final InputStream is) {
+    this(is, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Creates a tokenizer reading from the provided input stream using a
+   * buffer of the given initial size.
+   *
+   * @param is          the source in TSPLIB format
+   * @param bufferSize  the initial size of the buffer (it grows to fit long tokens or lines)
+   */
+  TsplibTokenizer(final InputStream is, final int bufferSize) {
+    this.is = is;
+    this.buf = ByteBuffer.allocate(bufferSize);
+    this.pos = 0;
+    this.limit = 0;
+    this.eof = false;
+    this.interruptSource = null;
+  }
+
+  /**
+   * Creates a tokenizer reading the bytes between the position and the limit
+   * of the provided buffer, which must hold the whole content to parse.
+   *
+   * Bytes are read using absolute indexes, hence the position of the buffer
+   * is never modified.
+   *
+   * @param content  the source in TSPLIB format
+   */
+  TsplibTokenizer(final ByteBuffer content) {
+    this(content, null);
+  }
+
+  /**
+   * Creates a tokenizer reading the bytes between the position and the limit
+   * of the provided buffer, which stops when the provided thread (rather
+   * than the current one) is interrupted.
+   *
+   * @param content          the source in TSPLIB format
+   * @param interruptSource  the thread whose interrupt status is checked (null for the current one)
+   */
+  TsplibTokenizer(final ByteBuffer content, final Thread interruptSource) {
+    this.is = null;
+    this.buf = content;
+    this.pos = content.position();
+    this.limit = content.limit();
+    this.eof = true;
+    this.interruptSource = interruptSource;
+  }
+
+  /**
+   * Returns whether another token is available.
+   *
+   * @return              true if there is another token, false otherwise
+   * @throws IOException  if an I/O error occurs
+   */
+  boolean hasNext() throws IOException {
+    return locateToken();
+  }
+
+  /**
+   * Returns whether the next token can be parsed as an {@code int}.
+   *
+   * @return              true if the next token is an integer, false otherwise
+   * @throws IOException  if an I/O error occurs
+   */
+  boolean hasNextInt() throws IOException {
+    if (!locateToken())  return false;
+
+    int i = pos;
+    final int end = tokenEnd;
+    if (buf.get(i) == '-' || buf.get(i) == '+')  ++i;
+    if (i == end)  return false;
+
+    long value = 0;
+    for (; i < end; ++i) {
+      final int d = buf.get(i) - '0';
+      if (d < 0 || d > 9)  return false;
+      value = value * 10 + d;
+      if (value > 1L + Integer.MAX_VALUE)  return false;
+    }
+
+    return buf.get(pos) == '-' || value <= Integer.MAX_VALUE;
+  }
+
+  /**
+   * Returns the next token as a string.
+   *
+   * @return              the next token
+   * @throws IOException  if an I/O error occurs
+   */
+  String next() throws IOException {
+    requireToken();
+    final String token = tokenToString();
+    consumeToken();
+    return token;
+  }
+
+  /**
+   * Returns the keyword matching the next token.
+   *
+   * @return              the keyword matching the next token
+   * @throws IOException  if an I/O error occurs
+   * @throws TsplibFileFormatException  if the next token is not a keyword
+   */
+  Keyword nextKeyword() throws IOException {
+    requireToken();
+
+    Keyword keyword = null;
+    for (int k = 0; k < KEYWORD_BYTES.length; ++k) {
+      if (tokenEquals(KEYWORD_BYTES[k])) {
+        keyword = KEYWORDS[k];
+        break;
+      }
+    }
+
+    if (keyword == null) {
+      if (tokenEquals(FIXED_EDGES_BYTES)) {
+        keyword = Keyword.FIXED_EDGES_SECTION;
+      } else {
+        throw new TsplibFileFormatException("Unexpected section: " + tokenToString());
+      }
+    }
+
+    consumeToken();
+    return keyword;
+  }
+
+  /**
+   * Parses the next token as an {@code int}.
+   *
+   * @return              the parsed value
+   * @throws IOException  if an I/O error occurs
+   * @throws InputMismatchException  if the next token is not an integer
+   */
+  int nextInt() throws IOException {
+    requireToken();
+
+    int i = pos;
+    final int end = tokenEnd;
+    final boolean negative = buf.get(i) == '-';
+    if (negative || buf.get(i) == '+')  ++i;
+    if (i == end)  throw new InputMismatchException(tokenToString());
+
+    // Accumulate as a negative number to cover Integer.MIN_VALUE
+    int value = 0;
+    for (; i < end; ++i) {
+      final int d = buf.get(i) - '0';
+      if (d < 0 || d > 9 || value < (Integer.MIN_VALUE + d) / 10) {
+        throw new InputMismatchException(tokenToString());
+      }
+      value = value * 10 - d;
+    }
+
+    if (!negative) {
+      if (value == Integer.MIN_VALUE)  throw new InputMismatchException(tokenToString());
+      value = -value;
+    }
+
+    consumeToken();
+    return value;
+  }
+
+  /**
+   * Parses the next token as a {@code double}.
+   *
+   * Values with at most 15 significant digits and a decimal exponent within
+   * +/-22 are computed with a single (correctly rounded) floating point
+   * operation; all other values are delegated to {@link Double#parseDouble}.
+   * In both cases the result is identical to the one of
+   * {@link Double#parseDouble}.
+   *
+   * @return              the parsed value
+   * @throws IOException  if an I/O error occurs
+   * @throws InputMismatchException  if the next token is not a decimal number
+   */
+  double nextDouble() throws IOException {
+    requireToken();
+
+    int i = pos;
+    final int end = tokenEnd;
+    final boolean negative = buf.get(i) == '-';
+    if (negative || buf.get(i) == '+')  ++i;
+
+    long mantissa = 0;
+    int nDigits = 0;
+    int nSignificantDigits = 0;
+    int exponent = 0;
+
+    for (; i < end && buf.get(i) >= '0' && buf.get(i) <= '9'; ++i, ++nDigits) {
+      if (mantissa != 0 || buf.get(i) != '0') {
+        if (++nSignificantDigits <= 18)  mantissa = mantissa * 10 + (buf.get(i) - '0');
+        else  ++exponent;
+      }
+    }
+
+    if (i < end && buf.get(i) == '.') {
+      for (++i; i < end && buf.get(i) >= '0' && buf.get(i) <= '9'; ++i, ++nDigits) {
+        if (mantissa != 0 || buf.get(i) != '0') {
+          if (++nSignificantDigits <= 18) {
+            mantissa = mantissa * 10 + (buf.get(i) - '0');
+            --exponent;
+          }
+        } else {
+          --exponent;
+        }
+      }
+    }
+
+    if (nDigits > 0 && i < end && (buf.get(i) == 'e' || buf.get(i) == 'E')) {
+      ++i;
+      final boolean negativeExp = i < end && buf.get(i) == '-';
+      if (i < end && (buf.get(i) == '-' || buf.get(i) == '+'))  ++i;
+      if (i == end)  nDigits = 0;
+
+      int exp = 0;
+      for (; i < end && buf.get(i) >= '0' && buf.get(i) <= '9'; ++i) {
+        if (exp < 100_000)  exp = exp * 10 + (buf.get(i) - '0');
+      }
+      exponent += negativeExp ? -exp : exp;
+    }
+
+    if (nDigits == 0 || i != end) {
+      // Not a plain decimal number, it may still be "NaN" or "[+-]Infinity"
+      final String token = tokenToString();
+      final String unsigned = token.startsWith("-") || token.startsWith("+") ? token.substring(1) : token;
+      if (!unsigned.equals("NaN") && !unsigned.equals("Infinity")) {
+        throw new InputMismatchException(token);
+      }
+
+      consumeToken();
+      return Double.parseDouble(token);
+    }
+
+    final double value;
+    if (mantissa == 0) {
+      value = negative ? -0.0 : 0.0;
+    } else if (nSignificantDigits <= 15 && exponent >= 0 && exponent <= 22) {
+      value = negative ? -mantissa * POWERS_OF_TEN[exponent] : mantissa * POWERS_OF_TEN[exponent];
+    } else if (nSignificantDigits <= 15 && exponent < 0 && exponent >= -22) {
+      value = negative ? -mantissa / POWERS_OF_TEN[-exponent] : mantissa / POWERS_OF_TEN[-exponent];
+    } else {
+      value = Double.parseDouble(tokenToString());
+    }
+
+    consumeToken();
+    return value;
+  }
+
+  /**
+   * Returns the rest of the current line, excluding the line separator, and
+   * advances past the line separator.
+   *
+   * @return              the rest of the current line
+   * @throws IOException  if an I/O error occurs
+   * @throws NoSuchElementException  if the input is exhausted
+   */
+  String nextLine() throws IOException {
+    final int end = locateLineEnd();
+    final String line = decode(pos, end);
+    consumeLine(end);
+    return line;
+  }
+
+  /**
+   * Advances past the next line separator, discarding the rest of the current line.
+   *
+   * @throws IOException  if an I/O error occurs
+   * @throws NoSuchElementException  if the input is exhausted
+   */
+  void skipLine() throws IOException {
+    consumeLine(locateLineEnd());
+  }
+
+  /**
+   * Advances past any delimiter.
+   *
+   * @throws IOException  if an I/O error occurs
+   */
+  void skipDelimiters() throws IOException {
+    tokenEnd = -1;
+    while (true) {
+      while (pos < limit && isDelimiter(buf.get(pos)))  ++pos;
+      if (pos < limit || !fill())  return;
+    }
+  }
+
+  /**
+   * Returns whether the provided byte is matched by {@link TsplibFileFormat#DELIMITER}.
+   *
+   * @param b  the byte to test
+   * @return   true if {@code b} is a delimiter
+   */
+  static boolean isDelimiter(final byte b) {
+    return b == ' ' || b == ':' || (b >= '\t' && b <= '\r') || (b >= 0x1C && b <= 0x1F);
+  }
+
+  /**
+   * Returns whether this tokenizer reads from a buffer holding the whole
+   * content to parse (i.e. {@link #content()} can be accessed directly).
+   *
+   * @return  true if the whole content is available in memory
+   */
+  boolean holdsWholeContent() {
+    return is == null;
+  }
+
+  /**
+   * Returns the buffer this tokenizer reads from.
+   *
+   * @return  the buffer this tokenizer reads from
+   */
+  ByteBuffer content() {
+    return buf;
+  }
+
+  /**
+   * Returns the index in {@link #content()} of the next byte to read.
+   *
+   * @return  the index of the next byte to read
+   */
+  int position() {
+    return pos;
+  }
+
+  /**
+   * Moves this tokenizer to the provided index of a buffer holding the whole content.
+   *
+   * @param position  the index of the next byte to read
+   */
+  void position(final int position) {
+    pos = position;
+    tokenEnd = -1;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (is != null)  is.close();
+  }
+
+  // ==============================================================================================
+  // Private helpers
+  // ==============================================================================================
+
+  /**
+   * Skips delimiters and locates the end of the next token.
+   *
+   * @return  true if a token is available, false if the input is exhausted
+   * @throws IOException  if an I/O error occurs
+   */
+  private boolean locateToken() throws IOException {
+    if (tokenEnd >= 0)  return true;
+    if (--untilInterruptCheck == 0)  checkInterrupted();
+
+    skipDelimiters();
+    if (pos == limit)  return false;
+
+    int i = pos + 1;
+    while (true) {
+      while (i < limit && !isDelimiter(buf.get(i)))  ++i;
+      if (i < limit)  break;
+
+      final int offset = pos;
+      final boolean filled = fill();
+      i -= offset - pos;
+      if (!filled)  break;
+    }
+
+    tokenEnd = i;
+    return true;
+  }
+
+  /**
+   * Throws an exception if the current thread (or the interrupt source, if
+   * any) has been interrupted (the interrupt status is left unchanged).
+   *
+   * @throws InterruptedIOException  if the thread has been interrupted
+   */
+  private void checkInterrupted() throws InterruptedIOException {
+    untilInterruptCheck = INTERRUPT_CHECK_INTERVAL;
+    final Thread thread = interruptSource == null ? Thread.currentThread() : interruptSource;
+    if (thread.isInterrupted()) {
+      throw new InterruptedIOException("Parsing interrupted");
+    }
+  }
+
+  private void requireToken() throws IOException {
+    if (!locateToken())  throw new NoSuchElementException();
+  }
+
+  private void consumeToken() {
+    pos = tokenEnd;
+    tokenEnd = -1;
+  }
+
+  private boolean tokenEquals(final byte[] bytes) {
+    final int len = tokenEnd - pos;
+    if (len != bytes.length)  return false;
+    for (int k = 0; k < len; ++k) {
+      if (buf.get(pos + k) != bytes[k])  return false;
+    }
+    return true;
+  }
+
+  private String tokenToString() {
+    return decode(pos, tokenEnd);
+  }
+
+  private String decode(final int from, final int to) {
+    if (buf.hasArray()) {
+      return new String(buf.array(), buf.arrayOffset() + from, to - from, StandardCharsets.UTF_8);
+    }
+
+    final byte[] bytes = new byte[to - from];
+    buf.get(from, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Locates the end of the current line (i.e. the position of the next line separator).
+   *
+   * @return  the position of the next line separator or {@code limit} if the input ends first
+   * @throws IOException  if an I/O error occurs
+   * @throws NoSuchElementException  if the input is exhausted
+   */
+  private int locateLineEnd() throws IOException {
+    tokenEnd = -1;
+    if (pos == limit && !fill())  throw new NoSuchElementException("No line found");
+
+    int i = pos;
+    while (true) {
+      while (i < limit && buf.get(i) != '\n' && buf.get(i) != '\r')  ++i;
+      if (i < limit)  break;
+
+      final int offset = pos;
+      final boolean filled = fill();
+      i -= offset - pos;
+      if (!filled)  break;
+    }
+
+    return i;
+  }
+
+  private void consumeLine(final int end) throws IOException {
+    pos = end;
+    if (pos < limit && buf.get(pos) == '\r') {
+      ++pos;
+      if (pos == limit)  fill();
+    }
+    if (pos < limit && buf.get(pos) == '\n')  ++pos;
+  }
+
+  /**
+   * Reads more bytes into the buffer, moving unconsumed bytes (from {@code pos}
+   * onwards) at the beginning of the buffer and growing it if it is full.
+   *
+   * @return  true if at least one byte was read, false if the input is exhausted
+   * @throws IOException  if an I/O error occurs
+   */
+  private boolean fill() throws IOException {
+    if (eof)  return false;
+
+    byte[] bytes = buf.array();
+    if (pos > 0) {
+      System.arraycopy(bytes, pos, bytes, 0, limit - pos);
+      if (tokenEnd >= 0)  tokenEnd -= pos;
+      limit -= pos;
+      pos = 0;
+    }
+
+    if (limit == bytes.length) {
+      bytes = new byte[bytes.length * 2];
+      System.arraycopy(buf.array(), 0, bytes, 0, limit);
+      buf = ByteBuffer.wrap(bytes);
+    }
+
+    final int n = is.read(bytes, limit, bytes.length - limit);
+    if (n < 0) {
+      eof = true;
+      return false;
+    }
+
+    limit += n;
+    return true;
+  }
+}
@@ -0,0 +1,252 @@
+package io.github.lmores.tsplib;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import io.github.lmores.tsplib.TsplibFileFormat.Keyword;
+import io.github.lmores.tsplib.TsplibFileFormat.ProblemType;
+import io.github.lmores.tsplib.TsplibFileFormat.TsplibFileFormatException;
+
+/**
+ * Pull-style reader of the tours stored in a file in TSPLIB format.
+ *
+ * Unlike {@link TsplibFileData#read}, which keeps every tour of the
+ * 'TOUR_SECTION' in memory, this reader parses one tour at a time into a
+ * buffer that is reused for all the tours of the file, so that files with
+ * many tours can be evaluated while they are read:
+ * <pre>
+ *   try (final TsplibTourReader reader = TsplibTourReader.open(file)) {
+ *     while (reader.next()) {
+ *       final int[] tour = reader.tour();
+ *       ...
+ *     }
+ *   }
+ * </pre>
+ * Tours are validated as done by {@link TsplibFileData#read}: all of them
+ * must have {@code dimension()} nodes or, when the file does not declare its
+ * dimension, as many nodes as the first tour.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+public final class TsplibTourReader implements Closeable {
+  private static final int INITIAL_BUFFER_SIZE = 1 << 10;
+
+  private final TsplibTokenizer tk;
+  private final String name;
+  private final ProblemType type;
+  private final String comment;
+  private int dimension;
+  private int[] tour;
+  private int tourCount = 0;
+  private boolean inTourSection;
+
+  private TsplibTourReader(final TsplibTokenizer tk) throws IOException {
+    this.tk = tk;
+
+    String name = null;
+    ProblemType type = null;
+    String comment = "";
+    int dimension = -1;
+
+    boolean tourSection = false;
+    boolean dataPart = false;
+    while (!dataPart && tk.hasNext()) {
+      final Keyword keyword = tk.nextKeyword();
+      switch (keyword) {
+        case NAME -> {
+          tk.skipDelimiters();
+          name = tk.nextLine();
+        }
+        case TYPE -> {
+          type = ProblemType.valueOf(tk.next());
+          tk.skipLine();  // some instances incorrectly report the author's name after the type
+        }
+        case COMMENT -> {
+          tk.skipDelimiters();
+          comment = tk.nextLine();
+        }
+        case DIMENSION -> { dimension = tk.nextInt(); }
+        case CAPACITY, EDGE_WEIGHT_TYPE, EDGE_WEIGHT_FORMAT, EDGE_DATA_FORMAT, NODE_COORD_TYPE,
+            DISPLAY_DATA_TYPE -> { tk.next(); }
+        case TOUR_SECTION -> { tourSection = dataPart = true; }
+        case EOF -> { dataPart = true; }
+        default -> throw new TsplibFileFormatException(
+            "Instance " + name + ": found '" + keyword + "' before 'TOUR_SECTION'"
+        );
+      }
+    }
+
+    this.name = name;
+    this.type = type;
+    this.comment = comment;
+    this.dimension = dimension;
+    this.inTourSection = tourSection;
+    this.tour = dimension >= 0 ? new int[dimension] : null;
+  }
+
+  /**
+   * Opens a file in TSPLIB format and reads its specification part.
+   *
+   * @param file  a file in TSPLIB format
+   * @return      a reader positioned before the first tour
+   * @throws IOException  if a I/O error occurs
+   */
+  public static TsplibTourReader open(final Path file) throws IOException {
+    return open(new FileInputStream(file.toFile()));
+  }
+
+  /**
+   * Reads the specification part from an input stream emitting data in
+   * TSPLIB format.
+   *
+   * The caller passes the ownership of the provided input stream to the
+   * returned reader, which closes it when it is closed (or immediately, if
+   * an exception is thrown). Gzip and zip compressed input is decompressed
+   * on the fly.
+   *
+   * @param is  the source in TSPLIB format
+   * @return    a reader positioned before the first tour
+   * @throws IOException  if an I/O error occurs
+   */
+  public static TsplibTourReader open(final InputStream is) throws IOException {
+    if (is == null) {
+      throw new IllegalArgumentException("Input stream is null");
+    }
+
+    try {
+      final TsplibTokenizer tk = new TsplibTokenizer(CompressedInput.decompress(is));
+      try {
+        return new TsplibTourReader(tk);
+      } catch (final IOException | RuntimeException e) {
+        tk.close();
+        throw e;
+      }
+    } catch (final IOException | RuntimeException e) {
+      is.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the name of the file content.
+   *
+   * @return  the name in the specification part, or null if not provided
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * Returns the type of the file content.
+   *
+   * @return  the type in the specification part, or null if not provided
+   */
+  public ProblemType type() {
+    return type;
+  }
+
+  /**
+   * Returns the comment of the file content.
+   *
+   * @return  the comment in the specification part, or an empty string if not provided
+   */
+  public String comment() {
+    return comment;
+  }
+
+  /**
+   * Returns the number of nodes of each tour.
+   *
+   * @return  the dimension in the specification part or, if not provided, the
+   *          number of nodes of the first tour (-1 until the first tour is read)
+   */
+  public int dimension() {
+    return dimension;
+  }
+
+  /**
+   * Returns the number of tours read so far.
+   *
+   * @return  the number of successful calls to {@link #next()}
+   */
+  public int tourCount() {
+    return tourCount;
+  }
+
+  /**
+   * Reads the next tour into the buffer returned by {@link #tour()}.
+   *
+   * @return  true if a tour was read, false if the 'TOUR_SECTION' is over
+   * @throws IOException  if an I/O error occurs
+   * @throws TsplibFileFormatException  if the tour does not have the expected number of nodes
+   */
+  public boolean next() throws IOException {
+    int node;
+    if (!inTourSection || !tk.hasNextInt() || (node = tk.nextInt()) == -1) {
+      inTourSection = false;
+      return false;
+    }
+
+    if (tour == null)  return readFirstTour(node);
+
+    final int[] t = tour;
+    final int n = t.length;
+    t[0] = node - 1;
+
+    int i = 0;
+    while (tk.hasNext() && (node = tk.nextInt()) != -1) {
+      if (++i < n)  t[i] = node - 1;
+    }
+
+    if (++i != n) {
+      throw new TsplibFileFormatException(
+          "Tour " + (tourCount + 1) + " has " + i + " nodes, expected " + n
+      );
+    }
+
+    ++tourCount;
+    return true;
+  }
+
+  /**
+   * Returns the last tour read by {@link #next()}.
+   *
+   * The same array, of length {@link #dimension()}, is overwritten by each
+   * call to {@link #next()}: copy it to retain a tour.
+   *
+   * @return  the 0-based indexes of the nodes of the tour, or null if no tour was read
+   */
+  public int[] tour() {
+    return tourCount == 0 ? null : tour;
+  }
+
+  @Override
+  public void close() throws IOException {
+    tk.close();
+  }
+
+  // ==============================================================================================
+  // Private helpers
+  // ==============================================================================================
+
+  /** Reads a tour whose length is not known in advance and sizes the buffer to fit it. */
+  private boolean readFirstTour(final int firstNode) throws IOException {
+    int[] t = new int[INITIAL_BUFFER_SIZE];
+    int n = 0;
+    int node = firstNode;
+    do {
+      if (n == t.length)  t = Arrays.copyOf(t, 2 * n);
+      t[n++] = node - 1;
+    } while (tk.hasNext() && (node = tk.nextInt()) != -1);
+
+    tour = Arrays.copyOf(t, n);
+    dimension = n;
+    ++tourCount;
+    return true;
+  }
+}
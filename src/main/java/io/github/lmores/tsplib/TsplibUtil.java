@@ -1,5 +1,7 @@
 package io.github.lmores.tsplib;
 
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
+
 /**
  * Utilities to interact with the data contained in TSPLIB instances.
  *
@@ -31,11 +33,31 @@ public class TsplibUtil {
    * @return   an array of length 2 containing the row and column indexes
    */
   public static int[] arrayToStrictUpperTriangularMatrixIndexes(final int k, final int n) {
-    if (k < n - 1)  return new int[] {0, k + 1};
+    return arrayToStrictUpperTriangularMatrixIndexes((long) k, n);
+  }
+
+  /**
+   * Same as {@link #arrayToStrictUpperTriangularMatrixIndexes(int, int)}, but
+   * accepts indexes of arrays encoding matrices with more than
+   * {@link Integer#MAX_VALUE} elements (i.e. with dimension above 65,536).
+   *
+   * @param k  the index of the element in the array
+   * @param n  the dimension of the matrix encoded in the array
+   * @return   an array of length 2 containing the row and column indexes
+   * @since    0.0.4
+   */
+  public static int[] arrayToStrictUpperTriangularMatrixIndexes(final long k, final int n) {
+    if (k < n - 1)  return new int[] {0, (int) k + 1};
+
+    final double m = 2.0 * n - 1;
+    int i = (int) Math.floor(n - 0.5 - Math.sqrt(m * m - 8.0 * k) / 2);
 
-    final int i = (int) Math.floor(n - 0.5 - Math.sqrt(Math.pow(2 * n - 1, 2) - 8 * k) / 2);
-    final int I = n * i - i * (i + 1) / 2;
-    return new int[] {i, i + 1 + (k - I)};
+    // Fix rounding errors of the floating point estimate for large values of n
+    while (i > 0 && strictUpperTriangularToArrayLongIndex(i, i + 1, n) > k)  --i;
+    while (i < n - 2 && strictUpperTriangularToArrayLongIndex(i + 1, i + 2, n) <= k)  ++i;
+
+    final long I = strictUpperTriangularToArrayLongIndex(i, i + 1, n);
+    return new int[] {i, (int) (i + 1 + (k - I))};
   }
 
   /**
@@ -59,10 +81,50 @@ public class TsplibUtil {
    * @return   the index corresponding to the same element inside an array that
    *           encodes in row-wise order the strict upper diagonal part of the
    *           same matrix
+   * @throws ArithmeticException  if the index does not fit into an int (use
+   *           {@link #strictUpperTriangularToArrayLongIndex} in such case)
    */
   public static int strictUpperTriangularToArrayIndex(final int i, final int j, final int n) {
+    return Math.toIntExact(strictUpperTriangularToArrayLongIndex(i, j, n));
+  }
+
+  /**
+   * Same as {@link #strictUpperTriangularToArrayIndex(int, int, int)}, but
+   * returns a long value so that it can be used for matrices with more than
+   * {@link Integer#MAX_VALUE} elements (i.e. with dimension above 65,536).
+   *
+   * @param i  the 0-based index of the matrix row
+   * @param j  the 0-based index of the matrix column
+   * @param n  the dimension of the matrix
+   * @return   the index corresponding to the same element inside an array that
+   *           encodes in row-wise order the strict upper diagonal part of the
+   *           same matrix
+   * @since    0.0.4
+   */
+  public static long strictUpperTriangularToArrayLongIndex(final int i, final int j, final int n) {
     // [n + (n-1) + ... + (n-i) - n] + (j-i-1) = [n(n-1) / 2 - (n-i)(n-i-1) / 2] + (j-i-1)
-    return n * (n-1) / 2 - (n-i) * (n-i-1) / 2 + (j-i-1);
+    final long ni = n - i;
+    return (long) n * (n - 1) / 2 - ni * (ni - 1) / 2 + (j - i - 1);
+  }
+
+  /**
+   * Given the row and column indexes {@code i,j} (with {@code j <= i}) of the
+   * lower triangular part (diagonal included) of a matrix, this method returns
+   * the index {@code k} corresponding to the same element in an array that
+   * encodes such part in row-wise order, i.e. {@code k = i(i+1)/2 + j}.
+   *
+   * Since the index does not depend on the dimension of the matrix, the
+   * length of the array encoding a matrix of dimension {@code n} is the
+   * value returned for {@code i = n} and {@code j = 0}.
+   *
+   * @param i  the 0-based index of the matrix row
+   * @param j  the 0-based index of the matrix column (not greater than {@code i})
+   * @return   the index corresponding to the same element inside an array that
+   *           encodes in row-wise order the lower triangular part of the matrix
+   * @since    0.0.4
+   */
+  public static long lowerTriangularToArrayIndex(final int i, final int j) {
+    return (long) i * (i + 1) / 2 + j;
   }
 
   /**
@@ -80,7 +142,7 @@ public class TsplibUtil {
   ) {
     final double dx = x1 - x2;
     final double dy = y1 - y2;
-    final double dist = Math.sqrt(Math.pow(dx, 2) + Math.pow(dy, 2));
+    final double dist = Math.sqrt(dx*dx + dy*dy);
     return nint(dist);
   }
 
@@ -103,7 +165,7 @@ public class TsplibUtil {
     final double dx = x1 - x2;
     final double dy = y1 - y2;
     final double dz = z1 - z2;
-    final double dist = Math.sqrt(Math.pow(dx, 2) + Math.pow(dy, 2) + Math.pow(dz, 2));
+    final double dist = Math.sqrt(dx*dx + dy*dy + dz*dz);
     return nint(dist);
   }
 
@@ -142,7 +204,7 @@ public class TsplibUtil {
   ) {
     final double dx = x1 - x2;
     final double dy = y1 - y2;
-    final double dist = Math.sqrt(Math.pow(dx, 2) + Math.pow(dy, 2));
+    final double dist = Math.sqrt(dx*dx + dy*dy);
     return (int) Math.ceil(dist);
   }
 
@@ -247,12 +309,30 @@ public class TsplibUtil {
   public static int roundedHaversineDistance(
       final double x1, final double y1, final double x2, final double y2
   ) {
-    final double lat1 = ddmmToRadians(x1);
-    final double lon1 = ddmmToRadians(y1);
-
-    final double lat2 = ddmmToRadians(x2);
-    final double lon2 = ddmmToRadians(y2);
+    return roundedHaversineDistanceOfRadians(
+        ddmmToRadians(x1), ddmmToRadians(y1), ddmmToRadians(x2), ddmmToRadians(y2)
+    );
+  }
 
+  /**
+   * Same as {@link #roundedHaversineDistance(double, double, double, double)},
+   * but accepts coordinates already converted to radians by
+   * {@link #ddmmToRadians(double)}.
+   *
+   * Converting the coordinates of each node once (e.g. when an instance is
+   * loaded) avoids four conversions for each computed distance and gives
+   * exactly the same result.
+   *
+   * @param lat1  the latitude of the first point in radians
+   * @param lon1  the longitude of the first point in radians
+   * @param lat2  the latitude of the second point in radians
+   * @param lon2  the longitude of the second point in radians
+   * @return      the distance in km
+   * @since    0.0.4
+   */
+  public static int roundedHaversineDistanceOfRadians(
+      final double lat1, final double lon1, final double lat2, final double lon2
+  ) {
     final double q1 = Math.cos(lon1 - lon2);
     final double q2 = Math.cos(lat1 - lat2);
     final double q3 = Math.cos(lat1 + lat2);
@@ -260,23 +340,94 @@ public class TsplibUtil {
     return (int)d;
   }
 
-  // ==============================================================================================
-  // Private helpers
-  // ==============================================================================================
-
   /**
    * Convert the width of an angle encoded as a double in the format DDD.MMM
-   * (D = degrees, M = minutes) to the corresponding value in radians.
+   * (D = degrees, M = minutes) to the corresponding value in radians, as
+   * done by the TSPLIB for coordinates of 'GEO' instances.
    *
    * @param a  the angle width expressed as DDD.MMM
    * @return   the same width in radians
+   * @since    0.0.4
    */
-  private static double ddmmToRadians(final double a) {
+  public static double ddmmToRadians(final double a) {
     final int deg = (int)(a);
     final double min = a - deg;
     return PI * (deg + 5.0 * min / 3.0) / 180.0;
   }
 
+  /**
+   * Computes the distances from node {@code i} to each of the provided
+   * nodes, i.e. sets {@code out[k]} to the distance between node {@code i}
+   * and node {@code targets[k]}, using the metric of the provided edge
+   * weight type.
+   *
+   * The result is the same as calling the method of this class implementing
+   * the metric on each pair of nodes, but the coordinates of node {@code i}
+   * are loaded once and the metric is selected once for all the targets,
+   * which lets the JIT compile the computation into a tight loop.
+   *
+   * @param type     the edge weight type (one of 'EUC_2D', 'EUC_3D', 'CEIL_2D',
+   *                 'ATT', 'MAN_2D', 'MAN_3D', 'MAX_2D', 'MAX_3D' or 'GEO')
+   * @param coords   the coordinates of the nodes
+   * @param i        the 0-based index of the source node
+   * @param targets  the 0-based indexes of the target nodes
+   * @param out      the array receiving the distances (at least as long as {@code targets})
+   * @throws IllegalArgumentException  if the metric is not supported or does
+   *           not match the coordinates, or if {@code out} is too short
+   * @since    0.0.4
+   */
+  public static void fillDistances(
+      final EdgeWeightType type, final NodeCoordinates coords, final int i,
+      final int[] targets, final int[] out
+  ) {
+    if (out.length < targets.length) {
+      throw new IllegalArgumentException(
+          "Output array has length " + out.length + ", expected at least " + targets.length
+      );
+    }
+    fillDistances(type, coords, i, targets, 0, targets.length, out);
+  }
+
+  /**
+   * Computes the distances from node {@code i} to each node in the range
+   * {@code [from, to)}, i.e. sets {@code out[j - from]} to the distance
+   * between node {@code i} and node {@code j}, using the metric of the
+   * provided edge weight type.
+   *
+   * When the JVM is started with {@code --add-modules jdk.incubator.vector},
+   * distances in 'EUC_2D', 'CEIL_2D', 'ATT', 'MAN_2D' and 'MAX_2D' metrics
+   * between nodes with double precision coordinates are computed several at
+   * a time with the Vector API. Results are bit-identical to the scalar
+   * computation.
+   *
+   * @param type    the edge weight type, as in
+   *                {@link #fillDistances(EdgeWeightType, NodeCoordinates, int, int[], int[])}
+   * @param coords  the coordinates of the nodes
+   * @param i       the 0-based index of the source node
+   * @param from    the 0-based index of the first target node (inclusive)
+   * @param to      the 0-based index of the last target node (exclusive)
+   * @param out     the array receiving the distances (at least {@code to - from} long)
+   * @throws IllegalArgumentException  if the metric is not supported or does
+   *           not match the coordinates, or if the range is invalid
+   * @since    0.0.4
+   */
+  public static void fillDistances(
+      final EdgeWeightType type, final NodeCoordinates coords, final int i,
+      final int from, final int to, final int[] out
+  ) {
+    if (from < 0 || to > coords.dimension() || from > to || out.length < to - from) {
+      throw new IllegalArgumentException(
+          "Invalid range [" + from + ", " + to + ") for dimension " + coords.dimension() +
+          " and output array of length " + out.length
+      );
+    }
+    fillDistances(type, coords, i, null, from, to - from, out);
+  }
+
+  // ==============================================================================================
+  // Private helpers
+  // ==============================================================================================
+
   /**
    * Returns the closest integer value.
    *
@@ -286,4 +437,134 @@ public class TsplibUtil {
   private static int nint(final double a) {
     return (int)(a + 0.5);
   }
+
+  /**
+   * Whether ranges of distances are computed by {@link VectorDistanceKernels}, which
+   * requires the JVM to resolve the incubating Vector API module (e.g. when started
+   * with {@code --add-modules jdk.incubator.vector}).
+   */
+  private static final class VectorKernels {
+    static final boolean ENABLED =
+        ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+        && VectorDistanceKernels.isAvailable();
+  }
+
+  /**
+   * Sets {@code out[k]} to the distance between node {@code i} and node
+   * {@code targets[k]} (or node {@code from + k} if {@code targets} is null)
+   * for each {@code 0 <= k < m}.
+   */
+  private static void fillDistances(
+      final EdgeWeightType type, final NodeCoordinates c, final int i,
+      final int[] targets, final int from, final int m, final int[] out
+  ) {
+    final boolean is3d = switch (type) {
+      case EUC_2D, CEIL_2D, ATT, MAN_2D, MAX_2D, GEO -> false;
+      case EUC_3D, MAN_3D, MAX_3D -> true;
+      default -> throw new IllegalArgumentException("Unsupported edge weight type: " + type);
+    };
+    if (is3d && !c.is3d()) {
+      throw new IllegalArgumentException("Edge weight type " + type + " requires 3D coordinates");
+    }
+
+    final double[] xs = c.xs();
+    final double[] ys = c.ys();
+    final double[] zs = c.zs();
+    if (xs == null) {
+      // Single precision coordinates are widened one at a time
+      for (int k = 0; k < m; ++k) {
+        final int j = targets == null ? from + k : targets[k];
+        out[k] = distance(type, c, i, j);
+      }
+      return;
+    }
+
+    if (targets == null && VectorKernels.ENABLED && VectorDistanceKernels.supports(type)) {
+      VectorDistanceKernels.fill(type, xs, ys, i, from, m, out);
+      return;
+    }
+
+    final double xi = xs[i];
+    final double yi = ys[i];
+    final double zi = is3d ? zs[i] : 0;
+    switch (type) {
+      case EUC_2D -> {
+        for (int k = 0; k < m; ++k) {
+          final int j = targets == null ? from + k : targets[k];
+          out[k] = roundedEuclideanDistance(xi, yi, xs[j], ys[j]);
+        }
+      }
+      case EUC_3D -> {
+        for (int k = 0; k < m; ++k) {
+          final int j = targets == null ? from + k : targets[k];
+          out[k] = roundedEuclideanDistance(xi, yi, zi, xs[j], ys[j], zs[j]);
+        }
+      }
+      case CEIL_2D -> {
+        for (int k = 0; k < m; ++k) {
+          final int j = targets == null ? from + k : targets[k];
+          out[k] = ceilEuclideanDistance(xi, yi, xs[j], ys[j]);
+        }
+      }
+      case ATT -> {
+        for (int k = 0; k < m; ++k) {
+          final int j = targets == null ? from + k : targets[k];
+          out[k] = pseudoEuclideanDistance(xi, yi, xs[j], ys[j]);
+        }
+      }
+      case MAN_2D -> {
+        for (int k = 0; k < m; ++k) {
+          final int j = targets == null ? from + k : targets[k];
+          out[k] = roundedManhattanDistance(xi, yi, xs[j], ys[j]);
+        }
+      }
+      case MAN_3D -> {
+        for (int k = 0; k < m; ++k) {
+          final int j = targets == null ? from + k : targets[k];
+          out[k] = roundedManhattanDistance(xi, yi, zi, xs[j], ys[j], zs[j]);
+        }
+      }
+      case MAX_2D -> {
+        for (int k = 0; k < m; ++k) {
+          final int j = targets == null ? from + k : targets[k];
+          out[k] = roundedChebyshevDistance(xi, yi, xs[j], ys[j]);
+        }
+      }
+      case MAX_3D -> {
+        for (int k = 0; k < m; ++k) {
+          final int j = targets == null ? from + k : targets[k];
+          out[k] = roundedChebyshevDistance(xi, yi, zi, xs[j], ys[j], zs[j]);
+        }
+      }
+      case GEO -> {
+        final double lat = ddmmToRadians(xi);
+        final double lon = ddmmToRadians(yi);
+        for (int k = 0; k < m; ++k) {
+          final int j = targets == null ? from + k : targets[k];
+          out[k] = roundedHaversineDistanceOfRadians(
+              lat, lon, ddmmToRadians(xs[j]), ddmmToRadians(ys[j])
+          );
+        }
+      }
+      default -> throw new AssertionError(type);
+    }
+  }
+
+  /** Returns the distance between nodes {@code i} and {@code j} using the metric of {@code type}. */
+  private static int distance(
+      final EdgeWeightType type, final NodeCoordinates c, final int i, final int j
+  ) {
+    return switch (type) {
+      case EUC_2D -> roundedEuclideanDistance(c.x(i), c.y(i), c.x(j), c.y(j));
+      case EUC_3D -> roundedEuclideanDistance(c.x(i), c.y(i), c.z(i), c.x(j), c.y(j), c.z(j));
+      case CEIL_2D -> ceilEuclideanDistance(c.x(i), c.y(i), c.x(j), c.y(j));
+      case ATT -> pseudoEuclideanDistance(c.x(i), c.y(i), c.x(j), c.y(j));
+      case MAN_2D -> roundedManhattanDistance(c.x(i), c.y(i), c.x(j), c.y(j));
+      case MAN_3D -> roundedManhattanDistance(c.x(i), c.y(i), c.z(i), c.x(j), c.y(j), c.z(j));
+      case MAX_2D -> roundedChebyshevDistance(c.x(i), c.y(i), c.x(j), c.y(j));
+      case MAX_3D -> roundedChebyshevDistance(c.x(i), c.y(i), c.z(i), c.x(j), c.y(j), c.z(j));
+      case GEO -> roundedHaversineDistance(c.x(i), c.y(i), c.x(j), c.y(j));
+      default -> throw new IllegalArgumentException("Unsupported edge weight type: " + type);
+    };
+  }
 }
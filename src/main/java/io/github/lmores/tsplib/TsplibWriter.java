@@ -0,0 +1,532 @@
+package io.github.lmores.tsplib;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Comparator;
+
+import io.github.lmores.tsplib.TsplibFileFormat.DisplayDataType;
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeDataFormat;
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightFormat;
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
+import io.github.lmores.tsplib.TsplibFileFormat.Keyword;
+import io.github.lmores.tsplib.TsplibFileFormat.NodeCoordType;
+import io.github.lmores.tsplib.TsplibFileFormat.ProblemType;
+import io.github.lmores.tsplib.atsp.AtspInstance;
+import io.github.lmores.tsplib.hcp.HcpInstance;
+import io.github.lmores.tsplib.sop.SopInstance;
+import io.github.lmores.tsplib.tsp.TspInstance;
+import io.github.lmores.tsplib.vrp.ExplicitVrpInstance;
+import io.github.lmores.tsplib.vrp.VrpInstance;
+
+/**
+ * Write instances and tours in TSPLIB format.
+ *
+ * Numbers are formatted straight into a reusable byte buffer that is
+ * flushed to the destination channel when full, hence no intermediate
+ * {@link String} is created for integers. Doubles that can be written with at
+ * most {@value #MAX_FRACTION_DIGITS} fractional digits (all the coordinates
+ * in the TSPLIB archive) are formatted in the same way; the others fall back
+ * to {@link Double#toString(double)}. In any case, reading the written file
+ * gives back bit-identical values.
+ *
+ * Edge weights are written according to the 'EDGE_WEIGHT_FORMAT' of the
+ * provided data (every format but 'FUNCTION' is supported), one row (or
+ * column) per line.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+public final class TsplibWriter {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /** Maximum number of fractional digits attempted before falling back to {@link Double#toString}. */
+  private static final int MAX_FRACTION_DIGITS = 15;
+
+  private static final double[] POW10 = new double[MAX_FRACTION_DIGITS + 1];
+  static {
+    POW10[0] = 1;
+    for (int k = 1; k <= MAX_FRACTION_DIGITS; ++k)  POW10[k] = POW10[k - 1] * 10;
+  }
+
+  /** Integral doubles below this threshold are exactly representable as long values. */
+  private static final double MAX_EXACT_LONG = 0x1p53;
+
+  /** This class contains only static methods and no instance is allowed. */
+  private TsplibWriter() { /* no-op */ }
+
+  /**
+   * Writes the provided data to a file in TSPLIB format (the file is created
+   * if it does not exist, truncated otherwise).
+   *
+   * @param data  the instance data
+   * @param file  the destination file
+   * @throws IOException  if an I/O error occurs
+   */
+  public static void write(final TsplibFileData data, final Path file) throws IOException {
+    try (final FileChannel ch = openForWriting(file)) {
+      write(data, ch);
+    }
+  }
+
+  /**
+   * Writes the provided data in TSPLIB format to a channel.
+   *
+   * The channel is not closed by this method.
+   *
+   * @param data  the instance data
+   * @param ch    the destination channel
+   * @throws IOException  if an I/O error occurs
+   */
+  public static void write(final TsplibFileData data, final WritableByteChannel ch) throws IOException {
+    if (data == null) {
+      throw new IllegalArgumentException("Data is null");
+    }
+
+    final int dimension = data.dimension();
+    final EdgeWeightFormat edgeWeightFormat =
+        data.edgeWeights() != null && data.edgeWeightFormat() == null
+        ? EdgeWeightFormat.FULL_MATRIX
+        : data.edgeWeightFormat();
+    if (data.edgeWeights() != null && edgeWeightFormat == EdgeWeightFormat.FUNCTION) {
+      throw new IllegalArgumentException(
+          "Instance " + data.name() + ": edge weights provided but EDGE_WEIGHT_FORMAT == FUNCTION"
+      );
+    }
+
+    final Output out = new Output(ch);
+
+    // Specification part
+    out.putSpecification(Keyword.NAME, data.name());
+    out.putSpecification(Keyword.TYPE, data.type());
+    if (data.comment() != null && !data.comment().isEmpty()) {
+      out.putSpecification(Keyword.COMMENT, data.comment());
+    }
+    if (dimension >= 0) {
+      out.putKeyword(Keyword.DIMENSION);
+      out.putInt(dimension);
+      out.newLine();
+    }
+    if (data.capacity() >= 0) {
+      out.putKeyword(Keyword.CAPACITY);
+      out.putInt(data.capacity());
+      out.newLine();
+    }
+    out.putSpecification(Keyword.EDGE_WEIGHT_TYPE, data.edgeWeightType());
+    out.putSpecification(Keyword.EDGE_WEIGHT_FORMAT, edgeWeightFormat);
+    out.putSpecification(Keyword.EDGE_DATA_FORMAT, data.edgeDataFormat());
+    out.putSpecification(Keyword.NODE_COORD_TYPE, data.nodeCoordType());
+    if (data.displayDataType() != null && data.displayDataType() != DisplayDataType.NO_DISPLAY) {
+      out.putSpecification(Keyword.DISPLAY_DATA_TYPE, data.displayDataType());
+    }
+
+    // Data part
+    if (data.coordinates() != null) {
+      out.putSectionName(Keyword.NODE_COORD_SECTION);
+      putCoords(out, data.coordinates());
+    }
+
+    if (data.depots() != null) {
+      out.putSectionName(Keyword.DEPOT_SECTION);
+      for (final int d: data.depots()) {
+        out.putInt(d + 1);
+        out.newLine();
+      }
+      out.putTerminator();
+    }
+
+    if (data.demands() != null) {
+      out.putSectionName(Keyword.DEMAND_SECTION);
+      final int[] demands = data.demands();
+      for (int i = 0; i < demands.length; ++i) {
+        out.putInt(i + 1);
+        out.put((byte) ' ');
+        out.putInt(demands[i]);
+        out.newLine();
+      }
+    }
+
+    if (data.edges() != null) {
+      out.putSectionName(Keyword.EDGE_DATA_SECTION);
+      for (final int[] e: data.edges()) {
+        for (int k = 0; k < e.length; ++k) {
+          if (k > 0)  out.put((byte) ' ');
+          out.putInt(e[k] + 1);
+        }
+        if (data.edgeDataFormat() == EdgeDataFormat.ADJ_LIST) {
+          out.put((byte) ' ');
+          out.putInt(-1);
+        }
+        out.newLine();
+      }
+      out.putTerminator();
+    }
+
+    if (data.fixedEdges() != null) {
+      out.putSectionName(Keyword.FIXED_EDGES_SECTION);
+      for (final int[] e: data.fixedEdges()) {
+        out.putInt(e[0] + 1);
+        out.put((byte) ' ');
+        out.putInt(e[1] + 1);
+        out.newLine();
+      }
+      out.putTerminator();
+    }
+
+    if (data.displayCoords() != null) {
+      out.putSectionName(Keyword.DISPLAY_DATA_SECTION);
+      putCoords(out, data.displayCoords());
+    }
+
+    if (data.edgeWeights() != null) {
+      out.putSectionName(Keyword.EDGE_WEIGHT_SECTION);
+      final EdgeWeightMatrix w = data.edgeWeights();
+      final int n = w.dimension();
+      for (int a = 0; a < n; ++a) {
+        final int first = ParallelSectionParser.firstInRow(edgeWeightFormat, a, n);
+        final int end = ParallelSectionParser.endOfRow(edgeWeightFormat, a, n);
+        if (first >= end)  continue;
+
+        for (int b = first; b < end; ++b) {
+          if (b > first)  out.put((byte) ' ');
+          out.putInt(w.get(a, b));
+        }
+        out.newLine();
+      }
+    }
+
+    if (data.tours() != null) {
+      putTours(out, data.tours());
+    }
+
+    out.put(Keyword.EOF.name().getBytes(StandardCharsets.US_ASCII));
+    out.newLine();
+    out.flush();
+  }
+
+  /**
+   * Writes the provided solutions to a file in TSPLIB format (the file is
+   * created if it does not exist, truncated otherwise).
+   *
+   * @param solutions  the solutions to write
+   * @param file       the destination file
+   * @throws IOException  if an I/O error occurs
+   */
+  public static void write(final Solutions solutions, final Path file) throws IOException {
+    try (final FileChannel ch = openForWriting(file)) {
+      write(solutions, ch);
+    }
+  }
+
+  /**
+   * Writes the provided solutions in TSPLIB format to a channel.
+   *
+   * The channel is not closed by this method.
+   *
+   * @param solutions  the solutions to write
+   * @param ch         the destination channel
+   * @throws IOException  if an I/O error occurs
+   */
+  public static void write(final Solutions solutions, final WritableByteChannel ch) throws IOException {
+    if (solutions == null) {
+      throw new IllegalArgumentException("Solutions are null");
+    }
+
+    write(
+        new TsplibFileData(
+            solutions.name(), ProblemType.TOUR, solutions.comment(), solutions.dimension(), -1,
+            null, null, null, null, null, null, null, null, null, null, null, null, solutions.tours()
+        ),
+        ch
+    );
+  }
+
+  /**
+   * Writes the provided instance to a file in TSPLIB format (the file is
+   * created if it does not exist, truncated otherwise).
+   *
+   * @param instance  the instance to write
+   * @param file      the destination file
+   * @throws IOException  if an I/O error occurs
+   * @see #write(BaseInstance, WritableByteChannel)
+   */
+  public static void write(final BaseInstance instance, final Path file) throws IOException {
+    try (final FileChannel ch = openForWriting(file)) {
+      write(instance, ch);
+    }
+  }
+
+  /**
+   * Writes the provided instance in TSPLIB format to a channel.
+   *
+   * The problem type is deduced from the interface implemented by the
+   * instance. Explicit symmetric weights are written in 'UPPER_DIAG_ROW'
+   * format, asymmetric ones in 'FULL_MATRIX' format. Instances only store
+   * what is needed to compute edge weights: for this reason the truck
+   * capacity of a CVRP is never written, nor are demands and depots unless
+   * the instance is an {@link ExplicitVrpInstance}.
+   * The channel is not closed by this method.
+   *
+   * @param instance  the instance to write
+   * @param ch        the destination channel
+   * @throws IOException  if an I/O error occurs
+   */
+  public static void write(final BaseInstance instance, final WritableByteChannel ch) throws IOException {
+    if (instance == null) {
+      throw new IllegalArgumentException("Instance is null");
+    }
+
+    write(toFileData(instance), ch);
+  }
+
+  // ==============================================================================================
+  // Private helpers
+  // ==============================================================================================
+
+  private static FileChannel openForWriting(final Path file) throws IOException {
+    return FileChannel.open(
+        file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE
+    );
+  }
+
+  private static void putCoords(final Output out, final double[][] coords) throws IOException {
+    for (int i = 0; i < coords.length; ++i) {
+      out.putInt(i + 1);
+      for (final double c: coords[i]) {
+        out.put((byte) ' ');
+        out.putDouble(c);
+      }
+      out.newLine();
+    }
+  }
+
+  private static void putCoords(final Output out, final NodeCoordinates coords) throws IOException {
+    final boolean is3d = coords.is3d();
+    for (int i = 0, n = coords.dimension(); i < n; ++i) {
+      out.putInt(i + 1);
+      out.put((byte) ' ');
+      out.putDouble(coords.x(i));
+      out.put((byte) ' ');
+      out.putDouble(coords.y(i));
+      if (is3d) {
+        out.put((byte) ' ');
+        out.putDouble(coords.z(i));
+      }
+      out.newLine();
+    }
+  }
+
+  private static void putTours(final Output out, final int[][] tours) throws IOException {
+    out.putSectionName(Keyword.TOUR_SECTION);
+    for (final int[] tour: tours) {
+      for (final int node: tour) {
+        out.putInt(node + 1);
+        out.newLine();
+      }
+      out.putTerminator();
+    }
+  }
+
+  private static TsplibFileData toFileData(final BaseInstance instance) {
+    final ProblemType type;
+    if (instance instanceof TspInstance)  type = ProblemType.TSP;
+    else if (instance instanceof AtspInstance)  type = ProblemType.ATSP;
+    else if (instance instanceof SopInstance)  type = ProblemType.SOP;
+    else if (instance instanceof HcpInstance)  type = ProblemType.HCP;
+    else if (instance instanceof VrpInstance)  type = ProblemType.CVRP;
+    else throw new IllegalArgumentException("Unsupported instance type: " + instance.getClass().getName());
+
+    final int dimension = instance.dimension();
+    final NodeCoordinates coordinates = instance.coordinates();
+    final NodeCoordType nodeCoordType;
+    if (coordinates == null || dimension == 0)  nodeCoordType = null;
+    else if (coordinates.is3d())  nodeCoordType = NodeCoordType.THREED_COORDS;
+    else  nodeCoordType = NodeCoordType.TWOD_COORDS;
+
+    final double[][] displayCoords = instance.displayCoords();
+    final DisplayDataType displayDataType =
+        displayCoords != null ? DisplayDataType.TWOD_DISPLAY : DisplayDataType.NO_DISPLAY;
+
+    EdgeWeightMatrix edgeWeights = null;
+    EdgeWeightFormat edgeWeightFormat = null;
+    if (instance.edgeWeightType() == EdgeWeightType.EXPLICIT && type != ProblemType.HCP) {
+      final int[][] m = instance.materializeEdgeWeightsMatrix();
+      edgeWeights = type == ProblemType.SOP ? EdgeWeightMatrix.full(m) : EdgeWeightMatrix.of(m);
+      edgeWeightFormat = edgeWeights.isSymmetric()
+          ? EdgeWeightFormat.UPPER_DIAG_ROW
+          : EdgeWeightFormat.FULL_MATRIX;
+    }
+
+    int[][] edges = null;
+    EdgeDataFormat edgeDataFormat = null;
+    if (instance instanceof HcpInstance hcp) {
+      edges = hcp.edges().stream()
+          .filter(e -> e.getKey() < e.getValue())
+          .sorted(Comparator.comparing(SimpleImmutableEntry<Integer,Integer>::getKey)
+              .thenComparing(SimpleImmutableEntry<Integer,Integer>::getValue))
+          .map(e -> new int[] {e.getKey(), e.getValue()})
+          .toArray(int[][]::new);
+      edgeDataFormat = EdgeDataFormat.EDGE_LIST;
+    }
+
+    int[] demands = null;
+    int[] depots = null;
+    if (instance instanceof ExplicitVrpInstance vrp) {
+      demands = vrp.demands();
+      depots = vrp.depots();
+    }
+
+    return new TsplibFileData(
+        instance.name(), type, instance.comment(), dimension, -1, instance.edgeWeightType(),
+        edgeWeightFormat, edgeDataFormat, nodeCoordType, displayDataType, coordinates, depots,
+        demands, edges, instance.fixedEdges(), edgeWeights, displayCoords, null
+    );
+  }
+
+  /** Formats values into a byte buffer that is flushed to a channel when full. */
+  private static final class Output {
+    private final WritableByteChannel ch;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int pos = 0;
+
+    Output(final WritableByteChannel ch) {
+      this.ch = ch;
+    }
+
+    void flush() throws IOException {
+      final ByteBuffer bb = ByteBuffer.wrap(buf, 0, pos);
+      while (bb.hasRemaining())  ch.write(bb);
+      pos = 0;
+    }
+
+    void ensure(final int nBytes) throws IOException {
+      if (BUFFER_SIZE - pos < nBytes)  flush();
+    }
+
+    void put(final byte b) throws IOException {
+      ensure(1);
+      buf[pos++] = b;
+    }
+
+    void put(final byte[] bytes) throws IOException {
+      for (int off = 0; off < bytes.length; ) {
+        ensure(1);
+        final int k = Math.min(BUFFER_SIZE - pos, bytes.length - off);
+        System.arraycopy(bytes, off, buf, pos, k);
+        pos += k;
+        off += k;
+      }
+    }
+
+    void newLine() throws IOException {
+      put((byte) '\n');
+    }
+
+    void putKeyword(final Keyword keyword) throws IOException {
+      put(keyword.name().getBytes(StandardCharsets.US_ASCII));
+      put(": ".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    void putSpecification(final Keyword keyword, final Object value) throws IOException {
+      if (value == null)  return;
+      putKeyword(keyword);
+      put(value.toString().getBytes(StandardCharsets.UTF_8));
+      newLine();
+    }
+
+    void putSectionName(final Keyword section) throws IOException {
+      put(section.name().getBytes(StandardCharsets.US_ASCII));
+      newLine();
+    }
+
+    void putTerminator() throws IOException {
+      putInt(-1);
+      newLine();
+    }
+
+    void putInt(final int v) throws IOException {
+      putLong(v);
+    }
+
+    void putLong(final long v) throws IOException {
+      if (v == Long.MIN_VALUE) {
+        put(Long.toString(v).getBytes(StandardCharsets.US_ASCII));
+        return;
+      }
+
+      ensure(20);
+      long u = v;
+      if (u < 0) {
+        buf[pos++] = '-';
+        u = -u;
+      }
+
+      final int nDigits = countDigits(u);
+      int i = pos + nDigits;
+      pos = i;
+      do {
+        buf[--i] = (byte) ('0' + u % 10);
+        u /= 10;
+      } while (u != 0);
+    }
+
+    void putDouble(final double v) throws IOException {
+      final boolean negativeZero = v == 0 && Double.doubleToRawLongBits(v) != 0;
+      if (!negativeZero && Math.abs(v) < MAX_EXACT_LONG) {
+        if (v == (long) v) {
+          putLong((long) v);
+          return;
+        }
+
+        // Look for the fewest fractional digits that give back v when parsed
+        for (int k = 1; k <= MAX_FRACTION_DIGITS; ++k) {
+          final double scaled = v * POW10[k];
+          if (Math.abs(scaled) >= MAX_EXACT_LONG)  break;
+
+          final long m = Math.round(scaled);
+          if (m / POW10[k] == v) {
+            putDecimal(m, k);
+            return;
+          }
+        }
+      }
+
+      put(Double.toString(v).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /** Writes {@code m / 10^k} in plain decimal notation. */
+    private void putDecimal(final long m, final int k) throws IOException {
+      ensure(MAX_FRACTION_DIGITS + 20);
+      long u = m;
+      if (u < 0) {
+        buf[pos++] = '-';
+        u = -u;
+      }
+
+      final int nDigits = Math.max(countDigits(u), k + 1);
+      int i = pos + nDigits + 1;
+      pos = i;
+      for (int d = 0; d < k; ++d) {
+        buf[--i] = (byte) ('0' + u % 10);
+        u /= 10;
+      }
+      buf[--i] = '.';
+      do {
+        buf[--i] = (byte) ('0' + u % 10);
+        u /= 10;
+      } while (u != 0);
+    }
+
+    private static int countDigits(final long u) {
+      int nDigits = 1;
+      for (long t = u; t >= 10; t /= 10)  ++nDigits;
+      return nDigits;
+    }
+  }
+}
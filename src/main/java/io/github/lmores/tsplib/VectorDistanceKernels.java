@@ -0,0 +1,184 @@
+package io.github.lmores.tsplib;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
+
+/**
+ * Distance kernels computing several distances per instruction with the
+ * incubating Vector API ({@code jdk.incubator.vector}).
+ *
+ * The Vector API is optional: this class is used by
+ * {@link TsplibUtil#fillDistances(EdgeWeightType, NodeCoordinates, int, int, int, int[])}
+ * only when the JVM is started with {@code --add-modules jdk.incubator.vector};
+ * otherwise it is never loaded and the scalar loops are used.
+ * <p>
+ * Every lanewise operation (subtraction, multiplication, addition, division,
+ * square root, absolute value, maximum and the double to int conversion)
+ * rounds as the corresponding scalar operation, hence the results are
+ * bit-identical to the ones of the scalar methods of {@link TsplibUtil},
+ * including the rounding of {@code nint}.
+ *
+ * @author   Lorenzo Moreschini
+ * @since    0.0.4
+ */
+final class VectorDistanceKernels {
+
+  /** This class contains only static methods and no instance is allowed. */
+  private VectorDistanceKernels() { /* no-op */ }
+
+  /**
+   * Returns whether the kernels of this class compute more than one
+   * distance per instruction, i.e. whether the preferred vector shape holds
+   * at least two doubles. This method must be called only if the Vector API
+   * module is resolved by the running JVM.
+   *
+   * @return  true if the kernels should be used, false otherwise
+   */
+  static boolean isAvailable() {
+    return Species.AVAILABLE;
+  }
+
+  /**
+   * Returns whether the provided edge weight type is supported by {@link #fill}.
+   *
+   * @param type  the edge weight type
+   * @return      true for 'EUC_2D', 'CEIL_2D', 'ATT', 'MAN_2D' and 'MAX_2D'
+   */
+  static boolean supports(final EdgeWeightType type) {
+    return switch (type) {
+      case EUC_2D, CEIL_2D, ATT, MAN_2D, MAX_2D -> true;
+      default -> false;
+    };
+  }
+
+  /**
+   * Sets {@code out[k]} to the distance between node {@code i} and node
+   * {@code from + k} for each {@code 0 <= k < m}.
+   *
+   * @param type  a supported edge weight type
+   * @param xs    the first coordinate of each node
+   * @param ys    the second coordinate of each node
+   * @param i     the 0-based index of the source node
+   * @param from  the 0-based index of the first target node
+   * @param m     the number of target nodes
+   * @param out   the array receiving the distances
+   */
+  static void fill(
+      final EdgeWeightType type, final double[] xs, final double[] ys,
+      final int i, final int from, final int m, final int[] out
+  ) {
+    final VectorSpecies<Double> ds = Species.DOUBLES;
+    final VectorSpecies<Integer> is = Species.INTS;
+    final DoubleVector xi = DoubleVector.broadcast(ds, xs[i]);
+    final DoubleVector yi = DoubleVector.broadcast(ds, ys[i]);
+    final int bound = ds.loopBound(m);
+
+    int k = 0;
+    switch (type) {
+      case EUC_2D -> {
+        for (; k < bound; k += ds.length()) {
+          final DoubleVector dx = xi.sub(DoubleVector.fromArray(ds, xs, from + k));
+          final DoubleVector dy = yi.sub(DoubleVector.fromArray(ds, ys, from + k));
+          final DoubleVector dist = dx.mul(dx).add(dy.mul(dy)).lanewise(VectorOperators.SQRT);
+          nint(dist).intoArray(out, k);
+        }
+      }
+
+      case CEIL_2D -> {
+        for (; k < bound; k += ds.length()) {
+          final DoubleVector dx = xi.sub(DoubleVector.fromArray(ds, xs, from + k));
+          final DoubleVector dy = yi.sub(DoubleVector.fromArray(ds, ys, from + k));
+          final DoubleVector dist = dx.mul(dx).add(dy.mul(dy)).lanewise(VectorOperators.SQRT);
+
+          // (int) Math.ceil(d) == (int) d + 1 when the truncation is below d
+          // and does not saturate, (int) d otherwise
+          final IntVector t = toInts(dist);
+          final VectorMask<Integer> up = toDoubles(t).lt(dist).cast(is)
+              .and(t.compare(VectorOperators.NE, Integer.MAX_VALUE));
+          t.add(1, up).intoArray(out, k);
+        }
+      }
+
+      case ATT -> {
+        for (; k < bound; k += ds.length()) {
+          final DoubleVector dx = xi.sub(DoubleVector.fromArray(ds, xs, from + k));
+          final DoubleVector dy = yi.sub(DoubleVector.fromArray(ds, ys, from + k));
+          final DoubleVector r =
+              dx.mul(dx).add(dy.mul(dy)).div(10.0).lanewise(VectorOperators.SQRT);
+          final IntVector t = nint(r);
+          t.add(1, toDoubles(t).lt(r).cast(is)).intoArray(out, k);
+        }
+      }
+
+      case MAN_2D -> {
+        for (; k < bound; k += ds.length()) {
+          final DoubleVector dx = xi.sub(DoubleVector.fromArray(ds, xs, from + k)).abs();
+          final DoubleVector dy = yi.sub(DoubleVector.fromArray(ds, ys, from + k)).abs();
+          nint(dx.add(dy)).intoArray(out, k);
+        }
+      }
+
+      case MAX_2D -> {
+        for (; k < bound; k += ds.length()) {
+          final DoubleVector dx = xi.sub(DoubleVector.fromArray(ds, xs, from + k)).abs();
+          final DoubleVector dy = yi.sub(DoubleVector.fromArray(ds, ys, from + k)).abs();
+          // nint is monotone, hence max(nint(dx), nint(dy)) == nint(max(dx, dy)),
+          // where NaN (rounded to 0 by nint) is the smallest value
+          nint(dx.blend(dy, dx.lt(dy).or(dx.test(VectorOperators.IS_NAN)))).intoArray(out, k);
+        }
+      }
+
+      default -> throw new IllegalArgumentException("Unsupported edge weight type: " + type);
+    }
+
+    // Remaining targets
+    final double x = xs[i];
+    final double y = ys[i];
+    for (; k < m; ++k) {
+      final int j = from + k;
+      out[k] = switch (type) {
+        case EUC_2D -> TsplibUtil.roundedEuclideanDistance(x, y, xs[j], ys[j]);
+        case CEIL_2D -> TsplibUtil.ceilEuclideanDistance(x, y, xs[j], ys[j]);
+        case ATT -> TsplibUtil.pseudoEuclideanDistance(x, y, xs[j], ys[j]);
+        case MAN_2D -> TsplibUtil.roundedManhattanDistance(x, y, xs[j], ys[j]);
+        default -> TsplibUtil.roundedChebyshevDistance(x, y, xs[j], ys[j]);
+      };
+    }
+  }
+
+  // ==============================================================================================
+  // Private helpers
+  // ==============================================================================================
+
+  /** Species of the vectors used by the kernels. */
+  private static final class Species {
+    static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    static final boolean AVAILABLE = DOUBLES.length() >= 2;
+
+    /** Ints species with as many lanes as {@link #DOUBLES} (i.e. half its bit size). */
+    static final VectorSpecies<Integer> INTS = AVAILABLE
+        ? VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2))
+        : null;
+  }
+
+  /** Same as {@code (int) (a + 0.5)} applied to each lane. */
+  private static IntVector nint(final DoubleVector a) {
+    return toInts(a.add(0.5));
+  }
+
+  /** Same as {@code (int) a} applied to each lane (with saturation, as a Java cast). */
+  private static IntVector toInts(final DoubleVector a) {
+    return (IntVector) a.convertShape(VectorOperators.D2I, Species.INTS, 0);
+  }
+
+  /** Same as {@code (double) a} applied to each lane. */
+  private static DoubleVector toDoubles(final IntVector a) {
+    return (DoubleVector) a.convertShape(VectorOperators.I2D, Species.DOUBLES, 0);
+  }
+}
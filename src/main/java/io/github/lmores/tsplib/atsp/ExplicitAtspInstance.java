@@ -1,5 +1,9 @@
 package io.github.lmores.tsplib.atsp;
 
+import java.util.concurrent.Executor;
+
+import io.github.lmores.tsplib.EdgeWeightMatrix;
+import io.github.lmores.tsplib.NodeCoordinates;
 import io.github.lmores.tsplib.TsplibFileData;
 import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
 
@@ -14,21 +18,32 @@ public record ExplicitAtspInstance(
     String comment,
     EdgeWeightType edgeWeightType,
     int dimension,
-    double[][] nodeCoords,
+    NodeCoordinates coordinates,
     double[][] displayCoords,
     int[][] fixedEdges,
-    int[][] edgeWeights
+    EdgeWeightMatrix edgeWeights
 ) implements AtspInstance {
 
   public static ExplicitAtspInstance from(final TsplibFileData data) {
     return new ExplicitAtspInstance(
         data.name(), data.comment(), data.edgeWeightType(), data.dimension(),
-        data.nodeCoords(), data.displayCoords(), data.fixedEdges(), data.edgeWeights()
+        data.coordinates(), data.displayCoords(), data.fixedEdges(), data.edgeWeights()
     );
   }
 
   @Override
   public int getEdgeWeight(final int i, final int j) {
-    return edgeWeights[i][j];
+    return edgeWeights.get(i, j);
+  }
+
+  /**
+   * Returns the matrix of edge weights held by this instance (nothing is computed).
+   *
+   * @param executor  ignored
+   * @return          the explicit edge weights
+   */
+  @Override
+  public EdgeWeightMatrix materializeEdgeWeights(final Executor executor) {
+    return edgeWeights;
   }
 }
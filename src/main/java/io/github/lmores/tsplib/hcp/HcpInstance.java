@@ -5,6 +5,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import io.github.lmores.tsplib.BaseInstance;
+import io.github.lmores.tsplib.NodeCoordinates;
 import io.github.lmores.tsplib.TsplibFileData;
 import io.github.lmores.tsplib.TsplibFileFormat.EdgeDataFormat;
 import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
@@ -20,7 +21,7 @@ public record HcpInstance(
     String comment,
     EdgeWeightType edgeWeightType,
     int dimension,
-    double[][] nodeCoords,
+    NodeCoordinates coordinates,
     double[][] displayCoords,
     int[][] fixedEdges,
     Set<SimpleImmutableEntry<Integer,Integer>> edges
@@ -35,7 +36,7 @@ public record HcpInstance(
   public static HcpInstance from(final TsplibFileData data) {
     return new HcpInstance(
         data.name(), data.comment(), data.edgeWeightType(), data.dimension(),
-        data.nodeCoords(), data.displayCoords(), data.fixedEdges(),
+        data.coordinates(), data.displayCoords(), data.fixedEdges(),
         buildEdgeSet(data.edges(), data.edgeDataFormat())
     );
   }
@@ -25,7 +25,10 @@
  * the method {@link io.github.lmores.tsplib.tsp.TspInstance#getEdgeWeight}
  * is called.
  * You can obtain an in memory copy of all the edge weights using the method
- * {@link io.github.lmores.tsplib.tsp.TspInstance#materializeEdgeWeightsMatrix}.
+ * {@link io.github.lmores.tsplib.tsp.TspInstance#materializeEdgeWeightsMatrix}
+ * or, for large instances, with
+ * {@link io.github.lmores.tsplib.BaseInstance#materializeEdgeWeights()}, which
+ * computes them in parallel and stores only one triangle of symmetric matrices.
  *
  * @author   Lorenzo Moreschini
  * @since    0.0.1
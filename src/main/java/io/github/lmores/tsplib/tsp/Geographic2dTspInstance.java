@@ -1,18 +1,24 @@
 package io.github.lmores.tsplib.tsp;
 
+import io.github.lmores.tsplib.NodeCoordinates;
 import io.github.lmores.tsplib.TsplibFileData;
 import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
 import io.github.lmores.tsplib.TsplibUtil;
 
 /**
  * TSP instance with edge weights computed using the haversine distance.
+ *
+ * The latitude and longitude of each node are converted from the DDD.MM
+ * format to radians once (see {@link NodeCoordinates#toRadians()}), so that
+ * computing an edge weight only evaluates the trigonometric functions. Edge
+ * weights are the same returned by {@link TsplibUtil#roundedHaversineDistance}.
  */
 public record Geographic2dTspInstance(
     String name,
     String comment,
     EdgeWeightType edgeWeightType,
     int dimension,
-    double[][] nodeCoords,
+    NodeCoordinates coordinates,
     double[][] displayCoords,
     int[][] fixedEdges
 ) implements TspInstance {
@@ -20,14 +26,38 @@ public record Geographic2dTspInstance(
   public static Geographic2dTspInstance from(final TsplibFileData data) {
     return new Geographic2dTspInstance(
         data.name(), data.comment(), data.edgeWeightType(), data.dimension(),
-        data.nodeCoords(), data.displayCoords(), data.fixedEdges()
+        data.coordinates(), data.displayCoords(), data.fixedEdges()
     );
   }
 
   @Override
   public int getEdgeWeight(final int i, final int j) {
-    final double[] x = nodeCoords[i];
-    final double[] y = nodeCoords[j];
-    return TsplibUtil.roundedHaversineDistance(x[0], x[1], y[0], y[1]);
+    final double[][] r = coordinates.toRadians();
+    return TsplibUtil.roundedHaversineDistanceOfRadians(r[0][i], r[1][i], r[0][j], r[1][j]);
   }
-}
\ No newline at end of file
+
+  @Override
+  public void getEdgeWeights(final int i, final int[] targets, final int[] out) {
+    final double[][] r = coordinates.toRadians();
+    final double[] lats = r[0];
+    final double[] lons = r[1];
+    final double lat = lats[i];
+    final double lon = lons[i];
+    for (int k = 0; k < targets.length; ++k) {
+      final int j = targets[k];
+      out[k] = TsplibUtil.roundedHaversineDistanceOfRadians(lat, lon, lats[j], lons[j]);
+    }
+  }
+
+  @Override
+  public void getEdgeWeights(final int i, final int from, final int to, final int[] out) {
+    final double[][] r = coordinates.toRadians();
+    final double[] lats = r[0];
+    final double[] lons = r[1];
+    final double lat = lats[i];
+    final double lon = lons[i];
+    for (int j = from; j < to; ++j) {
+      out[j - from] = TsplibUtil.roundedHaversineDistanceOfRadians(lat, lon, lats[j], lons[j]);
+    }
+  }
+}
@@ -2,6 +2,7 @@ package io.github.lmores.tsplib.tsp;
 
 import java.util.function.BiFunction;
 
+import io.github.lmores.tsplib.NodeCoordinates;
 import io.github.lmores.tsplib.TsplibFileData;
 import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
 
@@ -13,7 +14,7 @@ public record Special2dTspInstance(
     String comment,
     EdgeWeightType edgeWeightType,
     int dimension,
-    double[][] nodeCoords,
+    NodeCoordinates coordinates,
     double[][] displayCoords,
     int[][] fixedEdges,
     BiFunction<double[], double[], Integer> edgeWeightFunc
@@ -30,12 +31,13 @@ public record Special2dTspInstance(
 
     return new Special2dTspInstance(
         data.name(), data.comment(), data.edgeWeightType(), data.dimension(),
-        data.nodeCoords(), data.displayCoords(), data.fixedEdges(), edgeWeightFunc
+        data.coordinates(), data.displayCoords(), data.fixedEdges(), edgeWeightFunc
     );
   }
 
   @Override
   public int getEdgeWeight(final int i, final int j) {
+    final double[][] nodeCoords = coordinates.toArray();
     return edgeWeightFunc.apply(nodeCoords[i], nodeCoords[j]);
   }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package io.github.lmores.tsplib.tsp;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 
 import io.github.lmores.tsplib.BaseInstance;
@@ -105,6 +107,48 @@ public interface TspInstance extends BaseInstance {
     return TspInstance.from(TsplibFileData.read(file), edgeWeightFunc);
   }
 
+  /**
+   * Loads a TSP instance from a file in TSPLIB format asynchronously,
+   * using the default asynchronous executor of {@link CompletableFuture}.
+   *
+   * @param file  the file containing the instance data
+   * @return      a future completed with the TSP instance
+   */
+  public static CompletableFuture<TspInstance> readAsync(final Path file) {
+    return readAsync(TsplibFileData.readAsync(file), null);
+  }
+
+  /**
+   * Loads a TSP instance from a file in TSPLIB format asynchronously, using
+   * the provided executor and the provided function to compute edge weights
+   * if the edge weight format is 'SPECIAL'.
+   *
+   * Cancelling the returned future stops parsing the file, see
+   * {@link TsplibFileData#readAsync(Path, Executor, TsplibFileData.ReadOption...)}.
+   *
+   * @param file            the file containing the instance data
+   * @param edgeWeightFunc  a custom function to compute edge weights
+   * @param executor        the executor running the read
+   * @return                a future completed with the TSP instance
+   */
+  public static CompletableFuture<TspInstance> readAsync(
+      final Path file, final BiFunction<double[], double[], Integer> edgeWeightFunc,
+      final Executor executor
+  ) {
+    return readAsync(TsplibFileData.readAsync(file, executor), edgeWeightFunc);
+  }
+
+  private static CompletableFuture<TspInstance> readAsync(
+      final CompletableFuture<TsplibFileData> data,
+      final BiFunction<double[], double[], Integer> edgeWeightFunc
+  ) {
+    final CompletableFuture<TspInstance> instance = data.thenApply(d -> from(d, edgeWeightFunc));
+    instance.whenComplete((i, e) -> {
+      if (instance.isCancelled())  data.cancel(true);
+    });
+    return instance;
+  }
+
   /**
    * Checks whether there esists an edge joining nodes {@code i} and {@code j}.
    * Since each {@link TspInstance} is defined on a complete graph, this method
@@ -117,4 +161,16 @@ public interface TspInstance extends BaseInstance {
   public default boolean hasEdge(final int i, final int j) {
     return 0 <= i && i < dimension() && 0 <= j && j < dimension() && i != j;
   }
+
+  /**
+   * Returns true, since the weight of an edge of a TSP instance does not
+   * depend on its direction.
+   *
+   * @return  true
+   * @since   0.0.4
+   */
+  @Override
+  public default boolean isSymmetric() {
+    return true;
+  }
 }
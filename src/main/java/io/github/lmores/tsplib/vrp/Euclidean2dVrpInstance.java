@@ -1,5 +1,6 @@
 package io.github.lmores.tsplib.vrp;
 
+import io.github.lmores.tsplib.NodeCoordinates;
 import io.github.lmores.tsplib.TsplibFileData;
 import io.github.lmores.tsplib.TsplibUtil;
 import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
@@ -12,7 +13,7 @@ public record Euclidean2dVrpInstance(
     String comment,
     EdgeWeightType edgeWeightType,
     int dimension,
-    double[][] nodeCoords,
+    NodeCoordinates coordinates,
     double[][] displayCoords,
     int[][] fixedEdges
 ) implements VrpInstance {
@@ -20,14 +21,23 @@ public record Euclidean2dVrpInstance(
   public static Euclidean2dVrpInstance from(final TsplibFileData data) {
     return new Euclidean2dVrpInstance(
         data.name(), data.comment(), data.edgeWeightType(), data.dimension(),
-        data.nodeCoords(), data.displayCoords(), data.fixedEdges()
+        data.coordinates(), data.displayCoords(), data.fixedEdges()
     );
   }
 
   @Override
   public int getEdgeWeight(final int i, final int j) {
-    final double[] x = nodeCoords[i];
-    final double[] y = nodeCoords[j];
-    return TsplibUtil.roundedEuclideanDistance(x[0], x[1], y[0], y[1]);
+    final NodeCoordinates c = coordinates;
+    return TsplibUtil.roundedEuclideanDistance(c.x(i), c.y(i), c.x(j), c.y(j));
+  }
+
+  @Override
+  public void getEdgeWeights(final int i, final int[] targets, final int[] out) {
+    TsplibUtil.fillDistances(EdgeWeightType.EUC_2D, coordinates, i, targets, out);
+  }
+
+  @Override
+  public void getEdgeWeights(final int i, final int from, final int to, final int[] out) {
+    TsplibUtil.fillDistances(EdgeWeightType.EUC_2D, coordinates, i, from, to, out);
   }
 }
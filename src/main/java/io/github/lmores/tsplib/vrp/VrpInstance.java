@@ -2,6 +2,8 @@ package io.github.lmores.tsplib.vrp;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 
 import io.github.lmores.tsplib.BaseInstance;
@@ -101,6 +103,48 @@ public interface VrpInstance extends BaseInstance {
     return VrpInstance.from(TsplibFileData.read(file), edgeWeightFunc);
   }
 
+  /**
+   * Loads a VRP instance from a file in TSPLIB format asynchronously,
+   * using the default asynchronous executor of {@link CompletableFuture}.
+   *
+   * @param file  the file containing the instance data
+   * @return      a future completed with the VRP instance
+   */
+  public static CompletableFuture<VrpInstance> readAsync(final Path file) {
+    return readAsync(TsplibFileData.readAsync(file), null);
+  }
+
+  /**
+   * Loads a VRP instance from a file in TSPLIB format asynchronously, using
+   * the provided executor and the provided function to compute edge weights
+   * if the edge weight format is 'SPECIAL'.
+   *
+   * Cancelling the returned future stops parsing the file, see
+   * {@link TsplibFileData#readAsync(Path, Executor, TsplibFileData.ReadOption...)}.
+   *
+   * @param file            the file containing the instance data
+   * @param edgeWeightFunc  a custom function to compute edge weights
+   * @param executor        the executor running the read
+   * @return                a future completed with the VRP instance
+   */
+  public static CompletableFuture<VrpInstance> readAsync(
+      final Path file, final BiFunction<double[], double[], Integer> edgeWeightFunc,
+      final Executor executor
+  ) {
+    return readAsync(TsplibFileData.readAsync(file, executor), edgeWeightFunc);
+  }
+
+  private static CompletableFuture<VrpInstance> readAsync(
+      final CompletableFuture<TsplibFileData> data,
+      final BiFunction<double[], double[], Integer> edgeWeightFunc
+  ) {
+    final CompletableFuture<VrpInstance> instance = data.thenApply(d -> from(d, edgeWeightFunc));
+    instance.whenComplete((i, e) -> {
+      if (instance.isCancelled())  data.cancel(true);
+    });
+    return instance;
+  }
+
   /**
    * Checks whether there esists an edge joining nodes {@code i} and {@code j}.
    *
@@ -114,4 +158,16 @@ public interface VrpInstance extends BaseInstance {
   public default boolean hasEdge(final int i, final int j) {
     return 0 <= i && i < dimension() && 0 <= j && j < dimension() && i != j;
   }
+
+  /**
+   * Returns true, since the weight of an edge of a VRP instance does not
+   * depend on its direction.
+   *
+   * @return  true
+   * @since   0.0.4
+   */
+  @Override
+  public default boolean isSymmetric() {
+    return true;
+  }
 }
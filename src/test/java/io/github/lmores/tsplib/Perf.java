@@ -1,12 +1,39 @@
 package io.github.lmores.tsplib;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.function.BiFunction;
 
 public class Perf {
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException {
+    parsePerf(10, "pla85900.tsp", "usa13509.tsp", "si1032.tsp");
     lambdaPerf(10_000);
   }
 
+  private static void parsePerf(final int repetitions, final String... filenames) throws IOException {
+    for (final String fname: filenames) {
+      final byte[] content;
+      try (final InputStream is = TsplibArchive.getTspFileInputStream(fname)) {
+        content = is.readAllBytes();
+      }
+
+      for (int i = 0; i < repetitions; ++i) {
+        TsplibFileData.read(new ByteArrayInputStream(content));
+      }
+
+      final double start = System.nanoTime();
+      for (int i = 0; i < repetitions; ++i) {
+        TsplibFileData.read(new ByteArrayInputStream(content));
+      }
+      final double seconds = (System.nanoTime() - start) / 1e9 / repetitions;
+      System.out.println(
+          "Parsing " + fname + " took " + (seconds * 1e3) + " ms (" +
+          (content.length / 1e6 / seconds) + " MB/s)"
+      );
+    }
+  }
+
   private static void lambdaPerf(final int repetitions) {
     double start = System.currentTimeMillis();
     for (int i = 0; i < repetitions; ++i) {
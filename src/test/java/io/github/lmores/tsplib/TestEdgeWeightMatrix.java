@@ -0,0 +1,115 @@
+package io.github.lmores.tsplib;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.lmores.tsplib.atsp.ExplicitAtspInstance;
+import io.github.lmores.tsplib.hcp.HcpInstance;
+import io.github.lmores.tsplib.tsp.ExplicitTspInstance;
+import io.github.lmores.tsplib.tsp.TspInstance;
+
+public class TestEdgeWeightMatrix {
+
+  @Test
+  public void testPackedSymmetric() {
+    final int[][] weights = {{0, 1, 2}, {1, 0, 3}, {2, 3, 0}};
+    final EdgeWeightMatrix m = EdgeWeightMatrix.of(weights);
+    Assertions.assertTrue(m.isSymmetric());
+    Assertions.assertEquals(3, m.dimension());
+    Assertions.assertArrayEquals(weights, m.toArray());
+
+    final EdgeWeightMatrix p = EdgeWeightMatrix.packedSymmetric(3, new int[] {0, 1, 0, 2, 3, 0});
+    Assertions.assertArrayEquals(weights, p.toArray());
+
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> EdgeWeightMatrix.packedSymmetric(3, new int[5])
+    );
+    Assertions.assertThrows(IllegalArgumentException.class, () -> PackedEdgeWeightMatrix.length(70_000));
+  }
+
+  @Test
+  public void testFull() {
+    final int[][] weights = {{0, 1, 2}, {4, 0, 3}, {2, 5, 0}};
+    final EdgeWeightMatrix m = EdgeWeightMatrix.of(weights);
+    Assertions.assertFalse(m.isSymmetric());
+    Assertions.assertArrayEquals(weights, m.toArray());
+
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> EdgeWeightMatrix.full(new int[][] {{0, 1}, {1}})
+    );
+  }
+
+  @Test
+  public void testSymmetricInstancesArePacked() throws IOException {
+    for (final String fname: new String[] {"gr17.tsp", "si175.tsp", "bayg29.tsp", "brazil58.tsp", "pa561.tsp"}) {
+      final ExplicitTspInstance instance = (ExplicitTspInstance) TsplibArchive.loadTspInstance(fname);
+      Assertions.assertTrue(instance.edgeWeights().isSymmetric(), fname);
+      for (int i = 0, n = instance.dimension(); i < n; ++i) {
+        for (int j = 0; j < n; ++j) {
+          Assertions.assertEquals(instance.getEdgeWeight(i, j), instance.getEdgeWeight(j, i), fname);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testNarrowing() {
+    Assertions.assertEquals(Byte.BYTES, weightSize(EdgeWeightMatrix.of(new int[][] {{0, 127}, {-128, 0}})));
+    Assertions.assertEquals(Short.BYTES, weightSize(EdgeWeightMatrix.of(new int[][] {{0, 128}, {128, 0}})));
+    Assertions.assertEquals(Short.BYTES, weightSize(EdgeWeightMatrix.of(new int[][] {{0, 1}, {-32768, 0}})));
+    Assertions.assertEquals(Integer.BYTES, weightSize(EdgeWeightMatrix.of(new int[][] {{0, 1000000}, {1000000, 0}})));
+
+    final int[][] weights = {{0, -5, 40000}, {-5, 0, 7}, {40000, 7, 0}};
+    final EdgeWeightMatrix m = EdgeWeightMatrix.of(weights);
+    Assertions.assertEquals(Integer.BYTES, weightSize(m));
+    Assertions.assertArrayEquals(weights, m.toArray());
+  }
+
+  @Test
+  public void testNarrowedInstances() throws IOException {
+    final ExplicitTspInstance gr17 = (ExplicitTspInstance) TsplibArchive.loadTspInstance("gr17.tsp");
+    Assertions.assertEquals(Short.BYTES, weightSize(gr17.edgeWeights()));
+    Assertions.assertEquals(633, gr17.getEdgeWeight(0, 1));
+
+    final ExplicitTspInstance si175 = (ExplicitTspInstance) TsplibArchive.loadTspInstance("si175.tsp");
+    Assertions.assertEquals(Short.BYTES, weightSize(si175.edgeWeights()));
+  }
+
+  @Test
+  public void testMaterializeEdgeWeights() throws IOException {
+    final ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      for (final String fname: new String[] {"a280.tsp", "gr666.tsp", "att532.tsp", "pcb1173.tsp"}) {
+        final TspInstance instance = TsplibArchive.loadTspInstance(fname);
+        final int[][] expected = instance.materializeEdgeWeightsMatrix();
+
+        final EdgeWeightMatrix m = instance.materializeEdgeWeights(executor);
+        Assertions.assertTrue(m.isSymmetric(), fname);
+        Assertions.assertArrayEquals(expected, m.toArray(), fname);
+        Assertions.assertArrayEquals(expected, instance.materializeEdgeWeights().toArray(), fname);
+      }
+
+      final ExplicitAtspInstance ftv33 =
+          (ExplicitAtspInstance) TsplibArchive.loadAtspInstance("ftv33.atsp");
+      Assertions.assertFalse(ftv33.isSymmetric());
+      Assertions.assertSame(ftv33.edgeWeights(), ftv33.materializeEdgeWeights(executor));
+
+      // Not symmetric as far as BaseInstance is concerned: all the rows are computed
+      final HcpInstance alb1000 = TsplibArchive.loadHcpInstance("alb1000.hcp");
+      final EdgeWeightMatrix m = alb1000.materializeEdgeWeights(executor);
+      Assertions.assertFalse(m.isSymmetric());
+      Assertions.assertArrayEquals(alb1000.materializeEdgeWeightsMatrix(), m.toArray());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static int weightSize(final EdgeWeightMatrix m) {
+    if (m instanceof PackedEdgeWeightMatrix p)  return p.weightSize();
+    return ((FullEdgeWeightMatrix) m).weightSize();
+  }
+}
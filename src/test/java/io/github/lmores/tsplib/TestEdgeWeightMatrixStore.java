@@ -0,0 +1,173 @@
+package io.github.lmores.tsplib;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
+import io.github.lmores.tsplib.TsplibFileFormat.TsplibFileFormatException;
+import io.github.lmores.tsplib.atsp.AtspInstance;
+import io.github.lmores.tsplib.tsp.Euclidean2dTspInstance;
+import io.github.lmores.tsplib.tsp.ExplicitTspInstance;
+import io.github.lmores.tsplib.tsp.Special2dTspInstance;
+import io.github.lmores.tsplib.tsp.TspInstance;
+
+public class TestEdgeWeightMatrixStore {
+
+  @TempDir
+  Path tmpDir;
+
+  @Test
+  public void testWriteThenMap() throws IOException {
+    final Path dir = tmpDir.resolve("matrices");
+    final EdgeWeightMatrixStore store = new EdgeWeightMatrixStore(dir);
+    for (final BaseInstance instance: new BaseInstance[] {
+        TsplibArchive.loadTspInstance("a280.tsp"), TsplibArchive.loadAtspInstance("ftv33.atsp")
+    }) {
+      final Path file = store.pathOf(instance);
+      Assertions.assertFalse(Files.exists(file));
+
+      final MaterializedInstance written = store.load(instance);
+      Assertions.assertTrue(Files.exists(file));
+      Assertions.assertEquals(instance.isSymmetric(), written.matrix().isSymmetric());
+      Assertions.assertArrayEquals(
+          instance.materializeEdgeWeightsMatrix(), written.materializeEdgeWeightsMatrix()
+      );
+
+      // A later load, e.g. by another process, maps the existing file
+      final FileTime modified = FileTime.fromMillis(0);
+      Files.setLastModifiedTime(file, modified);
+      final MaterializedInstance mapped = new EdgeWeightMatrixStore(dir).load(instance);
+      Assertions.assertEquals(modified, Files.getLastModifiedTime(file));
+      Assertions.assertArrayEquals(
+          instance.materializeEdgeWeightsMatrix(), mapped.materializeEdgeWeightsMatrix()
+      );
+    }
+
+    try (final Stream<Path> files = Files.list(dir)) {
+      Assertions.assertEquals(2, files.count());  // no temporary file left
+    }
+  }
+
+  @Test
+  public void testInstanceIdentity() throws IOException {
+    final EdgeWeightMatrixStore store = new EdgeWeightMatrixStore(tmpDir);
+    final TspInstance a280 = TsplibArchive.loadTspInstance("a280.tsp");
+    final TspInstance copy = TsplibArchive.loadTspInstance("a280.tsp");
+    Assertions.assertEquals(store.pathOf(a280), store.pathOf(copy));
+
+    // Same name, different coordinates
+    final double[] xs = a280.coordinates().xs().clone();
+    xs[0] += 1;
+    final TspInstance moved = new Euclidean2dTspInstance(
+        a280.name(), a280.comment(), a280.edgeWeightType(), a280.dimension(),
+        new NodeCoordinates(xs, a280.coordinates().ys(), null), null, null
+    );
+    Assertions.assertNotEquals(store.pathOf(a280), store.pathOf(moved));
+    store.load(a280);
+    Assertions.assertArrayEquals(
+        moved.materializeEdgeWeightsMatrix(), store.load(moved).materializeEdgeWeightsMatrix()
+    );
+  }
+
+  @Test
+  public void testSpecialWeightsIdentity() throws IOException {
+    final EdgeWeightMatrixStore store = new EdgeWeightMatrixStore(tmpDir);
+    final NodeCoordinates coords = TsplibArchive.loadTspInstance("a280.tsp").coordinates();
+    final Special2dTspInstance s1 = special(coords, (a, b) -> 1);
+    final Special2dTspInstance s2 = special(coords, (a, b) -> 99);
+
+    Assertions.assertNotEquals(store.pathOf(s1), store.pathOf(s2));
+    Assertions.assertEquals(1, store.load(s1).getEdgeWeight(0, 1));
+    Assertions.assertEquals(99, store.load(s2).getEdgeWeight(0, 1));
+  }
+
+  @Test
+  public void testKeyedLoad() throws IOException {
+    final EdgeWeightMatrixStore store = new EdgeWeightMatrixStore(tmpDir);
+    final NodeCoordinates coords = TsplibArchive.loadTspInstance("a280.tsp").coordinates();
+    final AtomicInteger calls = new AtomicInteger();
+    final Special2dTspInstance s1 = special(coords, (a, b) -> {
+      calls.incrementAndGet();
+      return 7;
+    });
+    Assertions.assertEquals(7, store.load(s1, "v1").getEdgeWeight(0, 1));
+    Assertions.assertTrue(calls.get() > 0);
+
+    // An existing file is mapped without computing any weight
+    calls.set(0);
+    final Special2dTspInstance s2 = special(coords, (a, b) -> {
+      calls.incrementAndGet();
+      return 8;
+    });
+    Assertions.assertEquals(store.pathOf(s1, "v1"), store.pathOf(s2, "v1"));
+    Assertions.assertEquals(7, store.load(s2, "v1").getEdgeWeight(0, 1));
+    Assertions.assertEquals(0, calls.get());
+
+    Assertions.assertNotEquals(store.pathOf(s2, "v1"), store.pathOf(s2, "v2"));
+    Assertions.assertNotEquals(store.pathOf(s2, "v1"), store.pathOf(s2));
+    Assertions.assertEquals(8, store.load(s2, "v2").getEdgeWeight(0, 1));
+  }
+
+  @Test
+  public void testExplicitWeightsIdentity() throws IOException {
+    final EdgeWeightMatrixStore store = new EdgeWeightMatrixStore(tmpDir);
+    final int n = 50;
+    final int[][] weights = new int[n][n];
+    for (int i = 0; i < n; ++i) {
+      for (int j = 0; j < n; ++j)  weights[i][j] = i == j ? 0 : 40;
+    }
+    final ExplicitTspInstance e1 = explicit(weights);
+
+    // A single pair differs
+    final int[][] changed = new int[n][];
+    for (int i = 0; i < n; ++i)  changed[i] = weights[i].clone();
+    changed[10][30] = changed[30][10] = 1000;
+    final ExplicitTspInstance e2 = explicit(changed);
+
+    Assertions.assertNotEquals(store.pathOf(e1), store.pathOf(e2));
+    Assertions.assertEquals(40, store.load(e1).getEdgeWeight(10, 30));
+    Assertions.assertEquals(1000, store.load(e2).getEdgeWeight(10, 30));
+    Assertions.assertEquals(store.pathOf(e1), store.pathOf(explicit(weights)));
+  }
+
+  @Test
+  public void testInvalidFile() throws IOException {
+    final EdgeWeightMatrixStore store = new EdgeWeightMatrixStore(tmpDir);
+    final AtspInstance instance = TsplibArchive.loadAtspInstance("ftv33.atsp");
+    final Path file = store.pathOf(instance);
+
+    Files.write(file, new byte[] {1, 2, 3});
+    Assertions.assertThrows(TsplibFileFormatException.class, () -> store.load(instance));
+
+    Files.delete(file);
+    store.load(instance);
+    final byte[] content = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(content, content.length - 4));
+    Assertions.assertThrows(TsplibFileFormatException.class, () -> store.load(instance));
+  }
+
+  private static Special2dTspInstance special(
+      final NodeCoordinates coords, final BiFunction<double[], double[], Integer> func
+  ) {
+    return new Special2dTspInstance(
+        "special", "", EdgeWeightType.SPECIAL, coords.dimension(), coords, null, null, func
+    );
+  }
+
+  private static ExplicitTspInstance explicit(final int[][] weights) {
+    return new ExplicitTspInstance(
+        "explicit", "", EdgeWeightType.EXPLICIT, weights.length, null, null, null,
+        EdgeWeightMatrix.of(weights)
+    );
+  }
+}
@@ -0,0 +1,96 @@
+package io.github.lmores.tsplib;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.lmores.tsplib.atsp.AtspInstance;
+import io.github.lmores.tsplib.tsp.TspInstance;
+
+public class TestEdgeWeightRowCache {
+
+  @Test
+  public void testCachedWeights() throws IOException {
+    final TspInstance instance = TsplibArchive.loadTspInstance("a280.tsp");
+    final int n = instance.dimension();
+    final EdgeWeightRowCache cache = new EdgeWeightRowCache(instance, 10 * (16 + 4L * n));
+    Assertions.assertEquals(10, cache.capacity());
+    Assertions.assertSame(instance, cache.instance());
+    Assertions.assertEquals(instance.name(), cache.name());
+
+    for (int i = 0; i < n; ++i) {
+      for (int j = 0; j < n; ++j) {
+        Assertions.assertEquals(instance.getEdgeWeight(i, j), cache.getEdgeWeight(i, j));
+      }
+      Assertions.assertTrue(cache.size() <= 10);
+    }
+    Assertions.assertEquals(n, cache.missCount());
+    Assertions.assertEquals(n - 10, cache.evictionCount());
+
+    // Symmetric weights are read from the row of either node
+    final int[] row = cache.row(5);
+    final long misses = cache.missCount();
+    Assertions.assertEquals(row[7], cache.getEdgeWeight(7, 5));
+    Assertions.assertEquals(misses, cache.missCount());
+
+    final int[] targets = {3, 1, 4, 1, 5};
+    final int[] out = new int[targets.length];
+    cache.getEdgeWeights(9, targets, out);
+    for (int k = 0; k < targets.length; ++k) {
+      Assertions.assertEquals(instance.getEdgeWeight(9, targets[k]), out[k]);
+    }
+
+    final int[] tour = {0, 5, 9, 2};
+    Assertions.assertEquals(instance.computeTourValue(tour), cache.computeTourValue(tour));
+  }
+
+  @Test
+  public void testAsymmetricWeights() throws IOException {
+    final AtspInstance instance = TsplibArchive.loadAtspInstance("ftv33.atsp");
+    final EdgeWeightRowCache cache = new EdgeWeightRowCache(instance, 0);
+    Assertions.assertEquals(1, cache.capacity());
+
+    final int n = instance.dimension();
+    for (int i = 0; i < n; ++i) {
+      for (int j = 0; j < n; ++j) {
+        Assertions.assertEquals(instance.getEdgeWeight(i, j), cache.getEdgeWeight(i, j));
+        Assertions.assertEquals(instance.getEdgeWeight(j, i), cache.getEdgeWeight(j, i));
+      }
+    }
+  }
+
+  @Test
+  public void testConcurrentReaders() throws IOException, InterruptedException, ExecutionException {
+    final TspInstance instance = TsplibArchive.loadTspInstance("d18512.tsp");
+    final EdgeWeightRowCache cache = new EdgeWeightRowCache(instance, 1 << 22);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; ++t) {
+        final Random rnd = new Random(t);
+        futures.add(executor.submit(() -> {
+          for (int k = 0; k < 20_000; ++k) {
+            final int i = rnd.nextInt(200);
+            final int j = rnd.nextInt(instance.dimension());
+            Assertions.assertEquals(instance.getEdgeWeight(i, j), cache.getEdgeWeight(i, j));
+          }
+        }));
+      }
+      for (final Future<?> f: futures)  f.get();
+    } finally {
+      executor.shutdown();
+    }
+
+    Assertions.assertTrue(cache.size() <= cache.capacity());
+    Assertions.assertTrue(cache.evictionCount() > 0);
+  }
+}
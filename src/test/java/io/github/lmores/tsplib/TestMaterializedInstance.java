@@ -0,0 +1,72 @@
+package io.github.lmores.tsplib;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.lmores.tsplib.atsp.AtspInstance;
+import io.github.lmores.tsplib.tsp.TspInstance;
+
+public class TestMaterializedInstance {
+
+  @Test
+  public void testOffHeapLayouts() throws IOException {
+    final TspInstance instance = TsplibArchive.loadTspInstance("a280.tsp");
+    final int[][] expected = instance.materializeEdgeWeightsMatrix();
+
+    final MaterializedInstance packed = MaterializedInstance.offHeap(instance);
+    Assertions.assertTrue(packed.matrix().isSymmetric());
+    Assertions.assertSame(instance, packed.instance());
+    Assertions.assertEquals(instance.name(), packed.name());
+    Assertions.assertArrayEquals(expected, packed.materializeEdgeWeightsMatrix());
+
+    final MaterializedInstance full =
+        MaterializedInstance.offHeap(instance, false, ForkJoinPool.commonPool());
+    Assertions.assertFalse(full.matrix().isSymmetric());
+    Assertions.assertArrayEquals(expected, full.matrix().toArray());
+
+    final int[] tour = {0, 5, 9, 2};
+    Assertions.assertEquals(instance.computeTourValue(tour), packed.computeTourValue(tour));
+  }
+
+  @Test
+  public void testAsymmetricInstance() throws IOException {
+    final AtspInstance instance = TsplibArchive.loadAtspInstance("ftv33.atsp");
+    final MaterializedInstance offHeap = MaterializedInstance.offHeap(instance);
+    Assertions.assertFalse(offHeap.matrix().isSymmetric());
+    Assertions.assertArrayEquals(
+        instance.materializeEdgeWeightsMatrix(), offHeap.materializeEdgeWeightsMatrix()
+    );
+
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> MaterializedInstance.offHeap(instance, true, ForkJoinPool.commonPool())
+    );
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> new MaterializedInstance(instance, EdgeWeightMatrix.of(new int[2][2]))
+    );
+  }
+
+  @Test
+  public void testRowsSpanningChunks() throws IOException {
+    final TspInstance instance = TsplibArchive.loadTspInstance("pcb442.tsp");
+    final int n = instance.dimension();
+    for (final boolean packed: new boolean[] {true, false}) {
+      // Chunks of 1024 ints, shorter than many rows
+      final ChunkedEdgeWeightMatrix m = ChunkedEdgeWeightMatrix.allocateDirect(n, packed, 10);
+      Assertions.assertEquals(
+          (ChunkedEdgeWeightMatrix.length(n, packed) + 1023) / 1024, m.chunks().length
+      );
+
+      EdgeWeightMaterializer.fill(instance, m, ForkJoinPool.commonPool());
+      for (int i = 0; i < n; ++i) {
+        for (int j = 0; j < n; ++j) {
+          Assertions.assertEquals(instance.getEdgeWeight(i, j), m.get(i, j));
+        }
+      }
+    }
+  }
+}
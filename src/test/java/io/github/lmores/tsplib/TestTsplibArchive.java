@@ -1,6 +1,12 @@
 package io.github.lmores.tsplib;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -141,4 +147,51 @@ public class TestTsplibArchive {
     }
     Assertions.assertEquals(16, instanceCount);
   }
+
+  @Test
+  public void testParallelBulkLoad() throws IOException {
+    Assertions.assertEquals(
+        Arrays.asList(TsplibArchive.extractAtspFilenames()),
+        new ArrayList<>(TsplibArchive.loadAtspInstances().keySet())
+    );
+    Assertions.assertEquals(9, TsplibArchive.loadHcpInstances().size());
+    Assertions.assertEquals(41, TsplibArchive.loadSopInstances().size());
+    Assertions.assertEquals(16, TsplibArchive.loadVrpInstances().size());
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final Map<String, TspInstance> instances =
+          TsplibArchive.loadTspInstances(fname -> fname.startsWith("gr"), executor);
+      final List<String> expected = Arrays.stream(TsplibArchive.extractTspFilenames())
+          .filter(fname -> fname.startsWith("gr") && fname.endsWith(".tsp"))
+          .toList();
+      Assertions.assertEquals(expected, new ArrayList<>(instances.keySet()));
+
+      for (final String fname: expected) {
+        final TspInstance instance = TsplibArchive.loadTspInstance(fname);
+        Assertions.assertEquals(instance.dimension(), instances.get(fname).dimension());
+        Assertions.assertEquals(instance.getEdgeWeight(0, 1), instances.get(fname).getEdgeWeight(0, 1));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testManifest() throws IOException {
+    Assertions.assertEquals(TsplibArchiveManifest.generate(), TsplibArchive.getManifest());
+
+    final TsplibArchiveEntry a280 = TsplibArchive.getManifestEntry("a280.tsp");
+    Assertions.assertEquals("tsp", a280.directory());
+    Assertions.assertEquals("a280", a280.instanceName());
+    Assertions.assertEquals(TsplibFileFormat.ProblemType.TSP, a280.type());
+    Assertions.assertEquals(280, a280.dimension());
+    Assertions.assertEquals(TsplibFileFormat.EdgeWeightType.EUC_2D, a280.edgeWeightType());
+    Assertions.assertTrue(a280.byteLength() > 0);
+    Assertions.assertTrue(a280.hasOptTour());
+    Assertions.assertEquals(2579, a280.optimum());
+
+    Assertions.assertEquals("a280", TsplibArchive.getManifestEntry("a280.opt.tour").instanceName());
+    Assertions.assertNull(TsplibArchive.getManifestEntry("xray.problems"));
+  }
 }
@@ -0,0 +1,103 @@
+package io.github.lmores.tsplib;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.lmores.tsplib.TsplibFileFormat.TsplibFileFormatException;
+
+public class TestTsplibBinaryFormat {
+
+  @TempDir
+  Path tmpDir;
+
+  @Test
+  public void testRoundTrip() throws IOException, URISyntaxException {
+    final String[] filenames = {
+      "tsp/a280.tsp", "tsp/si175.tsp", "tsp/gr17.tsp", "tsp/pa561.tsp", "tsp/linhp318.tsp",
+      "tsp/a280.opt.tour", "atsp/br17.atsp", "sop/ESC07.sop", "vrp/eil22.vrp", "vrp/att48.vrp",
+      "hcp/alb1000.hcp", "hcp/alb1000.opt.tour"
+    };
+
+    for (final String fname: filenames) {
+      final TsplibFileData expected = TsplibFileData.read(TestTsplibFileData.archiveFile(fname));
+      final Path file = tmpDir.resolve(fname.replace('/', '_') + ".bin");
+      TsplibBinaryFormat.write(expected, file);
+      TestTsplibFileData.assertSameData(expected, TsplibBinaryFormat.read(file));
+    }
+  }
+
+  @Test
+  public void testSinglePrecisionRoundTrip() throws IOException, URISyntaxException {
+    final TsplibFileData expected = TsplibFileData.read(
+        TestTsplibFileData.archiveFile("tsp/a280.tsp"), TsplibFileData.ReadOption.SINGLE_PRECISION
+    );
+    final Path file = tmpDir.resolve("a280.bin");
+    TsplibBinaryFormat.write(expected, file);
+
+    final TsplibFileData actual = TsplibBinaryFormat.read(file);
+    TestTsplibFileData.assertSameData(expected, actual);
+    Assertions.assertTrue(actual.coordinates().isSinglePrecision());
+  }
+
+  @Test
+  public void testSymmetricWeightsArePacked() throws IOException, URISyntaxException {
+    final TsplibFileData data = TsplibFileData.read(TestTsplibFileData.archiveFile("tsp/si1032.tsp"));
+    final Path file = tmpDir.resolve("si1032.bin");
+    TsplibBinaryFormat.write(data, file);
+
+    final long n = data.dimension();
+    final int weightSize = ((PackedEdgeWeightMatrix) data.edgeWeights()).weightSize();
+    Assertions.assertTrue(Files.size(file) < n * (n + 1) / 2 * weightSize + 1024);
+
+    final TsplibFileData read = TsplibBinaryFormat.read(file);
+    TestTsplibFileData.assertSameData(data, read);
+    Assertions.assertEquals(weightSize, ((PackedEdgeWeightMatrix) read.edgeWeights()).weightSize());
+  }
+
+  @Test
+  public void testInvalidFile() throws IOException, URISyntaxException {
+    Assertions.assertThrows(
+        TsplibFileFormatException.class,
+        () -> TsplibBinaryFormat.read(TestTsplibFileData.archiveFile("tsp/a280.tsp"))
+    );
+  }
+
+  @Test
+  public void testTruncatedFile() throws IOException, URISyntaxException {
+    final Path file = tmpDir.resolve("a280.bin");
+    final TsplibFileData data = TsplibFileData.read(TestTsplibFileData.archiveFile("tsp/a280.tsp"));
+    TsplibBinaryFormat.write(data, file);
+    final byte[] content = Files.readAllBytes(file);
+
+    final Path truncated = tmpDir.resolve("truncated.bin");
+    for (int length = 0; length < content.length; length += 1 + length / 8) {
+      Files.write(truncated, Arrays.copyOf(content, length));
+      Assertions.assertThrows(
+          TsplibFileFormatException.class, () -> TsplibBinaryFormat.read(truncated),
+          "length " + length
+      );
+    }
+  }
+
+  @Test
+  public void testInvalidLength() throws IOException, URISyntaxException {
+    final Path file = tmpDir.resolve("a280.bin");
+    final TsplibFileData data = TsplibFileData.read(TestTsplibFileData.archiveFile("tsp/a280.tsp"));
+    TsplibBinaryFormat.write(data, file);
+    final byte[] content = Files.readAllBytes(file);
+
+    // The length of the name follows the magic number and the version
+    ByteBuffer.wrap(content).order(ByteOrder.LITTLE_ENDIAN).putInt(8, Integer.MAX_VALUE - 16);
+    Files.write(file, content);
+    Assertions.assertThrows(TsplibFileFormatException.class, () -> TsplibBinaryFormat.read(file));
+  }
+}
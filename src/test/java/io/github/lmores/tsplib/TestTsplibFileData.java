@@ -0,0 +1,279 @@
+package io.github.lmores.tsplib;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.lmores.tsplib.TsplibFileData.ReadOption;
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightFormat;
+import io.github.lmores.tsplib.tsp.TspInstance;
+
+public class TestTsplibFileData {
+
+  @TempDir
+  Path tmpDir;
+
+  @Test
+  public void testMemoryMappedRead() throws IOException, URISyntaxException {
+    final String[] filenames = {
+      "tsp/a280.tsp", "tsp/si175.tsp", "tsp/rd100.opt.tour", "atsp/br17.atsp",
+      "hcp/alb1000.hcp", "sop/ESC07.sop", "vrp/eil22.vrp"
+    };
+
+    for (final String fname: filenames) {
+      final Path file = archiveFile(fname);
+      assertSameData(TsplibFileData.read(file), TsplibFileData.read(file, ReadOption.MEMORY_MAPPED));
+    }
+  }
+
+  @Test
+  public void testParallelRead() throws IOException, URISyntaxException {
+    final String[] filenames = {
+      "tsp/pla85900.tsp", "tsp/si1032.tsp", "tsp/pa561.tsp", "tsp/d18512.tsp", "tsp/a280.tsp",
+      "atsp/rbg443.atsp", "sop/rbg378a.sop"
+    };
+
+    for (final String fname: filenames) {
+      final Path file = archiveFile(fname);
+      final TsplibFileData expected = TsplibFileData.read(file);
+      assertSameData(expected, TsplibFileData.read(file, ReadOption.PARALLEL));
+      assertSameData(expected, TsplibFileData.read(file, ReadOption.MEMORY_MAPPED, ReadOption.PARALLEL));
+    }
+  }
+
+  @Test
+  public void testParallelReadWithTrailingSection() throws IOException {
+    // Weights of varying width make the counting waves underestimate the section end
+    final int n = 400;
+    final Random random = new Random(42);
+    final StringBuilder sb = new StringBuilder(
+        "NAME : trailing\nTYPE : ATSP\nDIMENSION : " + n + "\nEDGE_WEIGHT_TYPE : EXPLICIT\n" +
+        "EDGE_WEIGHT_FORMAT : FULL_MATRIX\nDISPLAY_DATA_TYPE : TWOD_DISPLAY\nEDGE_WEIGHT_SECTION\n"
+    );
+    for (int i = 0; i < n; ++i) {
+      for (int j = 0; j < n; ++j)  sb.append(random.nextInt(i < n / 2 ? 10 : 1000000)).append(' ');
+      sb.append('\n');
+    }
+    sb.append("DISPLAY_DATA_SECTION\n");
+    for (int i = 0; i < n; ++i) {
+      sb.append(i + 1).append(' ').append(i).append(' ').append(-i).append('\n');
+    }
+    sb.append("EOF\n");
+
+    final byte[] content = sb.toString().getBytes(StandardCharsets.US_ASCII);
+    assertSameData(
+        TsplibFileData.read(new ByteArrayInputStream(content)),
+        TsplibFileData.read(new ByteArrayInputStream(content), ReadOption.PARALLEL)
+    );
+  }
+
+  @Test
+  public void testAsyncRead() throws IOException, URISyntaxException {
+    final Path pla85900 = archiveFile("tsp/pla85900.tsp");
+    final Path a280 = archiveFile("tsp/a280.tsp");
+    assertSameData(TsplibFileData.read(pla85900), TsplibFileData.readAsync(pla85900).join());
+    Assertions.assertEquals(280, TspInstance.readAsync(a280).join().dimension());
+
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final CompletableFuture<TsplibFileData> data =
+          TsplibFileData.readAsync(pla85900, executor, ReadOption.MEMORY_MAPPED);
+      Assertions.assertTrue(data.cancel(true));
+      Assertions.assertThrows(CancellationException.class, data::join);
+
+      // The executor thread is not left interrupted
+      final TspInstance instance = TspInstance.readAsync(a280, null, executor).join();
+      Assertions.assertEquals(TspInstance.read(a280).getEdgeWeight(0, 1), instance.getEdgeWeight(0, 1));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testInterruptedRead() throws URISyntaxException {
+    final Path file = archiveFile("tsp/pla85900.tsp");
+    Thread.currentThread().interrupt();
+    try {
+      Assertions.assertThrows(InterruptedIOException.class, () -> TsplibFileData.read(file));
+      Assertions.assertTrue(Thread.currentThread().isInterrupted());
+
+      // Section workers check the interrupt status of the reading thread
+      Assertions.assertThrows(
+          InterruptedIOException.class, () -> TsplibFileData.read(file, ReadOption.PARALLEL)
+      );
+      Assertions.assertTrue(Thread.currentThread().isInterrupted());
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  @Test
+  public void testNodeCoordinates() throws IOException {
+    final String content =
+        "NAME: test\nTYPE: TSP\nDIMENSION: 3\nEDGE_WEIGHT_TYPE: EUC_3D\n" +
+        "NODE_COORD_SECTION\n1 0 1 2\n2 3.5 4 5\n3 -6 7 8e2\nEOF\n";
+    final TsplibFileData data = TsplibFileData.read(
+        new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII))
+    );
+
+    final NodeCoordinates coords = data.coordinates();
+    Assertions.assertTrue(coords.is3d());
+    Assertions.assertArrayEquals(new double[] {0, 3.5, -6}, coords.xs());
+    Assertions.assertArrayEquals(new double[] {1, 4, 7}, coords.ys());
+    Assertions.assertArrayEquals(new double[] {2, 5, 800}, coords.zs());
+    Assertions.assertArrayEquals(new double[][] {{0, 1, 2}, {3.5, 4, 5}, {-6, 7, 800}}, data.nodeCoords());
+    Assertions.assertSame(data.nodeCoords(), data.nodeCoords());
+
+    Assertions.assertArrayEquals(data.nodeCoords(), NodeCoordinates.of(data.nodeCoords()).toArray());
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> NodeCoordinates.of(new double[][] {{0, 1}, {0, 1, 2}})
+    );
+  }
+
+  @Test
+  public void testSinglePrecisionRead() throws IOException, URISyntaxException {
+    final Random rnd = new Random(0);
+    for (final String fname: new String[] {"tsp/pla85900.tsp", "tsp/a280.tsp", "tsp/gr96.tsp"}) {
+      final Path file = archiveFile(fname);
+      final TsplibFileData expected = TsplibFileData.read(file);
+      final TsplibFileData actual = TsplibFileData.read(file, ReadOption.SINGLE_PRECISION);
+      assertSameData(expected, actual);
+      assertSameData(actual, TsplibFileData.read(file, ReadOption.SINGLE_PRECISION, ReadOption.PARALLEL));
+
+      final TspInstance a = TspInstance.from(expected);
+      final TspInstance b = TspInstance.from(actual);
+      for (int k = 0, n = expected.dimension(); k < 100_000; ++k) {
+        final int i = rnd.nextInt(n);
+        final int j = rnd.nextInt(n);
+        Assertions.assertEquals(a.getEdgeWeight(i, j), b.getEdgeWeight(i, j), fname);
+      }
+    }
+
+    Assertions.assertTrue(
+        TsplibFileData.read(archiveFile("tsp/pla85900.tsp"), ReadOption.SINGLE_PRECISION)
+            .coordinates().isSinglePrecision()
+    );
+    // GEO coordinates have decimal digits that are not exactly representable as floats
+    Assertions.assertFalse(
+        TsplibFileData.read(archiveFile("tsp/gr96.tsp"), ReadOption.SINGLE_PRECISION)
+            .coordinates().isSinglePrecision()
+    );
+  }
+
+  @Test
+  public void testParallelReadOfEdgeWeightFormats() throws IOException {
+    final int n = 300;
+    final Random rnd = new Random(0);
+    final int[][] weights = new int[n][n];
+    for (int i = 0; i < n; ++i) {
+      for (int j = i + 1; j < n; ++j)  weights[i][j] = weights[j][i] = rnd.nextInt(1000);
+    }
+
+    for (final EdgeWeightFormat format: EdgeWeightFormat.values()) {
+      if (format == EdgeWeightFormat.FUNCTION)  continue;
+
+      final StringBuilder sb = new StringBuilder();
+      sb.append("NAME: test\nTYPE: TSP\nDIMENSION: ").append(n).append('\n');
+      sb.append("EDGE_WEIGHT_TYPE: EXPLICIT\nEDGE_WEIGHT_FORMAT: ").append(format).append('\n');
+      sb.append("EDGE_WEIGHT_SECTION\n");
+      for (int a = 0; a < n; ++a) {
+        final int end = ParallelSectionParser.endOfRow(format, a, n);
+        for (int b = ParallelSectionParser.firstInRow(format, a, n); b < end; ++b) {
+          sb.append(weights[a][b]).append(b % 17 == 0 ? '\n' : ' ');
+        }
+      }
+      sb.append("\nEOF\n");
+
+      final byte[] content = sb.toString().getBytes(StandardCharsets.US_ASCII);
+      final TsplibFileData expected = TsplibFileData.read(new ByteArrayInputStream(content));
+      final TsplibFileData actual = TsplibFileData.read(new ByteArrayInputStream(content), ReadOption.PARALLEL);
+      Assertions.assertArrayEquals(weights, expected.edgeWeights().toArray(), format.toString());
+      Assertions.assertEquals(format != EdgeWeightFormat.FULL_MATRIX, expected.edgeWeights().isSymmetric());
+      assertSameData(expected, actual);
+    }
+  }
+
+  @Test
+  public void testCompressedRead() throws IOException, URISyntaxException {
+    final String[] filenames = {"tsp/a280.tsp", "tsp/si175.tsp", "vrp/eil22.vrp", "tsp/rd100.opt.tour"};
+
+    for (final String fname: filenames) {
+      final Path file = archiveFile(fname);
+      final TsplibFileData expected = TsplibFileData.read(file);
+      final String basename = file.getFileName().toString();
+
+      final Path gz = tmpDir.resolve(basename + ".gz");
+      try (final OutputStream os = new GZIPOutputStream(Files.newOutputStream(gz))) {
+        Files.copy(file, os);
+      }
+
+      final Path zip = tmpDir.resolve(basename + ".zip");
+      try (final ZipOutputStream os = new ZipOutputStream(Files.newOutputStream(zip))) {
+        os.putNextEntry(new ZipEntry(basename));
+        Files.copy(file, os);
+        os.closeEntry();
+      }
+
+      for (final Path compressed: new Path[] {gz, zip}) {
+        assertSameData(expected, TsplibFileData.read(compressed));
+        assertSameData(expected, TsplibFileData.read(compressed, ReadOption.MEMORY_MAPPED));
+        assertSameData(expected, TsplibFileData.read(compressed, ReadOption.PARALLEL));
+        assertSameData(expected, TsplibFileData.read(Files.newInputStream(compressed), ReadOption.PARALLEL));
+        Assertions.assertEquals(TsplibHeader.read(file), TsplibHeader.read(compressed));
+      }
+    }
+  }
+
+  // ==========================================================================
+  // Helpers
+  // ==========================================================================
+
+  static Path archiveFile(final String filename) throws URISyntaxException {
+    return Path.of(
+        TsplibArchive.class.getResource("/io/github/lmores/tsplib/__archive__/" + filename).toURI()
+    );
+  }
+
+  static void assertSameData(final TsplibFileData expected, final TsplibFileData actual) {
+    Assertions.assertEquals(expected.name(), actual.name());
+    Assertions.assertEquals(expected.type(), actual.type());
+    Assertions.assertEquals(expected.comment(), actual.comment());
+    Assertions.assertEquals(expected.dimension(), actual.dimension());
+    Assertions.assertEquals(expected.capacity(), actual.capacity());
+    Assertions.assertEquals(expected.edgeWeightType(), actual.edgeWeightType());
+    Assertions.assertEquals(expected.edgeWeightFormat(), actual.edgeWeightFormat());
+    Assertions.assertEquals(expected.edgeDataFormat(), actual.edgeDataFormat());
+    Assertions.assertEquals(expected.nodeCoordType(), actual.nodeCoordType());
+    Assertions.assertEquals(expected.displayDataType(), actual.displayDataType());
+    Assertions.assertArrayEquals(expected.nodeCoords(), actual.nodeCoords());
+    Assertions.assertArrayEquals(expected.depots(), actual.depots());
+    Assertions.assertArrayEquals(expected.demands(), actual.demands());
+    Assertions.assertArrayEquals(expected.edges(), actual.edges());
+    Assertions.assertArrayEquals(expected.fixedEdges(), actual.fixedEdges());
+    if (expected.edgeWeights() == null) {
+      Assertions.assertNull(actual.edgeWeights());
+    } else {
+      Assertions.assertEquals(expected.edgeWeights().isSymmetric(), actual.edgeWeights().isSymmetric());
+      Assertions.assertArrayEquals(expected.edgeWeights().toArray(), actual.edgeWeights().toArray());
+    }
+    Assertions.assertArrayEquals(expected.displayCoords(), actual.displayCoords());
+    Assertions.assertArrayEquals(expected.tours(), actual.tours());
+  }
+}
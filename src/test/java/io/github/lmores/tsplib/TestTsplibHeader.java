@@ -0,0 +1,77 @@
+package io.github.lmores.tsplib;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
+import io.github.lmores.tsplib.TsplibFileFormat.ProblemType;
+
+public class TestTsplibHeader {
+
+  @Test
+  public void testHeadersMatchFileData() throws IOException {
+    for (final String fname: TsplibArchive.extractTspFilenames()) {
+      if (fname.endsWith(".problems"))  continue;
+      assertSameHeader(
+          TsplibFileData.read(TsplibArchive.getTspFileInputStream(fname)),
+          TsplibArchive.loadTspHeader(fname), fname
+      );
+    }
+
+    for (final String fname: TsplibArchive.extractAtspFilenames()) {
+      assertSameHeader(
+          TsplibFileData.read(TsplibArchive.getAtspFileInputStream(fname)),
+          TsplibArchive.loadAtspHeader(fname), fname
+      );
+    }
+
+    for (final String fname: TsplibArchive.extractVrpFilenames()) {
+      assertSameHeader(
+          TsplibFileData.read(TsplibArchive.getVrpFileInputStream(fname)),
+          TsplibArchive.loadVrpHeader(fname), fname
+      );
+    }
+  }
+
+  @Test
+  public void testHeaderStopsAtDataPart() throws IOException {
+    final String content =
+        "NAME : test\nTYPE : TSP\nCOMMENT : a comment\nDIMENSION : 3\n" +
+        "EDGE_WEIGHT_TYPE : EUC_2D\nNODE_COORD_SECTION\n1 0 0\n2 not a number\n";
+    final TsplibHeader header = TsplibHeader.read(
+        new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII))
+    );
+
+    Assertions.assertEquals("test", header.name());
+    Assertions.assertEquals(ProblemType.TSP, header.type());
+    Assertions.assertEquals("a comment", header.comment());
+    Assertions.assertEquals(3, header.dimension());
+    Assertions.assertEquals(EdgeWeightType.EUC_2D, header.edgeWeightType());
+  }
+
+  // ==========================================================================
+  // Helpers
+  // ==========================================================================
+
+  private static void assertSameHeader(
+      final TsplibFileData data, final TsplibHeader header, final String fname
+  ) {
+    // A full read infers the dimension of tour files from the length of the tours
+    // and the coordinate type even when other sections precede the node coordinates
+    final TsplibHeader expected = TsplibHeader.from(data);
+    Assertions.assertEquals(
+        new TsplibHeader(
+            expected.name(), expected.type(), expected.comment(),
+            header.dimension() == -1 ? -1 : expected.dimension(),
+            expected.capacity(), expected.edgeWeightType(), expected.edgeWeightFormat(),
+            expected.edgeDataFormat(), header.nodeCoordType() == null ? null : expected.nodeCoordType(),
+            expected.displayDataType()
+        ),
+        header, fname
+    );
+  }
+}
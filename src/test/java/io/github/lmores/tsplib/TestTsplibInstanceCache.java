@@ -0,0 +1,92 @@
+package io.github.lmores.tsplib;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.lmores.tsplib.tsp.TspInstance;
+
+public class TestTsplibInstanceCache {
+
+  @Test
+  public void testHitsAndMisses() throws IOException {
+    final TsplibInstanceCache cache = new TsplibInstanceCache(Long.MAX_VALUE);
+    final TspInstance a280 = cache.getTspInstance("a280.tsp");
+    Assertions.assertSame(a280, cache.getTspInstance("a280.tsp"));
+    Assertions.assertNotNull(cache.getAtspInstance("br17.atsp"));
+    Assertions.assertNotNull(cache.getSopInstance("br17.10.sop"));
+
+    Assertions.assertEquals(3, cache.size());
+    Assertions.assertEquals(1, cache.hitCount());
+    Assertions.assertEquals(3, cache.missCount());
+    Assertions.assertTrue(cache.estimatedBytes() > 280 * 2 * Double.BYTES);
+
+    cache.clear();
+    Assertions.assertEquals(0, cache.size());
+    Assertions.assertEquals(0, cache.estimatedBytes());
+    Assertions.assertNotSame(a280, cache.getTspInstance("a280.tsp"));
+  }
+
+  @Test
+  public void testSingleFlight() throws Exception {
+    final TsplibInstanceCache cache = new TsplibInstanceCache(Long.MAX_VALUE);
+    final int nThreads = 8;
+    final ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+    try {
+      final CountDownLatch start = new CountDownLatch(1);
+      final List<Future<TspInstance>> futures = new ArrayList<>();
+      for (int i = 0; i < nThreads; ++i) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          return cache.getTspInstance("d18512.tsp");
+        }));
+      }
+      start.countDown();
+
+      final TspInstance instance = futures.get(0).get();
+      for (final Future<TspInstance> f: futures)  Assertions.assertSame(instance, f.get());
+      Assertions.assertEquals(1, cache.missCount());
+      Assertions.assertEquals(nThreads - 1, cache.hitCount());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testEviction() throws IOException {
+    final long si175Bytes = TsplibInstanceCache.estimateBytes(TsplibArchive.loadTspInstance("si175.tsp"));
+    final long gr17Bytes = TsplibInstanceCache.estimateBytes(TsplibArchive.loadTspInstance("gr17.tsp"));
+    final long gr21Bytes = TsplibInstanceCache.estimateBytes(TsplibArchive.loadTspInstance("gr21.tsp"));
+    Assertions.assertTrue(gr17Bytes < gr21Bytes);
+    final TsplibInstanceCache cache = new TsplibInstanceCache(si175Bytes + gr21Bytes);
+
+    cache.getTspInstance("si175.tsp");
+    cache.getTspInstance("gr17.tsp");
+    cache.getTspInstance("si175.tsp");
+    Assertions.assertEquals(0, cache.evictionCount());
+
+    // gr21 does not fit, the least recently used instance (gr17) is evicted to make room
+    cache.getTspInstance("gr21.tsp");
+    Assertions.assertEquals(1, cache.evictionCount());
+    Assertions.assertEquals(2, cache.size());
+    Assertions.assertEquals(si175Bytes + gr21Bytes, cache.estimatedBytes());
+
+    cache.getTspInstance("si175.tsp");
+    Assertions.assertEquals(2, cache.hitCount());
+  }
+
+  @Test
+  public void testFailedLoadIsNotCached() {
+    final TsplibInstanceCache cache = new TsplibInstanceCache(Long.MAX_VALUE);
+    Assertions.assertThrows(Exception.class, () -> cache.getTspInstance("missing.tsp"));
+    Assertions.assertEquals(0, cache.size());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new TsplibInstanceCache(-1));
+  }
+}
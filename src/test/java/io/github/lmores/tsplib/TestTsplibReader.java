@@ -0,0 +1,216 @@
+package io.github.lmores.tsplib;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeDataFormat;
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightFormat;
+import io.github.lmores.tsplib.TsplibFileFormat.Keyword;
+import io.github.lmores.tsplib.TsplibFileFormat.TsplibFileFormatException;
+
+public class TestTsplibReader {
+
+  @Test
+  public void testCallbacksMatchFileData() throws IOException, URISyntaxException {
+    final String[] filenames = {
+      "tsp/a280.tsp", "tsp/si175.tsp", "tsp/gr17.tsp", "tsp/pa561.tsp", "tsp/rd100.opt.tour",
+      "tsp/a280.opt.tour", "tsp/linhp318.tsp", "atsp/br17.atsp", "sop/ESC07.sop", "vrp/eil22.vrp",
+      "hcp/alb1000.hcp", "hcp/alb3000b.hcp"
+    };
+
+    for (final String fname: filenames) {
+      final Path file = TestTsplibFileData.archiveFile(fname);
+      final TsplibFileData data = TsplibFileData.read(file);
+      final CollectingHandler handler = new CollectingHandler();
+      TsplibReader.read(file, handler);
+
+      Assertions.assertEquals(data.name(), handler.name, fname);
+      if (data.nodeCoords() != null)  Assertions.assertArrayEquals(data.nodeCoords(), handler.nodeCoords, fname);
+      if (data.edgeWeights() != null)  Assertions.assertArrayEquals(data.edgeWeights().toArray(), handler.edgeWeights, fname);
+      if (data.depots() != null)  Assertions.assertArrayEquals(data.depots(), handler.depots(), fname);
+      if (data.demands() != null)  Assertions.assertArrayEquals(data.demands(), handler.demands, fname);
+      if (data.displayCoords() != null)  Assertions.assertArrayEquals(data.displayCoords(), handler.displayCoords, fname);
+      if (data.tours() != null)  Assertions.assertArrayEquals(data.tours(), handler.tours.toArray(new int[0][]), fname);
+      if (data.edges() != null)  Assertions.assertArrayEquals(edgePairs(data), handler.edges(), fname);
+      if (data.fixedEdges() != null) {
+        Assertions.assertArrayEquals(data.fixedEdges(), handler.fixedEdges(), fname);
+      } else {
+        Assertions.assertEquals(0, handler.fixedEdges().length, fname);
+      }
+    }
+  }
+
+  @Test
+  public void testErrorsMatchFileData() {
+    final String header = "NAME : err\nTYPE : CVRP\nDIMENSION : 3\nEDGE_WEIGHT_TYPE : EUC_2D\n";
+    final String coords = "NODE_COORD_SECTION\n1 0 0\n2 1 0\n3 0 1\n";
+    final String[] contents = {
+      header + coords + "DEMAND_SECTION\n1 0\n2 5\n4 5\nEOF\n",
+      header + coords + "DEMAND_SECTION\n0 0\n2 5\n3 5\nEOF\n",
+      header + coords + "DEPOT_SECTION\n4\n-1\nEOF\n",
+      header + coords + "FIXED_EDGES_SECTION\n1 2\n2 4\n-1\nEOF\n",
+      header + "NODE_COORD_SECTION\n1 0 0\n3 1 0\n2 0 1\nEOF\n",
+      header + coords + "DISPLAY_DATA_SECTION\n1 0 0\n2 1 0\n3 0 1\nEOF\n",
+      "NAME : err\nTYPE : TOUR\nDIMENSION : 3\nTOUR_SECTION\n1 2\n-1\nEOF\n",
+      "NAME : err\nTYPE : TOUR\nDIMENSION : 2\nTOUR_SECTION\n1 99\n-1\nEOF\n",
+      "NAME : err\nTYPE : TOUR\nDIMENSION : 2\nTOUR_SECTION\n1 2 1\n-1\nEOF\n",
+      "NAME : err\nTYPE : TOUR\nTOUR_SECTION\n1 2 3\n-1\n1 4 2\n-1\nEOF\n",
+      "NAME : err\nTYPE : HCP\nDIMENSION : 3\nEDGE_DATA_FORMAT : EDGE_LIST\n" +
+          "EDGE_DATA_SECTION\n1 2\n2 4\n-1\nEOF\n",
+      "NAME : err\nTYPE : HCP\nDIMENSION : 3\nEDGE_DATA_FORMAT : ADJ_LIST\n" +
+          "EDGE_DATA_SECTION\n1 2 3 -1\n4 1 -1\n-1\nEOF\n",
+      "NAME : err\nBOGUS : 3\nEOF\n",
+      "NAME : err\nTYPE : UNKNOWN\nDIMENSION : 3\nEOF\n",
+      "NAME : err\nTYPE : TSP\nDIMENSION : 3\nEDGE_WEIGHT_TYPE : UNKNOWN\nEOF\n",
+    };
+
+    for (final String content: contents) {
+      final RuntimeException expected = Assertions.assertThrows(
+          RuntimeException.class, () -> TsplibFileData.read(stream(content)), content
+      );
+      final RuntimeException actual = Assertions.assertThrows(
+          RuntimeException.class, () -> TsplibReader.read(stream(content), new CollectingHandler()),
+          content
+      );
+      Assertions.assertEquals(expected.getClass(), actual.getClass(), content);
+      Assertions.assertEquals(expected.getMessage(), actual.getMessage(), content);
+      Assertions.assertTrue(
+          expected instanceof TsplibFileFormatException ||
+          expected.getClass() == IllegalArgumentException.class,
+          content
+      );
+    }
+  }
+
+  // ==========================================================================
+  // Private helpers
+  // ==========================================================================
+
+  private static ByteArrayInputStream stream(final String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /** Returns the edges of the provided data as (i, j) pairs, in file order. */
+  private static int[][] edgePairs(final TsplibFileData data) {
+    if (data.edgeDataFormat() == EdgeDataFormat.EDGE_LIST)  return data.edges();
+
+    final List<int[]> pairs = new ArrayList<>();
+    for (final int[] adjacency: data.edges()) {
+      for (int k = 1; k < adjacency.length; ++k)  pairs.add(new int[] {adjacency[0], adjacency[k]});
+    }
+    return pairs.toArray(new int[0][]);
+  }
+
+  private static final class CollectingHandler implements TsplibReader.Handler {
+    String name;
+    int dimension = -1;
+    EdgeWeightFormat edgeWeightFormat;
+    double[][] nodeCoords;
+    double[][] displayCoords;
+    int[][] edgeWeights;
+    int[] demands;
+    final List<Integer> depots = new ArrayList<>();
+    final List<int[]> tours = new ArrayList<>();
+    final List<Integer> currentTour = new ArrayList<>();
+    final List<int[]> edges = new ArrayList<>();
+    final List<int[]> fixedEdges = new ArrayList<>();
+
+    @Override
+    public void specification(final Keyword keyword, final String value) {
+      switch (keyword) {
+        case NAME -> name = value;
+        case DIMENSION -> dimension = Integer.parseInt(value);
+        case EDGE_WEIGHT_FORMAT -> edgeWeightFormat = EdgeWeightFormat.valueOf(value);
+        default -> { /* no-op */ }
+      }
+    }
+
+    @Override
+    public void beginSection(final Keyword section) {
+      switch (section) {
+        case NODE_COORD_SECTION -> nodeCoords = new double[dimension][];
+        case DISPLAY_DATA_SECTION -> displayCoords = new double[dimension][];
+        case EDGE_WEIGHT_SECTION -> edgeWeights = new int[dimension][dimension];
+        case DEMAND_SECTION -> demands = new int[dimension];
+        default -> { /* no-op */ }
+      }
+    }
+
+    @Override
+    public void nodeCoord(final int node, final double x, final double y) {
+      nodeCoords[node] = new double[] {x, y};
+    }
+
+    @Override
+    public void nodeCoord(final int node, final double x, final double y, final double z) {
+      nodeCoords[node] = new double[] {x, y, z};
+    }
+
+    @Override
+    public void displayCoord(final int node, final double x, final double y) {
+      displayCoords[node] = new double[] {x, y};
+    }
+
+    @Override
+    public void depot(final int node) {
+      depots.add(node);
+    }
+
+    @Override
+    public void demand(final int node, final int demand) {
+      demands[node] = demand;
+    }
+
+    @Override
+    public void edge(final int i, final int j) {
+      edges.add(new int[] {i, j});
+    }
+
+    @Override
+    public void fixedEdge(final int i, final int j) {
+      fixedEdges.add(new int[] {i, j});
+    }
+
+    @Override
+    public void edgeWeight(final int i, final int j, final int weight) {
+      edgeWeights[i][j] = weight;
+      if (edgeWeightFormat != EdgeWeightFormat.FULL_MATRIX)  edgeWeights[j][i] = weight;
+    }
+
+    @Override
+    public void tourNode(final int tour, final int position, final int node) {
+      if (position == 0 && !currentTour.isEmpty())  closeTour();
+      currentTour.add(node);
+    }
+
+    @Override
+    public void endSection(final Keyword section) {
+      if (section == Keyword.TOUR_SECTION && !currentTour.isEmpty())  closeTour();
+    }
+
+    int[][] edges() {
+      return edges.toArray(new int[0][]);
+    }
+
+    int[][] fixedEdges() {
+      return fixedEdges.toArray(new int[0][]);
+    }
+
+    int[] depots() {
+      return depots.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void closeTour() {
+      tours.add(currentTour.stream().mapToInt(Integer::intValue).toArray());
+      currentTour.clear();
+    }
+  }
+}
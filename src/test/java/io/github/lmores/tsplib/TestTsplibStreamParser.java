@@ -0,0 +1,68 @@
+package io.github.lmores.tsplib;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.lmores.tsplib.TsplibFileData.ReadOption;
+
+public class TestTsplibStreamParser {
+
+  @Test
+  public void testChunkedContent() throws IOException {
+    final String[] filenames = {"a280.tsp", "si175.tsp", "rd100.opt.tour", "pla7397.tsp"};
+    final Random rnd = new Random(42);
+
+    for (final String fname: filenames) {
+      final byte[] content;
+      try (final InputStream is = TsplibArchive.getTspFileInputStream(fname)) {
+        content = is.readAllBytes();
+      }
+
+      final TsplibStreamParser parser = new TsplibStreamParser(ReadOption.PARALLEL);
+      for (int from = 0; from < content.length; ) {
+        final int len = Math.min(1 + rnd.nextInt(64), content.length - from);
+        final ByteBuffer chunk = ByteBuffer.wrap(content, from, len);
+        parser.feed(chunk);
+        Assertions.assertFalse(chunk.hasRemaining());
+        from += len;
+      }
+
+      Assertions.assertEquals(content.length, parser.bytesReceived());
+      TestTsplibFileData.assertSameData(TsplibFileData.read(TsplibArchive.getTspFileInputStream(fname)), parser.finish());
+      Assertions.assertThrows(IllegalStateException.class, parser::finish);
+    }
+  }
+
+  @Test
+  public void testNonBlockingChannel() throws IOException {
+    final byte[] content;
+    try (final InputStream is = TsplibArchive.getTspFileInputStream("a280.tsp")) {
+      content = is.readAllBytes();
+    }
+
+    final Pipe pipe = Pipe.open();
+    pipe.source().configureBlocking(false);
+    final TsplibStreamParser parser = new TsplibStreamParser();
+
+    // Nothing available yet: the call returns without blocking
+    Assertions.assertTrue(parser.readFrom(pipe.source()));
+    Assertions.assertEquals(0, parser.bytesReceived());
+
+    pipe.sink().write(ByteBuffer.wrap(content, 0, 1001));
+    Assertions.assertTrue(parser.readFrom(pipe.source()));
+    Assertions.assertEquals(1001, parser.bytesReceived());
+
+    pipe.sink().write(ByteBuffer.wrap(content, 1001, content.length - 1001));
+    pipe.sink().close();
+    while (parser.readFrom(pipe.source()))  Thread.onSpinWait();
+    pipe.source().close();
+
+    TestTsplibFileData.assertSameData(TsplibFileData.read(TsplibArchive.getTspFileInputStream("a280.tsp")), parser.finish());
+  }
+}
@@ -0,0 +1,88 @@
+package io.github.lmores.tsplib;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.lmores.tsplib.TsplibFileFormat.Keyword;
+import io.github.lmores.tsplib.TsplibFileFormat.TsplibFileFormatException;
+
+public class TestTsplibTokenizer {
+
+  @Test
+  public void testKeywords() throws IOException {
+    final TsplibTokenizer tk = tokenizer("NAME : a280\nTYPE: TSP (Author)\nFIXED_EDGES\nEOF\n");
+    Assertions.assertEquals(Keyword.NAME, tk.nextKeyword());
+    tk.skipDelimiters();
+    Assertions.assertEquals("a280", tk.nextLine());
+    Assertions.assertEquals(Keyword.TYPE, tk.nextKeyword());
+    Assertions.assertEquals("TSP", tk.next());
+    tk.skipLine();
+    Assertions.assertEquals(Keyword.FIXED_EDGES_SECTION, tk.nextKeyword());
+    Assertions.assertEquals(Keyword.EOF, tk.nextKeyword());
+    Assertions.assertFalse(tk.hasNext());
+    Assertions.assertThrows(NoSuchElementException.class, () -> tk.nextKeyword());
+
+    Assertions.assertThrows(TsplibFileFormatException.class, () -> tokenizer("FOO").nextKeyword());
+  }
+
+  @Test
+  public void testInts() throws IOException {
+    final TsplibTokenizer tk = tokenizer(" 0 -1\t+42\r\n2147483647 -2147483648 2147483648 x EOF");
+    Assertions.assertEquals(0, tk.nextInt());
+    Assertions.assertEquals(-1, tk.nextInt());
+    Assertions.assertEquals(42, tk.nextInt());
+    Assertions.assertEquals(Integer.MAX_VALUE, tk.nextInt());
+    Assertions.assertTrue(tk.hasNextInt());
+    Assertions.assertEquals(Integer.MIN_VALUE, tk.nextInt());
+    Assertions.assertFalse(tk.hasNextInt());
+    Assertions.assertThrows(InputMismatchException.class, () -> tk.nextInt());
+    tk.next();
+    Assertions.assertThrows(InputMismatchException.class, () -> tk.nextInt());
+    tk.next();
+    Assertions.assertFalse(tk.hasNextInt());
+    Assertions.assertEquals(Keyword.EOF, tk.nextKeyword());
+  }
+
+  @Test
+  public void testDoubles() throws IOException {
+    final String[] tokens = {
+      "0", "-0", "1", "-1.5", "3.14159", "1449000", "0.00000e+00", "8.37000e+02", "6.734e-3",
+      ".5", "5.", "1e22", "1e23", "123456789012345678901234567890", "0.1000000000000000055511151231257827",
+      "2.2250738585072014E-308", "4.9e-324", "1.7976931348623157e308", "NaN", "-Infinity",
+    };
+
+    final TsplibTokenizer tk = tokenizer(String.join("\n", tokens));
+    for (final String token: tokens) {
+      Assertions.assertEquals(Double.parseDouble(token), tk.nextDouble(), token);
+    }
+
+    Assertions.assertThrows(InputMismatchException.class, () -> tokenizer("1e").nextDouble());
+    Assertions.assertThrows(InputMismatchException.class, () -> tokenizer(".").nextDouble());
+    Assertions.assertThrows(InputMismatchException.class, () -> tokenizer("1.0x").nextDouble());
+  }
+
+  @Test
+  public void testTokensSpanningBufferRefills() throws IOException {
+    final int n = 100_000;
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < n; ++i)  sb.append(i).append(i % 7 == 0 ? "\r\n" : " ");
+
+    final TsplibTokenizer tk = tokenizer(sb.toString());
+    for (int i = 0; i < n; ++i)  Assertions.assertEquals(i, tk.nextInt());
+    Assertions.assertFalse(tk.hasNext());
+  }
+
+  // ==========================================================================
+  // Private helpers
+  // ==========================================================================
+
+  private static TsplibTokenizer tokenizer(final String content) {
+    return new TsplibTokenizer(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+  }
+}
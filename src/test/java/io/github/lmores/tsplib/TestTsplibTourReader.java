@@ -0,0 +1,73 @@
+package io.github.lmores.tsplib;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.github.lmores.tsplib.TsplibFileFormat.ProblemType;
+import io.github.lmores.tsplib.TsplibFileFormat.TsplibFileFormatException;
+
+public class TestTsplibTourReader {
+
+  @Test
+  public void testToursMatchFileData() throws IOException {
+    for (final String fname: TsplibArchive.extractTspFilenames()) {
+      if (!fname.endsWith(".tour"))  continue;
+
+      final Solutions expected = TsplibArchive.loadTspTour(fname);
+      try (
+          final TsplibTourReader reader = TsplibTourReader.open(TsplibArchive.getTspFileInputStream(fname))
+      ) {
+        Assertions.assertEquals(expected.name(), reader.name(), fname);
+        Assertions.assertEquals(ProblemType.TOUR, reader.type(), fname);
+        Assertions.assertNull(reader.tour(), fname);
+
+        for (final int[] tour: expected.tours()) {
+          Assertions.assertTrue(reader.next(), fname);
+          Assertions.assertArrayEquals(tour, reader.tour(), fname);
+        }
+        Assertions.assertFalse(reader.next(), fname);
+        Assertions.assertEquals(expected.dimension(), reader.dimension(), fname);
+        Assertions.assertEquals(expected.tours().length, reader.tourCount(), fname);
+      }
+    }
+  }
+
+  @Test
+  public void testMultipleTours() throws IOException {
+    final String content =
+        "NAME: test\nTYPE: TOUR\nTOUR_SECTION\n1 2 3 4\n-1\n4 3 2 1 -1\n2 1 4 3\n-1\n-1\nEOF\n";
+    try (final TsplibTourReader reader = open(content)) {
+      Assertions.assertEquals(-1, reader.dimension());
+
+      Assertions.assertTrue(reader.next());
+      final int[] buffer = reader.tour();
+      Assertions.assertArrayEquals(new int[] {0, 1, 2, 3}, buffer);
+      Assertions.assertEquals(4, reader.dimension());
+
+      Assertions.assertTrue(reader.next());
+      Assertions.assertSame(buffer, reader.tour());
+      Assertions.assertArrayEquals(new int[] {3, 2, 1, 0}, buffer);
+
+      Assertions.assertTrue(reader.next());
+      Assertions.assertArrayEquals(new int[] {1, 0, 3, 2}, buffer);
+
+      Assertions.assertFalse(reader.next());
+      Assertions.assertFalse(reader.next());
+      Assertions.assertEquals(3, reader.tourCount());
+    }
+
+    final String wrongLength = "NAME: test\nTYPE: TOUR\nDIMENSION: 3\nTOUR_SECTION\n1 2 3 -1\n1 2 -1\nEOF\n";
+    try (final TsplibTourReader reader = open(wrongLength)) {
+      Assertions.assertTrue(reader.next());
+      Assertions.assertThrows(TsplibFileFormatException.class, reader::next);
+    }
+  }
+
+  private static TsplibTourReader open(final String content) throws IOException {
+    return TsplibTourReader.open(new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII)));
+  }
+}
@@ -1,8 +1,14 @@
 package io.github.lmores.tsplib;
 
+import java.io.IOException;
+import java.util.Random;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
+import io.github.lmores.tsplib.tsp.TspInstance;
+
 public class TestTsplibUtil {
 
   @Test
@@ -81,4 +87,157 @@ public class TestTsplibUtil {
     Assertions.assertEquals(8, TsplibUtil.strictUpperTriangularToArrayIndex(2, 4, 5));
     Assertions.assertEquals(9, TsplibUtil.strictUpperTriangularToArrayIndex(3, 4, 5));
   }
+
+  @Test
+  public void testLargeDimensionIndexesConversion() {
+    final int n = 100_000;
+    final int[][] entries = {{0, 1}, {0, n - 1}, {1, 2}, {46_341, 46_342}, {70_000, 99_999}, {n - 2, n - 1}};
+
+    for (final int[] e: entries) {
+      final long k = TsplibUtil.strictUpperTriangularToArrayLongIndex(e[0], e[1], n);
+      Assertions.assertArrayEquals(e, TsplibUtil.arrayToStrictUpperTriangularMatrixIndexes(k, n));
+    }
+
+    Assertions.assertEquals((long) n * (n - 1) / 2 - 1, TsplibUtil.strictUpperTriangularToArrayLongIndex(n - 2, n - 1, n));
+    Assertions.assertEquals(1_073_767_308, TsplibUtil.strictUpperTriangularToArrayIndex(46_339, 46_340, 46_342));
+    Assertions.assertThrows(ArithmeticException.class, () -> TsplibUtil.strictUpperTriangularToArrayIndex(n - 2, n - 1, n));
+    Assertions.assertEquals((long) n * (n + 1) / 2, TsplibUtil.lowerTriangularToArrayIndex(n, 0));
+  }
+
+  @Test
+  public void testFillDistances() {
+    final int n = 200;
+    final Random rnd = new Random(7);
+    final double[] xs = new double[n];
+    final double[] ys = new double[n];
+    final double[] zs = new double[n];
+    for (int i = 0; i < n; ++i) {
+      // Values in DDD.MM format are valid for GEO too
+      xs[i] = rnd.nextInt(180) - 90 + rnd.nextInt(60) / 100.0;
+      ys[i] = rnd.nextInt(360) - 180 + rnd.nextInt(60) / 100.0;
+      zs[i] = rnd.nextDouble() * 1000;
+    }
+
+    final NodeCoordinates c2 = new NodeCoordinates(xs, ys, null);
+    final NodeCoordinates c3 = new NodeCoordinates(xs, ys, zs);
+    final NodeCoordinates f2 = new NodeCoordinates(
+        new float[] {0, 3, 7.5f, -2}, new float[] {0, 4, 1.25f, 9}, null
+    );
+    final int[] targets = new int[3 * n];
+    for (int k = 0; k < targets.length; ++k)  targets[k] = rnd.nextInt(n);
+
+    for (final EdgeWeightType type: new EdgeWeightType[] {
+        EdgeWeightType.EUC_2D, EdgeWeightType.EUC_3D, EdgeWeightType.CEIL_2D, EdgeWeightType.ATT,
+        EdgeWeightType.MAN_2D, EdgeWeightType.MAN_3D, EdgeWeightType.MAX_2D, EdgeWeightType.MAX_3D,
+        EdgeWeightType.GEO
+    }) {
+      final NodeCoordinates c = type.name().endsWith("3D") ? c3 : c2;
+      for (final int i: new int[] {0, 17, n - 1}) {
+        final int[] out = new int[targets.length];
+        TsplibUtil.fillDistances(type, c, i, targets, out);
+        for (int k = 0; k < targets.length; ++k) {
+          Assertions.assertEquals(distance(type, c, i, targets[k]), out[k], type.name());
+        }
+
+        final int[] row = new int[n - 10];
+        TsplibUtil.fillDistances(type, c, i, 10, n, row);
+        for (int j = 10; j < n; ++j) {
+          Assertions.assertEquals(distance(type, c, i, j), row[j - 10], type.name());
+        }
+      }
+
+      if (!type.name().endsWith("3D")) {
+        final int[] out = new int[4];
+        TsplibUtil.fillDistances(type, f2, 1, 0, 4, out);
+        for (int j = 0; j < 4; ++j)  Assertions.assertEquals(distance(type, f2, 1, j), out[j]);
+      }
+    }
+
+    // Values rounded half-way, saturating the int range or not a number
+    final double[] special = {0, 0.5, 1.5, 2.5, -0.5, 3e9, -3e9, 1e300, Double.NaN, 7, 0.25, 0.75};
+    final double[] sxs = new double[64];
+    final double[] sys = new double[64];
+    for (int k = 0; k < 64; ++k) {
+      sxs[k] = special[k % special.length];
+      sys[k] = special[(k / special.length + 3 * k) % special.length];
+    }
+    final NodeCoordinates sc = new NodeCoordinates(sxs, sys, null);
+    for (final EdgeWeightType type: new EdgeWeightType[] {
+        EdgeWeightType.EUC_2D, EdgeWeightType.CEIL_2D, EdgeWeightType.ATT,
+        EdgeWeightType.MAN_2D, EdgeWeightType.MAX_2D
+    }) {
+      for (int i = 0; i < 64; i += 5) {
+        final int[] row = new int[64];
+        TsplibUtil.fillDistances(type, sc, i, 0, 64, row);
+        for (int j = 0; j < 64; ++j)  Assertions.assertEquals(distance(type, sc, i, j), row[j], type.name());
+      }
+    }
+
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> TsplibUtil.fillDistances(EdgeWeightType.EUC_3D, c2, 0, 0, n, new int[n])
+    );
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> TsplibUtil.fillDistances(EdgeWeightType.EXPLICIT, c2, 0, 0, n, new int[n])
+    );
+    Assertions.assertThrows(
+        IllegalArgumentException.class,
+        () -> TsplibUtil.fillDistances(EdgeWeightType.EUC_2D, c2, 0, 0, n, new int[n - 1])
+    );
+  }
+
+  @Test
+  public void testInstanceEdgeWeights() throws IOException {
+    for (final String fname: new String[] {"a280.tsp", "att48.tsp", "gr96.tsp", "dsj1000.tsp"}) {
+      final TspInstance instance = TsplibArchive.loadTspInstance(fname);
+      final int n = instance.dimension();
+      final int[] targets = {n - 1, 0, 3, 3, n / 2};
+      final int[] out = new int[targets.length];
+      instance.getEdgeWeights(1, targets, out);
+      for (int k = 0; k < targets.length; ++k) {
+        Assertions.assertEquals(instance.getEdgeWeight(1, targets[k]), out[k], fname);
+      }
+
+      final int[][] weights = instance.materializeEdgeWeightsMatrix();
+      for (int i = 0; i < n; i += 7) {
+        for (int j = 0; j < n; ++j)  Assertions.assertEquals(instance.getEdgeWeight(i, j), weights[i][j], fname);
+      }
+    }
+  }
+
+  @Test
+  public void testGeoRadians() throws IOException {
+    for (final String fname: new String[] {"gr96.tsp", "gr666.tsp", "ali535.tsp"}) {
+      final TspInstance instance = TsplibArchive.loadTspInstance(fname);
+      final NodeCoordinates c = instance.coordinates();
+      final int n = instance.dimension();
+      final int[] row = new int[n];
+      for (int i = 0; i < n; ++i) {
+        instance.getEdgeWeights(i, 0, n, row);
+        for (int j = 0; j < n; ++j) {
+          final int expected = TsplibUtil.roundedHaversineDistance(c.x(i), c.y(i), c.x(j), c.y(j));
+          Assertions.assertEquals(expected, instance.getEdgeWeight(i, j), fname);
+          Assertions.assertEquals(expected, row[j], fname);
+        }
+      }
+    }
+  }
+
+  private static int distance(
+      final EdgeWeightType type, final NodeCoordinates c, final int i, final int j
+  ) {
+    return switch (type) {
+      case EUC_2D -> TsplibUtil.roundedEuclideanDistance(c.x(i), c.y(i), c.x(j), c.y(j));
+      case EUC_3D -> TsplibUtil.roundedEuclideanDistance(c.x(i), c.y(i), c.z(i), c.x(j), c.y(j), c.z(j));
+      case CEIL_2D -> TsplibUtil.ceilEuclideanDistance(c.x(i), c.y(i), c.x(j), c.y(j));
+      case ATT -> TsplibUtil.pseudoEuclideanDistance(c.x(i), c.y(i), c.x(j), c.y(j));
+      case MAN_2D -> TsplibUtil.roundedManhattanDistance(c.x(i), c.y(i), c.x(j), c.y(j));
+      case MAN_3D -> TsplibUtil.roundedManhattanDistance(c.x(i), c.y(i), c.z(i), c.x(j), c.y(j), c.z(j));
+      case MAX_2D -> TsplibUtil.roundedChebyshevDistance(c.x(i), c.y(i), c.x(j), c.y(j));
+      case MAX_3D -> TsplibUtil.roundedChebyshevDistance(c.x(i), c.y(i), c.z(i), c.x(j), c.y(j), c.z(j));
+      case GEO -> TsplibUtil.roundedHaversineDistance(c.x(i), c.y(i), c.x(j), c.y(j));
+      default -> throw new IllegalArgumentException(type.name());
+    };
+  }
 }
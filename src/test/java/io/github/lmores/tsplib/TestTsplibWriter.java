@@ -0,0 +1,120 @@
+package io.github.lmores.tsplib;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightFormat;
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
+import io.github.lmores.tsplib.TsplibFileFormat.NodeCoordType;
+import io.github.lmores.tsplib.TsplibFileFormat.ProblemType;
+import io.github.lmores.tsplib.atsp.AtspInstance;
+import io.github.lmores.tsplib.hcp.HcpInstance;
+import io.github.lmores.tsplib.tsp.TspInstance;
+
+public class TestTsplibWriter {
+
+  @TempDir
+  Path tmpDir;
+
+  @Test
+  public void testFileDataRoundTrip() throws IOException, URISyntaxException {
+    final String[] filenames = {
+      "tsp/a280.tsp", "tsp/si175.tsp", "tsp/gr17.tsp", "tsp/pa561.tsp", "tsp/linhp318.tsp",
+      "tsp/gr96.tsp", "tsp/a280.opt.tour", "tsp/rd100.opt.tour", "atsp/br17.atsp",
+      "sop/ESC07.sop", "vrp/eil22.vrp", "vrp/att48.vrp", "hcp/alb1000.hcp", "hcp/alb1000.opt.tour"
+    };
+
+    for (final String fname: filenames) {
+      final TsplibFileData expected = TsplibFileData.read(TestTsplibFileData.archiveFile(fname));
+      final Path file = tmpDir.resolve(fname.replace('/', '_'));
+      TsplibWriter.write(expected, file);
+      TestTsplibFileData.assertSameData(expected, TsplibFileData.read(file));
+    }
+  }
+
+  @Test
+  public void testEdgeWeightFormats() throws IOException {
+    final int n = 50;
+    final Random rnd = new Random(0);
+    final int[][] weights = new int[n][n];
+    for (int i = 0; i < n; ++i) {
+      for (int j = i + 1; j < n; ++j)  weights[i][j] = weights[j][i] = rnd.nextInt(2000) - 1000;
+    }
+
+    for (final EdgeWeightFormat format: EdgeWeightFormat.values()) {
+      if (format == EdgeWeightFormat.FUNCTION)  continue;
+
+      final TsplibFileData data = new TsplibFileData(
+          "test", ProblemType.TSP, "", n, -1, EdgeWeightType.EXPLICIT, format, null, null, null,
+          null, null, null, null, null, EdgeWeightMatrix.full(weights), null, null
+      );
+      final Path file = tmpDir.resolve(format + ".tsp");
+      TsplibWriter.write(data, file);
+      Assertions.assertArrayEquals(weights, TsplibFileData.read(file).edgeWeights().toArray(), format.toString());
+    }
+  }
+
+  @Test
+  public void testDoublesRoundTrip() throws IOException {
+    final int n = 10_000;
+    final Random rnd = new Random(0);
+    final double[][] coords = new double[n][];
+    for (int i = 0; i < n; ++i) {
+      coords[i] = switch (i % 5) {
+        case 0 -> new double[] {rnd.nextInt(100_000), -rnd.nextInt(100_000)};
+        case 1 -> new double[] {rnd.nextInt(1_000_000) / 1000.0, rnd.nextInt(100) / 100.0};
+        case 2 -> new double[] {rnd.nextDouble(), -rnd.nextDouble() * 1e6};
+        case 3 -> new double[] {rnd.nextGaussian() * 1e-12, rnd.nextGaussian() * 1e20};
+        default -> new double[] {-0.0, Double.MIN_VALUE};
+      };
+    }
+
+    final TsplibFileData data = new TsplibFileData(
+        "test", ProblemType.TSP, "", n, -1, EdgeWeightType.EUC_2D, null, null,
+        NodeCoordType.TWOD_COORDS, null, NodeCoordinates.of(coords), null, null, null, null, null, null, null
+    );
+    final Path file = tmpDir.resolve("doubles.tsp");
+    TsplibWriter.write(data, file);
+    Assertions.assertArrayEquals(coords, TsplibFileData.read(file).nodeCoords());
+  }
+
+  @Test
+  public void testSolutionsAndInstances() throws IOException {
+    final Solutions tours = TsplibArchive.loadTspTour("a280.opt.tour");
+    final Path tourFile = tmpDir.resolve("a280.opt.tour");
+    TsplibWriter.write(tours, tourFile);
+    final Solutions actualTours = Solutions.from(TsplibFileData.read(tourFile));
+    Assertions.assertEquals(tours.name(), actualTours.name());
+    Assertions.assertArrayEquals(tours.tours(), actualTours.tours());
+
+    for (final String fname: new String[] {"a280.tsp", "gr17.tsp", "si175.tsp", "att48.tsp"}) {
+      final TspInstance expected = TsplibArchive.loadTspInstance(fname);
+      final Path file = tmpDir.resolve(fname);
+      TsplibWriter.write(expected, file);
+      final TspInstance actual = TspInstance.read(file);
+      Assertions.assertEquals(expected.getClass(), actual.getClass(), fname);
+      Assertions.assertArrayEquals(
+          expected.materializeEdgeWeightsMatrix(), actual.materializeEdgeWeightsMatrix(), fname
+      );
+    }
+
+    final AtspInstance atsp = TsplibArchive.loadAtspInstance("br17.atsp");
+    final Path atspFile = tmpDir.resolve("br17.atsp");
+    TsplibWriter.write(atsp, atspFile);
+    Assertions.assertArrayEquals(
+        atsp.materializeEdgeWeightsMatrix(),
+        AtspInstance.from(TsplibFileData.read(atspFile)).materializeEdgeWeightsMatrix()
+    );
+
+    final HcpInstance hcp = TsplibArchive.loadHcpInstance("alb1000.hcp");
+    final Path hcpFile = tmpDir.resolve("alb1000.hcp");
+    TsplibWriter.write(hcp, hcpFile);
+    Assertions.assertEquals(hcp.edges(), HcpInstance.from(TsplibFileData.read(hcpFile)).edges());
+  }
+}
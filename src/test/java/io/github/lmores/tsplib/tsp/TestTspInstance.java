@@ -6,7 +6,10 @@ import java.net.URISyntaxException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import io.github.lmores.tsplib.NodeCoordinates;
 import io.github.lmores.tsplib.TsplibArchive;
+import io.github.lmores.tsplib.TsplibFileFormat.EdgeWeightType;
+import io.github.lmores.tsplib.TsplibUtil;
 
 
 public class TestTspInstance {
@@ -23,6 +26,27 @@ public class TestTspInstance {
     Assertions.assertEquals(309636, computeCanonicalTourValue(att532));
   }
 
+  @Test
+  public void testGeographicCoordinates() {
+    final NodeCoordinates coords =
+        NodeCoordinates.of(new double[][] {{38.24, 20.42}, {39.57, 26.15}});
+    final Geographic2dTspInstance instance = new Geographic2dTspInstance(
+        "geo", "", EdgeWeightType.GEO, 2, coords, null, null
+    );
+    Assertions.assertEquals(
+        instance, new Geographic2dTspInstance("geo", "", EdgeWeightType.GEO, 2, coords, null, null)
+    );
+    Assertions.assertEquals(
+        TsplibUtil.roundedHaversineDistance(38.24, 20.42, 39.57, 26.15),
+        instance.getEdgeWeight(0, 1)
+    );
+
+    // Radians are converted once and shared by all instances with the same coordinates
+    Assertions.assertSame(coords.toRadians(), coords.toRadians());
+    Assertions.assertEquals(TsplibUtil.ddmmToRadians(39.57), coords.toRadians()[0][1]);
+    Assertions.assertEquals(TsplibUtil.ddmmToRadians(26.15), coords.toRadians()[1][1]);
+  }
+
   // ==========================================================================
   // Private helpers
   // ==========================================================================